@@ -0,0 +1,104 @@
+package com.yashoid.office.benchmark;
+
+import com.yashoid.office.task.TaskManager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Submitting a batch of tasks one by one with runTask() against a single runTasks() call.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@BenchmarkMode(Mode.Throughput)
+public class BulkSubmitBenchmark {
+
+    private static final int BATCH_SIZE = 1000;
+
+    @Param({ ExecutorKind.OFFICE, ExecutorKind.OFFICE_WORK_STEALING })
+    public String executorKind;
+
+    @Param({ "4" })
+    public int workerCount;
+
+    private TaskManager mTaskManager;
+
+    private CountDownLatch mLatch;
+
+    private ArrayList<Runnable> mTasks = new ArrayList<>(BATCH_SIZE);
+
+    @Setup(Level.Trial)
+    public void setup() {
+        mTaskManager = ExecutorKind.newTaskManager(executorKind, workerCount);
+
+        Runnable task = new Runnable() {
+
+            @Override
+            public void run() {
+                mLatch.countDown();
+            }
+
+        };
+
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            // Distinct instances, the same way real batches are made.
+            mTasks.add(new Wrapper(task));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        mTaskManager.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void oneByOne() throws InterruptedException {
+        mLatch = new CountDownLatch(BATCH_SIZE);
+
+        for (Runnable task: mTasks) {
+            mTaskManager.runTask(ExecutorKind.SECTION, task, 0);
+        }
+
+        mLatch.await();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void bulk() throws InterruptedException {
+        mLatch = new CountDownLatch(BATCH_SIZE);
+
+        mTaskManager.runTasks(ExecutorKind.SECTION, mTasks, 0);
+
+        mLatch.await();
+    }
+
+    private static class Wrapper implements Runnable {
+
+        private Runnable mTask;
+
+        private Wrapper(Runnable task) {
+            mTask = task;
+        }
+
+        @Override
+        public void run() {
+            mTask.run();
+        }
+
+    }
+
+}
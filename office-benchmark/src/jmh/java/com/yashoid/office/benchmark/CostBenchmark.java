@@ -0,0 +1,134 @@
+package com.yashoid.office.benchmark;
+
+import com.yashoid.office.task.TaskManager;
+import com.yashoid.office.util.FlexiblePool;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per call cost of FlexiblePool, the TaskExecutor returned by TaskManager.getExecutor() and
+ * runTaskAndWait(), next to a fixed ThreadPoolExecutor with the same number of workers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CostBenchmark {
+
+    private static final int WORKER_COUNT = 4;
+
+    private TaskManager mTaskManager;
+    private ExecutorService mTaskExecutor;
+    private ExecutorService mThreadPool;
+
+    private static class PooledObject {
+
+        private boolean mIsReleased = false;
+
+    }
+
+    private FlexiblePool<PooledObject> mPool = new FlexiblePool<PooledObject>() {
+
+        @Override
+        protected PooledObject newInstance() {
+            return new PooledObject();
+        }
+
+        @Override
+        protected boolean markReleased(PooledObject instance) {
+            if (instance.mIsReleased) {
+                return false;
+            }
+
+            instance.mIsReleased = true;
+
+            return true;
+        }
+
+        @Override
+        protected void onInstanceReleased(PooledObject instance) {
+
+        }
+
+    };
+
+    private Runnable mEmptyTask = new Runnable() {
+
+        @Override
+        public void run() {
+
+        }
+
+    };
+
+    @Setup(Level.Trial)
+    public void setup() {
+        mTaskManager = ExecutorKind.newTaskManager(ExecutorKind.OFFICE, WORKER_COUNT);
+        mTaskExecutor = mTaskManager.getExecutor(ExecutorKind.SECTION);
+        mThreadPool = Executors.newFixedThreadPool(WORKER_COUNT);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        mTaskManager.close();
+        mThreadPool.shutdownNow();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Object flexiblePool_1() {
+        return acquireAndRelease();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Object flexiblePool_8() {
+        return acquireAndRelease();
+    }
+
+    private Object acquireAndRelease() {
+        PooledObject instance = mPool.acquire();
+
+        instance.mIsReleased = false;
+
+        mPool.release(instance);
+
+        return instance;
+    }
+
+    @Benchmark
+    public Object taskExecutorSubmit() throws ExecutionException, InterruptedException {
+        return mTaskExecutor.submit(mEmptyTask).get();
+    }
+
+    @Benchmark
+    public Object threadPoolSubmit() throws ExecutionException, InterruptedException {
+        return mThreadPool.submit(mEmptyTask).get();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void runTaskAndWait_1() {
+        mTaskManager.runTaskAndWait(ExecutorKind.SECTION, mEmptyTask, 0);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void runTaskAndWait_8() {
+        mTaskManager.runTaskAndWait(ExecutorKind.SECTION, mEmptyTask, 0);
+    }
+
+}
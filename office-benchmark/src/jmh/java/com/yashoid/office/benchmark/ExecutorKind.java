@@ -0,0 +1,84 @@
+package com.yashoid.office.benchmark;
+
+import com.yashoid.office.task.TaskManager;
+import com.yashoid.office.task.TaskManagerBuilder;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The executors the benchmarks compare. Office is measured through its own API while the JDK pools
+ * are the baselines with the same number of worker threads.
+ */
+final class ExecutorKind {
+
+    static final String OFFICE = "office";
+    static final String OFFICE_WORK_STEALING = "officeWorkStealing";
+    static final String THREAD_POOL = "threadPool";
+    static final String FORK_JOIN = "forkJoin";
+
+    static final String SECTION = "bench";
+
+    private ExecutorKind() {
+
+    }
+
+    static TaskManager newTaskManager(String kind, int workerCount) {
+        TaskManagerBuilder builder = new TaskManagerBuilder();
+
+        if (OFFICE_WORK_STEALING.equals(kind)) {
+            builder.addWorkStealingSection(SECTION, workerCount);
+        }
+        else {
+            builder.addSection(SECTION, workerCount);
+        }
+
+        return builder.build();
+    }
+
+    /**
+     *
+     * @return an Executor running on workerCount threads and the object to pass to shutdown().
+     */
+    static Object newExecutor(String kind, int workerCount) {
+        if (OFFICE.equals(kind) || OFFICE_WORK_STEALING.equals(kind)) {
+            return newTaskManager(kind, workerCount);
+        }
+
+        if (THREAD_POOL.equals(kind)) {
+            return new ThreadPoolExecutor(workerCount, workerCount, 0, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<Runnable>());
+        }
+
+        if (FORK_JOIN.equals(kind)) {
+            return new ForkJoinPool(workerCount);
+        }
+
+        throw new IllegalArgumentException("Unknown executor kind '" + kind + "'.");
+    }
+
+    static void execute(Object executor, Runnable task) {
+        if (executor instanceof TaskManager) {
+            ((TaskManager) executor).runTask(SECTION, task, 0);
+        }
+        else {
+            ((Executor) executor).execute(task);
+        }
+    }
+
+    static void shutdown(Object executor) {
+        if (executor instanceof TaskManager) {
+            ((TaskManager) executor).close();
+        }
+        else if (executor instanceof ThreadPoolExecutor) {
+            ((ThreadPoolExecutor) executor).shutdownNow();
+        }
+        else if (executor instanceof ForkJoinPool) {
+            ((ForkJoinPool) executor).shutdownNow();
+        }
+    }
+
+}
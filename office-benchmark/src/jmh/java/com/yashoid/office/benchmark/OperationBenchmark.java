@@ -0,0 +1,120 @@
+package com.yashoid.office.benchmark;
+
+import com.yashoid.office.Operation;
+import com.yashoid.office.dependancyoperation.DependencyOperation;
+import com.yashoid.office.dependancyoperation.OperationBuilder;
+import com.yashoid.office.dependancyoperation.TaskGroup;
+import com.yashoid.office.task.Task;
+import com.yashoid.office.task.TaskManager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the Operation bookkeeping: chains of Operation.scheduleTask() and DependencyOperation
+ * graphs that fan out from one TaskGroup to graphSize TaskGroups and back into one. A single
+ * shot per iteration because the large graphs take seconds.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class OperationBenchmark {
+
+    @Param({ "10", "1000", "100000" })
+    public int graphSize;
+
+    @Param({ "4" })
+    public int workerCount;
+
+    private TaskManager mTaskManager;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        mTaskManager = ExecutorKind.newTaskManager(ExecutorKind.OFFICE, workerCount);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        mTaskManager.close();
+    }
+
+    @Benchmark
+    public void scheduleTaskChain() throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(graphSize);
+
+        Operation operation = new Operation(mTaskManager) {
+
+            @Override
+            protected void onPerformTask(long taskId) {
+                latch.countDown();
+            }
+
+        };
+
+        Task previousTask = operation.newTask(ExecutorKind.SECTION);
+        Task firstTask = previousTask;
+
+        for (int i = 1; i < graphSize; i++) {
+            Task task = operation.newTask(ExecutorKind.SECTION);
+
+            operation.scheduleTask(task, previousTask);
+
+            previousTask = task;
+        }
+
+        operation.runTask(firstTask);
+
+        latch.await();
+    }
+
+    @Benchmark
+    public void dependencyFanOutFanIn() throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(1);
+
+        Runnable emptyTask = new Runnable() {
+
+            @Override
+            public void run() {
+
+            }
+
+        };
+
+        TaskGroup source = OperationBuilder.singleTask(ExecutorKind.SECTION, emptyTask);
+
+        TaskGroup[] middle = new TaskGroup[graphSize];
+
+        for (int i = 0; i < graphSize; i++) {
+            middle[i] = OperationBuilder.singleTask(ExecutorKind.SECTION, emptyTask);
+        }
+
+        TaskGroup sink = OperationBuilder.singleTask(ExecutorKind.SECTION, new Runnable() {
+
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+
+        });
+
+        DependencyOperation operation = new DependencyOperation(mTaskManager);
+
+        operation.perform(middle).after(source);
+        operation.perform(sink).after(middle);
+        operation.perform(source).immediately();
+
+        latch.await();
+    }
+
+}
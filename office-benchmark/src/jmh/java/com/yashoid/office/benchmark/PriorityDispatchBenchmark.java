@@ -0,0 +1,142 @@
+package com.yashoid.office.benchmark;
+
+import com.yashoid.office.task.TaskManager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fills a one worker section with queueDepth tasks of mixed priorities while the worker is blocked,
+ * then measures the time to drain the queue. Priorities span beyond the bucketed lanes so the
+ * overflow path is included. The baseline is a ThreadPoolExecutor on a PriorityBlockingQueue.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PriorityDispatchBenchmark {
+
+    private static final int PRIORITY_RANGE = 128;
+
+    @Param({ "1000", "100000" })
+    public int queueDepth;
+
+    private TaskManager mTaskManager;
+    private ThreadPoolExecutor mPriorityPool;
+
+    private int[] mPriorities;
+
+    private CountDownLatch mLatch;
+
+    private Runnable mTask = new Runnable() {
+
+        @Override
+        public void run() {
+            mLatch.countDown();
+        }
+
+    };
+
+    @Setup(Level.Trial)
+    public void setup() {
+        mTaskManager = ExecutorKind.newTaskManager(ExecutorKind.OFFICE, 1);
+
+        mPriorityPool = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<Runnable>());
+
+        Random random = new Random(42);
+
+        mPriorities = new int[queueDepth];
+
+        for (int i = 0; i < queueDepth; i++) {
+            mPriorities[i] = random.nextInt(PRIORITY_RANGE) - PRIORITY_RANGE / 2;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        mTaskManager.close();
+        mPriorityPool.shutdownNow();
+    }
+
+    @Benchmark
+    public void office() throws InterruptedException {
+        mLatch = new CountDownLatch(queueDepth);
+
+        CountDownLatch gate = new CountDownLatch(1);
+
+        mTaskManager.runTask(ExecutorKind.SECTION, newGateTask(gate), Integer.MAX_VALUE);
+
+        for (int priority: mPriorities) {
+            mTaskManager.runTask(ExecutorKind.SECTION, mTask, priority);
+        }
+
+        gate.countDown();
+        mLatch.await();
+    }
+
+    @Benchmark
+    public void priorityThreadPool() throws InterruptedException {
+        mLatch = new CountDownLatch(queueDepth);
+
+        CountDownLatch gate = new CountDownLatch(1);
+
+        mPriorityPool.execute(new PrioritizedTask(newGateTask(gate), Integer.MAX_VALUE));
+
+        for (int priority: mPriorities) {
+            mPriorityPool.execute(new PrioritizedTask(mTask, priority));
+        }
+
+        gate.countDown();
+        mLatch.await();
+    }
+
+    private static Runnable newGateTask(final CountDownLatch gate) {
+        return new Runnable() {
+
+            @Override
+            public void run() {
+                try {
+                    gate.await();
+                } catch (InterruptedException e) { }
+            }
+
+        };
+    }
+
+    private static class PrioritizedTask implements Runnable, Comparable<PrioritizedTask> {
+
+        private Runnable mTask;
+        private int mPriority;
+
+        private PrioritizedTask(Runnable task, int priority) {
+            mTask = task;
+            mPriority = priority;
+        }
+
+        @Override
+        public void run() {
+            mTask.run();
+        }
+
+        @Override
+        public int compareTo(PrioritizedTask another) {
+            return mPriority > another.mPriority ? -1 : (mPriority == another.mPriority ? 0 : 1);
+        }
+
+    }
+
+}
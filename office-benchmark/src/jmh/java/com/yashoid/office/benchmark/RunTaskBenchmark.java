@@ -0,0 +1,126 @@
+package com.yashoid.office.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TaskManager.runTask() throughput and round trip latency with 1 to 64 producer threads, next to
+ * ThreadPoolExecutor and ForkJoinPool with the same number of workers.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RunTaskBenchmark {
+
+    private static final int BATCH_SIZE = 1000;
+
+    @Param({ ExecutorKind.OFFICE, ExecutorKind.OFFICE_WORK_STEALING, ExecutorKind.THREAD_POOL, ExecutorKind.FORK_JOIN })
+    public String executorKind;
+
+    @Param({ "4" })
+    public int workerCount;
+
+    private Object mExecutor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        mExecutor = ExecutorKind.newExecutor(executorKind, workerCount);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ExecutorKind.shutdown(mExecutor);
+    }
+
+    @State(Scope.Thread)
+    public static class Producer {
+
+        private CountDownLatch mLatch;
+
+        private Runnable mTask = new Runnable() {
+
+            @Override
+            public void run() {
+                mLatch.countDown();
+            }
+
+        };
+
+        private void runBatch(Object executor, int size) throws InterruptedException {
+            mLatch = new CountDownLatch(size);
+
+            for (int i = 0; i < size; i++) {
+                ExecutorKind.execute(executor, mTask);
+            }
+
+            mLatch.await();
+        }
+
+    }
+
+    @Benchmark
+    @Threads(1)
+    @BenchmarkMode(Mode.Throughput)
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void throughput_1(Producer producer) throws InterruptedException {
+        producer.runBatch(mExecutor, BATCH_SIZE);
+    }
+
+    @Benchmark
+    @Threads(4)
+    @BenchmarkMode(Mode.Throughput)
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void throughput_4(Producer producer) throws InterruptedException {
+        producer.runBatch(mExecutor, BATCH_SIZE);
+    }
+
+    @Benchmark
+    @Threads(16)
+    @BenchmarkMode(Mode.Throughput)
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void throughput_16(Producer producer) throws InterruptedException {
+        producer.runBatch(mExecutor, BATCH_SIZE);
+    }
+
+    @Benchmark
+    @Threads(64)
+    @BenchmarkMode(Mode.Throughput)
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void throughput_64(Producer producer) throws InterruptedException {
+        producer.runBatch(mExecutor, BATCH_SIZE);
+    }
+
+    @Benchmark
+    @Threads(1)
+    @BenchmarkMode(Mode.SampleTime)
+    public void latency_1(Producer producer) throws InterruptedException {
+        producer.runBatch(mExecutor, 1);
+    }
+
+    @Benchmark
+    @Threads(16)
+    @BenchmarkMode(Mode.SampleTime)
+    public void latency_16(Producer producer) throws InterruptedException {
+        producer.runBatch(mExecutor, 1);
+    }
+
+    @Benchmark
+    @Threads(64)
+    @BenchmarkMode(Mode.SampleTime)
+    public void latency_64(Producer producer) throws InterruptedException {
+        producer.runBatch(mExecutor, 1);
+    }
+
+}
@@ -0,0 +1,444 @@
+package com.yashoid.office;
+
+import com.yashoid.office.task.Task;
+import com.yashoid.office.task.TaskManager;
+
+import com.yashoid.office.util.LongArrayQueue;
+import com.yashoid.office.util.LongHashSet;
+import com.yashoid.office.util.LongObjectMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Created by Yashar on 4/13/2017.
+ */
+
+public abstract class Operation {
+
+    private static final int TASKS_SIZE = 8;
+    private static final int PENDING_TASK_SIZE = 8;
+    private static final int TRIGGERED_TASKS_SIZE = 4;
+
+    private static AtomicLong mIdCounter = new AtomicLong(0);
+
+    private static long nextId() {
+        return mIdCounter.incrementAndGet();
+    }
+
+    private TaskManager mTaskManager;
+
+    // Scheduled and posted tasks by id. The task's state tells which one it is.
+    private LongObjectMap<Task> mTasks = new LongObjectMap<>(TASKS_SIZE);
+    private LongObjectMap<ArrayList<Task>> mTaskMap = new LongObjectMap<>(PENDING_TASK_SIZE);
+    private LongHashSet mPerformedTasks = new LongHashSet(PENDING_TASK_SIZE * TRIGGERED_TASKS_SIZE);
+
+    // Ids below the watermark, the oldest id still outstanding, are known to be finished. Performed
+    // ids are only kept while they are above it.
+    private LongArrayQueue mIssuedTasks = new LongArrayQueue(TASKS_SIZE);
+    private LongHashSet mOutstandingTasks = new LongHashSet(TASKS_SIZE);
+    private long mLastIssuedId = 0;
+
+    private volatile int mWeight = 1;
+
+    private boolean mCanceled = false;
+
+    private Object mLock = new Object();
+
+    public Operation(TaskManager taskManager) {
+        if (taskManager == null) {
+            throw new IllegalArgumentException("TaskManager must not be null.");
+        }
+
+        mTaskManager = taskManager;
+    }
+
+    /**
+     * The task's id is outstanding until the task is performed or canceled, and holds back the
+     * compaction of the performed task history meanwhile. Cancel tasks that end up not being used
+     * with cancelTasks().
+     */
+    public Task newTask(String section, int priority) {
+        long id = issueId();
+
+        Task task = Task.obtain(section, mTaskPerformer, id, priority);
+
+        task.setFairShare(this, mWeight);
+
+        return task;
+    }
+
+    /**
+     * @see #newTask(String, int)
+     */
+    public Task newTask(String section) {
+        long id = issueId();
+
+        Task task = Task.obtain(section, mTaskPerformer, id);
+
+        task.setFairShare(this, mWeight);
+
+        return task;
+    }
+
+    /**
+     * In sections with the fair share scheduling policy, operations take turns in running their
+     * tasks and an operation runs up to its weight of tasks in every turn. Applies to the tasks
+     * created after the call. The default weight is 1.
+     */
+    public void setWeight(int weight) {
+        if (weight < 1) {
+            throw new IllegalArgumentException("Weight must be at least 1.");
+        }
+
+        mWeight = weight;
+    }
+
+    public int getWeight() {
+        return mWeight;
+    }
+
+    /**
+     * Ids are issued under the lock so they enter the issued queue in ascending order.
+     */
+    private long issueId() {
+        synchronized (mLock) {
+            long id = nextId();
+
+            mIssuedTasks.addLast(id);
+            mOutstandingTasks.add(id);
+
+            mLastIssuedId = id;
+
+            return id;
+        }
+    }
+
+    /**
+     *
+     * @param taskId
+     * @return true if the task of this operation with the given id has been performed. Canceled
+     * tasks count as performed once they are below the watermark.
+     */
+    private boolean isPerformed(long taskId) {
+        long watermark = mIssuedTasks.isEmpty() ? mLastIssuedId + 1 : mIssuedTasks.peekFirst();
+
+        if (taskId >= watermark) {
+            return mPerformedTasks.contains(taskId);
+        }
+
+        return true;
+    }
+
+    private void onTaskFinished(long taskId, boolean performed) {
+        if (!mOutstandingTasks.remove(taskId)) {
+            return;
+        }
+
+        if (performed) {
+            mPerformedTasks.add(taskId);
+        }
+
+        while (!mIssuedTasks.isEmpty() && !mOutstandingTasks.contains(mIssuedTasks.peekFirst())) {
+            mPerformedTasks.remove(mIssuedTasks.pollFirst());
+        }
+    }
+
+    public void runTask(Task task) {
+        postTask(task);
+
+        mTaskManager.runTask(task);
+    }
+
+    /**
+     * Posts all the tasks under one lock and hands them to the task manager as a batch.
+     */
+    public void runTasks(List<Task> tasks) {
+        synchronized (mLock) {
+            for (Task task: tasks) {
+                task.setState(Task.STATE_POSTED);
+
+                mTasks.put(task.getId(), task);
+            }
+        }
+
+        mTaskManager.runTasks(tasks);
+    }
+
+    public void runTaskAndWait(Task task) {
+        postTask(task);
+
+        mTaskManager.runTaskAndWait(task);
+    }
+
+    public void runTaskImmediately(Task task) {
+        postTask(task);
+
+        mTaskManager.runTaskImmediately(task);
+    }
+
+    private void postTask(Task task) {
+        synchronized (mLock) {
+            task.setState(Task.STATE_POSTED);
+
+            mTasks.put(task.getId(), task);
+        }
+    }
+
+    /**
+     * Runs the task after afterTask is performed, or right away if it already is. afterTask must be
+     * a task of this operation. If afterTask was canceled, the task never runs, unless afterTask
+     * and every task issued before it had already finished, in which case it runs right away.
+     */
+    public void scheduleTask(Task task, Task afterTask) {
+        if (afterTask == null) {
+            runTask(task);
+            return;
+        }
+
+        synchronized (mLock) {
+            if (isPerformed(afterTask.getId())) {
+                runTask(task);
+                return;
+            }
+
+            ArrayList<Task> triggeredTasks = getTriggeredTasks(afterTask.getId(), true);
+
+            triggeredTasks.add(task);
+
+            task.setState(Task.STATE_PROCESSED);
+
+            mTasks.put(task.getId(), task);
+        }
+    }
+
+    private ArrayList<Task> getTriggeredTasks(long taskId, boolean create) {
+        synchronized (mLock) {
+            ArrayList<Task> triggeredTasks = mTaskMap.get(taskId);
+
+            if (triggeredTasks == null && create) {
+                triggeredTasks = new ArrayList<>(TRIGGERED_TASKS_SIZE);
+
+                mTaskMap.put(taskId, triggeredTasks);
+            }
+
+            return triggeredTasks;
+        }
+    }
+
+    private Task.TaskPerformer mTaskPerformer = new Task.TaskPerformer() {
+
+        @Override
+        public void performTask(Task task) {
+            Operation.this.performTask(task);
+        }
+
+    };
+
+    private void performTask(Task task) {
+        synchronized (mLock) {
+            if (mTasks.get(task.getId()) != task || task.getState() != Task.STATE_POSTED) {
+                // Task is removed from posted tasks. Which means it is canceled.
+                return;
+            }
+
+            mTasks.remove(task.getId());
+
+            task.setState(Task.STATE_IN_EXECUTION);
+        }
+
+        long taskId = task.getId();
+
+        onPrePerformTask(taskId);
+
+        onPerformTask(taskId);
+
+        onPostPerformTask(taskId);
+
+        synchronized (mLock) {
+            task.setState(Task.STATE_EXECUTED);
+
+            onTaskFinished(taskId, true);
+
+            ArrayList<Task> triggeredTasks = mTaskMap.remove(taskId);
+
+            if (triggeredTasks != null) {
+                runTriggeredTasks(triggeredTasks);
+            }
+        }
+    }
+
+    /**
+     * Canceled tasks are left in the triggered lists and skipped here, so canceling does not have to
+     * search the lists.
+     */
+    private void runTriggeredTasks(ArrayList<Task> triggeredTasks) {
+        for (Task triggeredTask: triggeredTasks) {
+            if (mTasks.get(triggeredTask.getId()) == triggeredTask && triggeredTask.getState() == Task.STATE_PROCESSED) {
+                runTask(triggeredTask);
+            }
+        }
+    }
+
+    protected void onPrePerformTask(long taskId) {
+
+    }
+
+    abstract protected void onPerformTask(long taskId);
+
+    protected void onPostPerformTask(long taskId) {
+
+    }
+
+    public void cancelAllTasks() {
+        synchronized (mLock) {
+            ArrayList<Task> tasks = new ArrayList<>(mTasks.size());
+            ArrayList<Task> postedTasks = new ArrayList<>(mTasks.size());
+
+            mTasks.collectValues(tasks);
+
+            for (Task task: tasks) {
+                if (task.getState() == Task.STATE_POSTED) {
+                    postedTasks.add(task);
+                }
+
+                onTaskFinished(task.getId(), false);
+            }
+
+            if (!postedTasks.isEmpty()) {
+                mTaskManager.cancelTasks(postedTasks);
+            }
+
+            mTasks.clear();
+            mTaskMap.clear();
+        }
+    }
+
+    /**
+     *
+     * @param taskId
+     * @param runDependants
+     * @return false if task is being performed, performed or not running at all.
+     */
+    public boolean cancelTask(long taskId, boolean runDependants) {
+        synchronized (mLock) {
+            if (isPerformed(taskId)) {
+                return false;
+            }
+
+            Task task = mTasks.remove(taskId);
+
+            if (task == null) {
+                // Task is in execution process.
+                return false;
+            }
+
+            if (task.getState() == Task.STATE_POSTED) {
+                mTaskManager.cancelTask(task);
+            }
+
+            onTaskFinished(taskId, false);
+
+            removeTaskDependants(taskId, runDependants);
+            return true;
+        }
+    }
+
+    /**
+     * Cancels the tasks under one lock and removes the posted ones from their sections in bulk.
+     *
+     * @param tasks
+     * @param runDependants
+     * @return the number of tasks that have been canceled. Tasks that are being performed, performed
+     * or not running at all are not counted.
+     */
+    public int cancelTasks(List<Task> tasks, boolean runDependants) {
+        synchronized (mLock) {
+            ArrayList<Task> canceledTasks = new ArrayList<>(tasks.size());
+            ArrayList<Task> postedTasks = new ArrayList<>(tasks.size());
+
+            for (Task task: tasks) {
+                long taskId = task.getId();
+
+                if (task.getState() == Task.STATE_CREATED) {
+                    // Never posted. Only lets go of its id.
+                    onTaskFinished(taskId, false);
+                    continue;
+                }
+
+                if (isPerformed(taskId) || mTasks.get(taskId) != task) {
+                    continue;
+                }
+
+                mTasks.remove(taskId);
+
+                if (task.getState() == Task.STATE_POSTED) {
+                    postedTasks.add(task);
+                }
+
+                onTaskFinished(taskId, false);
+
+                canceledTasks.add(task);
+            }
+
+            if (!postedTasks.isEmpty()) {
+                mTaskManager.cancelTasks(postedTasks);
+            }
+
+            for (Task task: canceledTasks) {
+                removeTaskDependants(task.getId(), runDependants);
+            }
+
+            return canceledTasks.size();
+        }
+    }
+
+    /**
+     * The number of ids the operation still remembers. Stays flat as long as no task is left
+     * outstanding for good.
+     */
+    int getTrackedTaskCount() {
+        synchronized (mLock) {
+            return mIssuedTasks.size() + mPerformedTasks.size();
+        }
+    }
+
+    private void removeTaskDependants(long taskId, boolean runDependants) {
+        synchronized (mLock) {
+            ArrayList<Task> tasks = mTaskMap.remove(taskId);
+
+            if (tasks != null) {
+                if (runDependants) {
+                    runTriggeredTasks(tasks);
+                }
+                else {
+                    for (Task task: tasks) {
+                        if (mTasks.get(task.getId()) == task) {
+                            mTasks.remove(task.getId());
+
+                            onTaskFinished(task.getId(), false);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+//    public boolean cancel() {
+//        synchronized (mLock) {
+//            if (mCanceled) {
+//                // Operation already canceled.
+//                return true;
+//            }
+//
+//            mCanceled = true;
+//
+//        }
+//    }
+//
+//    public boolean isCanceled() {
+//        return mCanceled;
+//    }
+
+}
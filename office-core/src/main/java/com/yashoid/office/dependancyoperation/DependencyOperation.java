@@ -2,6 +2,7 @@ package com.yashoid.office.dependancyoperation;
 
 import com.yashoid.office.Operation;
 import com.yashoid.office.task.TaskManager;
+import com.yashoid.office.trace.Tracer;
 
 import java.util.ArrayList;
 import java.util.ListIterator;
@@ -16,18 +17,17 @@ public class DependencyOperation extends Operation {
 
     private ArrayList<TaskGroup> mRunningTaskGroups;
 
-    private ArrayList<TaskGroup> mRanTaskGroups;
-
     private Object mLock = new Object();
 
+    private boolean mIsRunning = false;
+    private long mTraceId;
+
     protected DependencyOperation(TaskManager taskManager, ArrayList<TaskRunCondition> runConditions) {
         super(taskManager);
 
         mRunConditions = runConditions;
 
         mRunningTaskGroups = new ArrayList<>(runConditions.size());
-
-        mRanTaskGroups = new ArrayList<>(runConditions.size());
     }
 
     public DependencyOperation(TaskManager taskManager) {
@@ -45,7 +45,11 @@ public class DependencyOperation extends Operation {
     }
 
     private void onOperationRunFinished() {
-        // This is here just for convenience.
+        if (mIsRunning) {
+            mIsRunning = false;
+
+            Tracer.onOperationFinished(mTraceId);
+        }
     }
 
     private void iterateForward() {
@@ -61,6 +65,13 @@ public class DependencyOperation extends Operation {
                 return;
             }
 
+            if (!mIsRunning) {
+                mIsRunning = true;
+
+                mTraceId = Tracer.nextId();
+                Tracer.onOperationStarted(mTraceId);
+            }
+
             synchronized (mRunningTaskGroups) {
                 mRunningTaskGroups.addAll(independentTasks);
             }
@@ -88,7 +99,9 @@ public class DependencyOperation extends Operation {
 
     protected void onTaskGroupPerformed(TaskGroup taskGroup) {
         synchronized (mLock) {
-            mRanTaskGroups.add(taskGroup);
+            // Marked on the group instead of kept in a list, so a long-lived operation does not
+            // remember every group it has run.
+            taskGroup.setPerformedBy(this);
 
             synchronized (mRunningTaskGroups) {
                 mRunningTaskGroups.remove(taskGroup);
@@ -144,16 +157,14 @@ public class DependencyOperation extends Operation {
             synchronized (mLock) {
                 TaskRunCondition runCondition = new TaskRunCondition(tasks, mTasks);
 
-                for (TaskGroup taskGroup: mRanTaskGroups) {
-                    runCondition.removeTaskGroup(taskGroup);
-                }
+                runCondition.removeTaskGroupsPerformedBy(DependencyOperation.this);
 
-                if (runCondition.isIndependant() && runCondition.getEnabledTasks().size() == 0) {
+                if (runCondition.getEnabledTasks().size() == 0) {
                     return DependencyOperation.this;
                 }
 
                 synchronized (mRunConditions) {
-                    mRunConditions.add(new TaskRunCondition(tasks, mTasks));
+                    mRunConditions.add(runCondition);
                 }
             }
 
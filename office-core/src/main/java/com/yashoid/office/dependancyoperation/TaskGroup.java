@@ -1,8 +1,10 @@
 package com.yashoid.office.dependancyoperation;
 
-import android.util.LongSparseArray;
-
 import com.yashoid.office.task.Task;
+import com.yashoid.office.trace.Tracer;
+import com.yashoid.office.util.LongObjectMap;
+
+import java.util.ArrayList;
 
 /**
  * Created by Yashar on 9/1/2017.
@@ -16,7 +18,12 @@ public class TaskGroup {
     private DependencyOperation mOperation;
     private int mCounter;
 
-    private LongSparseArray<Integer> mIdToIndexMap;
+    // Guarded by the lock of the operation.
+    private DependencyOperation mPerformedBy;
+
+    private LongObjectMap<TaskDescriptor> mIdToTaskMap;
+
+    private long mTraceId;
 
     public TaskGroup(boolean parallel, TaskDescriptor... tasks) {
         mIsParallel = parallel;
@@ -49,22 +56,40 @@ public class TaskGroup {
 
         mOperation = operation;
 
-        mIdToIndexMap = new LongSparseArray<>(mTasks.length);
+        mTraceId = Tracer.nextId();
+        Tracer.onTaskGroupStarted(mTraceId, mIsParallel);
+
+        mIdToTaskMap = new LongObjectMap<>(mTasks.length);
 
         mCounter = 0;
 
-        int index = 0;
+        if (mIsParallel) {
+            ArrayList<Task> tasks = new ArrayList<>(mTasks.length);
+
+            for (TaskDescriptor taskDescriptor: mTasks) {
+                Task task = operation.newTask(taskDescriptor.getSection(), taskDescriptor.getPriority());
+
+                synchronized (mIdToTaskMap) {
+                    mIdToTaskMap.put(task.getId(), taskDescriptor);
+                }
+
+                tasks.add(task);
+            }
+
+            operation.runTasks(tasks);
+            return;
+        }
 
         Task previousTask = null;
 
         for (TaskDescriptor taskDescriptor: mTasks) {
             Task task = operation.newTask(taskDescriptor.getSection(), taskDescriptor.getPriority());
 
-            synchronized (mIdToIndexMap) {
-                mIdToIndexMap.put(task.getId(), index);
+            synchronized (mIdToTaskMap) {
+                mIdToTaskMap.put(task.getId(), taskDescriptor);
             }
 
-            if (mCounter == 0 || mIsParallel) {
+            if (mCounter == 0) {
                 operation.runTask(task);
             }
             else {
@@ -72,28 +97,36 @@ public class TaskGroup {
             }
 
             previousTask = task;
-
-            index++;
         }
     }
 
+    void setPerformedBy(DependencyOperation operation) {
+        mPerformedBy = operation;
+    }
+
+    boolean isPerformedBy(DependencyOperation operation) {
+        return mPerformedBy == operation;
+    }
+
     protected boolean performTask(long taskId) {
-        Integer index;
+        TaskDescriptor taskDescriptor;
 
-        synchronized (mIdToIndexMap) {
-            index = mIdToIndexMap.get(taskId);
+        synchronized (mIdToTaskMap) {
+            taskDescriptor = mIdToTaskMap.get(taskId);
         }
 
-        if (index == null) {
+        if (taskDescriptor == null) {
             return false;
         }
 
-        mTasks[index].getRunner().run();
-        mTasks[index].clear();
+        taskDescriptor.getRunner().run();
+        taskDescriptor.clear();
 
         mCounter++;
 
         if (mCounter == mTasks.length) {
+            Tracer.onTaskGroupFinished(mTraceId, mIsParallel);
+
             mOperation.onTaskGroupPerformed(this);
         }
 
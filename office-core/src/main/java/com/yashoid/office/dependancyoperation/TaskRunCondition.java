@@ -2,6 +2,7 @@ package com.yashoid.office.dependancyoperation;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 
 /**
  * Created by Yashar on 9/1/2017.
@@ -33,4 +34,19 @@ class TaskRunCondition {
         mEnabledTasks.remove(taskGroup);
     }
 
+    protected void removeTaskGroupsPerformedBy(DependencyOperation operation) {
+        removeTaskGroupsPerformedBy(mConditions, operation);
+        removeTaskGroupsPerformedBy(mEnabledTasks, operation);
+    }
+
+    private static void removeTaskGroupsPerformedBy(ArrayList<TaskGroup> taskGroups, DependencyOperation operation) {
+        Iterator<TaskGroup> iterator = taskGroups.iterator();
+
+        while (iterator.hasNext()) {
+            if (iterator.next().isPerformedBy(operation)) {
+                iterator.remove();
+            }
+        }
+    }
+
 }
@@ -0,0 +1,168 @@
+package com.yashoid.office.employee;
+
+import java.util.HashMap;
+
+/**
+ * Created by Yashar on 9/20/2016.
+ */
+public class Employee {
+
+    private EmployeeManager mManager;
+
+    private String mName;
+
+    private EmployeeBackend mTaskSender;
+
+    private HashMap<Runnable, Object> mTaskLocks = new HashMap<>(8);
+
+    protected Employee(EmployeeManager manager, String name) {
+        mManager = manager;
+
+        mName = name;
+    }
+
+    public void assignTask(Runnable task) {
+        mManager.onEmployeeIsBusy(this);
+
+        EmployeeBackend taskSender = makeSureEmployeeIsWorking();
+
+        taskSender.removeCallbacks(mNotifyFreeTask);
+        taskSender.removeCallbacks(mRetireTask);
+        taskSender.post(task);
+        taskSender.post(mNotifyFreeTask);
+    }
+
+    public void assignTaskAndWait(final Runnable task) {
+        mManager.onEmployeeIsBusy(this);
+
+        final EmployeeBackend taskSender = makeSureEmployeeIsWorking();
+
+        final Object waitLock = new Object();
+
+        synchronized (mTaskLocks) {
+            mTaskLocks.put(task, waitLock);
+        }
+
+        synchronized (waitLock) {
+            taskSender.removeCallbacks(mNotifyFreeTask);
+            taskSender.removeCallbacks(mRetireTask);
+            taskSender.post(task);
+            taskSender.post(new Runnable() {
+
+                @Override
+                public void run() {
+                    synchronized (mTaskLocks) {
+                        mTaskLocks.remove(task);
+                    }
+
+                    synchronized (waitLock) {
+                        waitLock.notifyAll();
+                    }
+                }
+
+            });
+
+            try {
+                waitLock.wait();
+            } catch (InterruptedException e) { }
+        }
+
+        taskSender.post(mNotifyFreeTask);
+    }
+
+    public boolean alsoWaitForTask(Runnable task) {
+        synchronized (mTaskLocks) {
+            Object waitLock = mTaskLocks.get(task);
+
+            if (waitLock == null) {
+                return false;
+            }
+
+            synchronized (waitLock) {
+                try {
+                    waitLock.wait();
+                } catch (InterruptedException e) { }
+            }
+
+            return true;
+        }
+    }
+
+    public void cancelTask(Runnable task) {
+        synchronized (this) {
+            if (mTaskSender != null) {
+                mTaskSender.removeCallbacks(task);
+            }
+        }
+    }
+
+    private EmployeeBackend makeSureEmployeeIsWorking() {
+        synchronized (this) {
+            if (mTaskSender == null) {
+                mTaskSender = mManager.newEmployeeBackend(mName);
+            }
+
+            return mTaskSender;
+        }
+    }
+
+    /**
+     *
+     * @return false if the employee has never been assigned a task or has been relieved since.
+     */
+    protected boolean hasStartedWorking() {
+        synchronized (this) {
+            return mTaskSender != null;
+        }
+    }
+
+    /**
+     * Asks the employee to report back to its manager if it is still idle after the given delay.
+     */
+    protected void scheduleRetirement(long delay) {
+        synchronized (this) {
+            if (mTaskSender != null) {
+                mTaskSender.removeCallbacks(mRetireTask);
+                mTaskSender.postDelayed(mRetireTask, delay);
+            }
+        }
+    }
+
+    private Runnable mNotifyFreeTask = new Runnable() {
+
+        @Override
+        public void run() {
+            mManager.onEmployeeIsFree(Employee.this);
+        }
+
+    };
+
+    private Runnable mRetireTask = new Runnable() {
+
+        @Override
+        public void run() {
+            mManager.onEmployeeKeepAliveExpired(Employee.this);
+        }
+
+    };
+
+    /**
+     * Stops the employee's thread. The employee can still be assigned a task after being relieved in
+     * which case a new thread is started for it.
+     */
+    protected void relieve() {
+        synchronized (this) {
+            if (mTaskSender == null) {
+                return;
+            }
+
+            mTaskSender.removeCallbacks(mNotifyFreeTask);
+            mTaskSender.removeCallbacks(mRetireTask);
+
+            mTaskSender.quit();
+
+            mTaskSender = null;
+        }
+    }
+
+}
@@ -0,0 +1,41 @@
+package com.yashoid.office.employee;
+
+/**
+ * The thread and task queue an Employee works on. A backend runs the posted tasks one by one in
+ * the order of their due time.
+ */
+public interface EmployeeBackend {
+
+    interface Factory {
+
+        /**
+         * Creates a backend with a started thread named after the given employee name.
+         */
+        EmployeeBackend newEmployeeBackend(String name);
+
+    }
+
+    /**
+     *
+     * @param task
+     * @return false if the backend has quit and the task will not run.
+     */
+    boolean post(Runnable task);
+
+    /**
+     *
+     * @param task
+     * @param delayMillis
+     * @return false if the backend has quit and the task will not run.
+     */
+    boolean postDelayed(Runnable task, long delayMillis);
+
+    void removeCallbacks(Runnable task);
+
+    /**
+     * Stops the thread after running the tasks that are already due. Tasks that are due later are
+     * dropped.
+     */
+    void quit();
+
+}
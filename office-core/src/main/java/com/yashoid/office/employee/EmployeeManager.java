@@ -0,0 +1,497 @@
+package com.yashoid.office.employee;
+
+import com.yashoid.office.platform.Platform;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Created by Yashar on 9/20/2016.
+ */
+public class EmployeeManager {
+
+    public interface OnAllEmployeesAreFreeListener {
+
+        void onAllEmployeesAreFree();
+
+    }
+
+    public interface OnFreeEmployeeAvailableListener {
+
+        void onFreeEmployeeAvailable();
+
+    }
+
+    private String mName;
+    private int mTemporaryEmployeeCounter = 0;
+
+    private int mCoreCount;
+    private int mMaxCount;
+    private long mKeepAliveTime;
+
+    private int mEmployeeCount;
+    private int mEmployeeCounter = 0;
+
+    private EmployeeBackend.Factory mBackendFactory;
+
+    private volatile ArrayList<Employee> mFreeEmployees;
+    private volatile ArrayList<Employee> mBusyEmployees;
+    private volatile ArrayList<Employee> mReservedEmployees;
+
+    private boolean mEmployeesAreRelieved = false;
+
+    private Object mFreeEmployeeAvailableFlag = new Object();
+    private Object mAllEmployeesAreFreeFlag = new Object();
+
+    private ArrayList<OnAllEmployeesAreFreeListener> mOnAllEmployeesAreFreeListeners = new ArrayList<>(2);
+    private ArrayList<OnFreeEmployeeAvailableListener> mOnFreeEmployeeAvailableListeners = new ArrayList<>(2);
+
+    public EmployeeManager(String name, int count) {
+        this(name, count, count, 0);
+    }
+
+    public EmployeeManager(String name, int coreCount, int maxCount, long keepAliveTime) {
+        this(Platform.get(), name, coreCount, maxCount, keepAliveTime);
+    }
+
+    /**
+     * Creates a manager that starts with coreCount employees and hires more, up to maxCount, when
+     * asked to. Employees beyond coreCount are retired when they have been idle for keepAliveTime
+     * milliseconds.
+     */
+    public EmployeeManager(EmployeeBackend.Factory backendFactory, String name, int coreCount, int maxCount, long keepAliveTime) {
+        if (backendFactory == null) {
+            throw new IllegalArgumentException("Employee backend factory can not be null.");
+        }
+
+        if (coreCount < 0 || maxCount < coreCount) {
+            throw new IllegalArgumentException("Invalid employee counts. core: " + coreCount + ", max: " + maxCount);
+        }
+
+        if (keepAliveTime < 0) {
+            throw new IllegalArgumentException("Keep alive time can not be negative.");
+        }
+
+        mBackendFactory = backendFactory;
+
+        mCoreCount = coreCount;
+        mMaxCount = maxCount;
+        mKeepAliveTime = keepAliveTime;
+
+        mFreeEmployees = new ArrayList<>(maxCount);
+        mBusyEmployees = new ArrayList<>(maxCount);
+        mReservedEmployees = new ArrayList<>(maxCount);
+
+        if (name == null) {
+            mName = "EM-" + hashCode() + "-";
+        }
+        else {
+            mName = name.concat("-");
+        }
+
+        for (int i=0; i<coreCount; i++) {
+            String employeeName = mName.concat("" + mEmployeeCounter++);
+
+            mFreeEmployees.add(new Employee(this, employeeName));
+        }
+
+        mEmployeeCount = coreCount;
+    }
+
+    public ArrayList<Employee> getAllEmployees() {
+        synchronized (this) {
+            ArrayList<Employee> employees = new ArrayList<>(mFreeEmployees.size() + mReservedEmployees.size());
+
+            employees.addAll(mFreeEmployees);
+            employees.addAll(mReservedEmployees);
+
+            return employees;
+        }
+    }
+
+    public Employee reserveFreeEmployee(boolean waitIfAllAreReserved) {
+        if (mEmployeesAreRelieved) {
+            return null;
+        }
+
+        synchronized (this) {
+            if (mFreeEmployees.size() > 0) {
+                Employee freeEmployee = mFreeEmployees.get(0);
+
+                mFreeEmployees.remove(freeEmployee);
+                mReservedEmployees.add(freeEmployee);
+
+                return freeEmployee;
+            }
+        }
+
+        if (waitIfAllAreReserved) {
+            synchronized (mFreeEmployeeAvailableFlag) {
+                try {
+                    mFreeEmployeeAvailableFlag.wait();
+                } catch (InterruptedException e) { }
+
+                return reserveFreeEmployee(true);
+            }
+        }
+
+        return null;
+    }
+
+    public Employee findFreeEmployee(boolean waitIfNoFreeEmployees) {
+        if (mEmployeesAreRelieved) {
+            return null;
+        }
+
+        synchronized (this) {
+            if (mFreeEmployees.size() > 0) {
+                return mFreeEmployees.get(0);
+            }
+        }
+
+        if (waitIfNoFreeEmployees) {
+            synchronized (mFreeEmployeeAvailableFlag) {
+                try {
+                    mFreeEmployeeAvailableFlag.wait();
+                } catch (InterruptedException e) { }
+
+                return findFreeEmployee(true);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Like findFreeEmployee but the employee is taken off the free employees at once, so concurrent
+     * callers never get the same one. It must then be assigned a task or handed back through
+     * returnEmployee().
+     *
+     * @return a free employee or null if there is none.
+     */
+    public Employee takeFreeEmployee() {
+        if (mEmployeesAreRelieved) {
+            return null;
+        }
+
+        synchronized (this) {
+            return takeFreeEmployeeLocked();
+        }
+    }
+
+    /**
+     * Takes a free employee, hiring a new one if there is none and the maximum employee count is not
+     * reached yet. See takeFreeEmployee().
+     *
+     * @return the taken employee or null.
+     */
+    public Employee takeOrHireFreeEmployee() {
+        if (mEmployeesAreRelieved) {
+            return null;
+        }
+
+        synchronized (this) {
+            Employee employee = takeFreeEmployeeLocked();
+
+            if (employee != null || hireEmployeeLocked() == null) {
+                return employee;
+            }
+
+            return takeFreeEmployeeLocked();
+        }
+    }
+
+    /**
+     * Hands back an employee that was taken but was not assigned a task after all. One that was
+     * just hired for it is let go again, since it would never become idle through a task and have
+     * its retirement scheduled.
+     */
+    public void returnEmployee(Employee employee) {
+        onEmployeeIsFree(employee);
+
+        if (!employee.hasStartedWorking()) {
+            // Does nothing if it has been taken again meanwhile or is one of the core employees.
+            onEmployeeKeepAliveExpired(employee);
+        }
+    }
+
+    public void unreserveEmployee(Employee employee) {
+        if (mEmployeesAreRelieved) {
+            return;
+        }
+
+        if (!mReservedEmployees.contains(employee)) {
+            return;
+        }
+
+        synchronized (this) {
+            mReservedEmployees.remove(employee);
+            mFreeEmployees.add(employee);
+
+            synchronized (mFreeEmployeeAvailableFlag) {
+                mFreeEmployeeAvailableFlag.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Adds a new employee to the free employees if the maximum employee count is not reached yet.
+     *
+     * @return the new free employee or null if no more employees can be hired.
+     */
+    public Employee hireEmployee() {
+        synchronized (this) {
+            return hireEmployeeLocked();
+        }
+    }
+
+    /**
+     * Takes up to maxCount free employees, hiring new ones if there are not enough, under a single
+     * lock. Every one of them must then be assigned a task, see takeFreeEmployee().
+     *
+     * @return the number of employees added to the given list.
+     */
+    public int takeOrHireFreeEmployees(int maxCount, List<Employee> employees) {
+        if (mEmployeesAreRelieved) {
+            return 0;
+        }
+
+        synchronized (this) {
+            int count = 0;
+
+            while (count < maxCount) {
+                Employee employee = takeFreeEmployeeLocked();
+
+                if (employee == null && hireEmployeeLocked() != null) {
+                    employee = takeFreeEmployeeLocked();
+                }
+
+                if (employee == null) {
+                    break;
+                }
+
+                employees.add(employee);
+
+                count++;
+            }
+
+            return count;
+        }
+    }
+
+    private Employee takeFreeEmployeeLocked() {
+        if (mEmployeesAreRelieved || mFreeEmployees.isEmpty()) {
+            return null;
+        }
+
+        Employee employee = mFreeEmployees.remove(mFreeEmployees.size() - 1);
+
+        mBusyEmployees.add(employee);
+
+        return employee;
+    }
+
+    private Employee hireEmployeeLocked() {
+        if (mEmployeesAreRelieved || mEmployeeCount >= mMaxCount) {
+            return null;
+        }
+
+        Employee employee = new Employee(this, mName.concat("" + mEmployeeCounter++));
+
+        mFreeEmployees.add(employee);
+
+        mEmployeeCount++;
+
+        return employee;
+    }
+
+    public int getEmployeeCount() {
+        synchronized (this) {
+            return mEmployeeCount;
+        }
+    }
+
+    public Employee hireTemporaryEmployee() {
+        if (mEmployeesAreRelieved) {
+            return null;
+        }
+
+        return new Employee(this, mName.concat("temp-" + (mTemporaryEmployeeCounter)));
+    }
+
+    public boolean areAllEmployeesFree() {
+        synchronized (this) {
+            return mReservedEmployees.size() == 0;
+        }
+    }
+
+    /**
+     * Listeners are never called while the manager is locked, so they can safely call into other
+     * managers.
+     */
+    public void notifyWhenAllEmployeesAreFree(OnAllEmployeesAreFreeListener listener) {
+        synchronized (this) {
+            if (mReservedEmployees.size() > 0) {
+                mOnAllEmployeesAreFreeListeners.add(listener);
+                return;
+            }
+        }
+
+        listener.onAllEmployeesAreFree();
+    }
+
+    /**
+     * Listeners are never called while the manager is locked, so they can safely call into other
+     * managers.
+     */
+    public void notifyWhenFreeEmployeeIsAvailable(OnFreeEmployeeAvailableListener listener) {
+        synchronized (this) {
+            if (mFreeEmployees.size() == 0) {
+                mOnFreeEmployeeAvailableListeners.add(listener);
+                return;
+            }
+        }
+
+        listener.onFreeEmployeeAvailable();
+    }
+
+    public void waitUntilAllEmployeesAreFree() {
+        if (areAllEmployeesFree()) {
+            return;
+        }
+
+        synchronized (mAllEmployeesAreFreeFlag) {
+            try {
+                mAllEmployeesAreFreeFlag.wait();
+            } catch (InterruptedException e) { }
+        }
+    }
+
+    public void relieveEmployees() {
+        synchronized (this) {
+            if (mEmployeesAreRelieved) {
+                return;
+            }
+
+            mEmployeesAreRelieved = true;
+
+            for (Employee employee: mFreeEmployees) {
+                employee.relieve();
+            }
+
+            for (Employee employee: mReservedEmployees) {
+                employee.relieve();
+            }
+
+            mFreeEmployees.clear();
+        }
+    }
+
+    public boolean areEmployeesRelieved() {
+        return mEmployeesAreRelieved;
+    }
+
+    protected void onEmployeeIsBusy(Employee employee) {
+        synchronized (this) {
+            if (!isEmployeeTemporary(employee)) {
+                if (mFreeEmployees.contains(employee)) {
+                    mFreeEmployees.remove(employee);
+                }
+
+                if (!mBusyEmployees.contains(employee)) {
+                    mBusyEmployees.add(employee);
+                }
+            }
+        }
+    }
+
+    protected EmployeeBackend newEmployeeBackend(String employeeName) {
+        return mBackendFactory.newEmployeeBackend(employeeName);
+    }
+
+    protected void onEmployeeKeepAliveExpired(Employee employee) {
+        synchronized (this) {
+            if (mEmployeeCount <= mCoreCount || !mFreeEmployees.contains(employee)) {
+                return;
+            }
+
+            mFreeEmployees.remove(employee);
+
+            mEmployeeCount--;
+
+            employee.relieve();
+        }
+    }
+
+    private boolean isEmployeeTemporary(Employee employee) {
+        synchronized (this) {
+            return !mFreeEmployees.contains(employee) && !mReservedEmployees.contains(employee) && !mBusyEmployees.contains(employee);
+        }
+    }
+
+    protected void onEmployeeIsFree(Employee employee) {
+        ArrayList<OnFreeEmployeeAvailableListener> freeEmployeeListeners = null;
+        ArrayList<OnAllEmployeesAreFreeListener> allEmployeesListeners = null;
+
+        synchronized (this) {
+            if (isEmployeeTemporary(employee)) {
+                employee.relieve();
+
+                return;
+            }
+
+            if (mEmployeesAreRelieved) {
+                mBusyEmployees.remove(employee);
+
+                employee.relieve();
+
+                return;
+            }
+
+            mFreeEmployees.add(employee);
+            mBusyEmployees.remove(employee);
+
+            if (mEmployeeCount > mCoreCount) {
+                employee.scheduleRetirement(mKeepAliveTime);
+            }
+
+            synchronized (mFreeEmployeeAvailableFlag) {
+                mFreeEmployeeAvailableFlag.notify();
+            }
+
+            if (mOnFreeEmployeeAvailableListeners.size() > 0) {
+                freeEmployeeListeners = new ArrayList<>(mOnFreeEmployeeAvailableListeners);
+
+                mOnFreeEmployeeAvailableListeners.clear();
+            }
+
+            if (mBusyEmployees.size() == 0) {
+                synchronized (mAllEmployeesAreFreeFlag) {
+                    mAllEmployeesAreFreeFlag.notifyAll();
+                }
+
+                if (mOnAllEmployeesAreFreeListeners.size() > 0) {
+                    allEmployeesListeners = new ArrayList<>(mOnAllEmployeesAreFreeListeners);
+
+                    mOnAllEmployeesAreFreeListeners.clear();
+                }
+            }
+        }
+
+        // Listeners call into other sections, which take their own manager's lock. Calling them
+        // while holding ours could dead lock two sections that lend to each other.
+        if (freeEmployeeListeners != null) {
+            for (OnFreeEmployeeAvailableListener listener: freeEmployeeListeners) {
+                // A listener that finds no free employee anymore registers itself again.
+                listener.onFreeEmployeeAvailable();
+            }
+        }
+
+        if (allEmployeesListeners != null) {
+            for (OnAllEmployeesAreFreeListener listener: allEmployeesListeners) {
+                listener.onAllEmployeesAreFree();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,166 @@
+package com.yashoid.office.employee;
+
+import java.util.Iterator;
+import java.util.PriorityQueue;
+
+/**
+ * Plain Java EmployeeBackend. Runs its tasks on a single daemon thread.
+ */
+public class ThreadEmployeeBackend implements EmployeeBackend {
+
+    public static final Factory FACTORY = new Factory() {
+
+        @Override
+        public EmployeeBackend newEmployeeBackend(String name) {
+            return new ThreadEmployeeBackend(name);
+        }
+
+    };
+
+    private static class Message implements Comparable<Message> {
+
+        private Runnable task;
+        private long when;
+        private long sequence;
+
+        private Message(Runnable task, long when, long sequence) {
+            this.task = task;
+            this.when = when;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Message another) {
+            if (when != another.when) {
+                return when < another.when ? -1 : 1;
+            }
+
+            return sequence < another.sequence ? -1 : (sequence == another.sequence ? 0 : 1);
+        }
+
+    }
+
+    private PriorityQueue<Message> mMessages = new PriorityQueue<>();
+    private long mSequence = 0;
+
+    private boolean mHasQuit = false;
+    private long mQuitTime;
+
+    public ThreadEmployeeBackend(String name) {
+        Thread thread = new Thread(new Runnable() {
+
+            @Override
+            public void run() {
+                loop();
+            }
+
+        });
+
+        if (name != null) {
+            thread.setName(name);
+        }
+
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public boolean post(Runnable task) {
+        return postDelayed(task, 0);
+    }
+
+    @Override
+    public boolean postDelayed(Runnable task, long delayMillis) {
+        synchronized (this) {
+            if (mHasQuit) {
+                return false;
+            }
+
+            mMessages.add(new Message(task, now() + Math.max(0, delayMillis), mSequence++));
+
+            notify();
+
+            return true;
+        }
+    }
+
+    @Override
+    public void removeCallbacks(Runnable task) {
+        synchronized (this) {
+            Iterator<Message> iterator = mMessages.iterator();
+
+            while (iterator.hasNext()) {
+                if (iterator.next().task == task) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    @Override
+    public void quit() {
+        synchronized (this) {
+            if (mHasQuit) {
+                return;
+            }
+
+            mHasQuit = true;
+            mQuitTime = now();
+
+            notify();
+        }
+    }
+
+    private void loop() {
+        while (true) {
+            Runnable task = next();
+
+            if (task == null) {
+                return;
+            }
+
+            try {
+                task.run();
+            } catch (Throwable t) {
+                // The thread keeps going so the tasks posted after this one, like the employee's
+                // notice that it is free, still run.
+                Thread thread = Thread.currentThread();
+
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, t);
+            }
+        }
+    }
+
+    private Runnable next() {
+        synchronized (this) {
+            while (true) {
+                Message message = mMessages.peek();
+                long now = now();
+
+                if (mHasQuit && (message == null || message.when > mQuitTime)) {
+                    mMessages.clear();
+                    return null;
+                }
+
+                if (message != null && message.when <= now) {
+                    mMessages.poll();
+                    return message.task;
+                }
+
+                try {
+                    if (message == null) {
+                        wait();
+                    }
+                    else {
+                        wait(message.when - now);
+                    }
+                } catch (InterruptedException e) { }
+            }
+        }
+    }
+
+    private static long now() {
+        return System.nanoTime() / 1000000L;
+    }
+
+}
@@ -0,0 +1,35 @@
+package com.yashoid.office.office;
+
+/**
+ * Lets a section run its pending tasks on the free employees of another section (the lender).
+ * Employees are only borrowed while the borrowing section has more than pendingTasksThreshold
+ * pending tasks and the lender has no pending tasks of its own. A borrowed employee is returned
+ * after every task, so the lender gets it back as soon as it needs it.
+ *
+ * Borrowing is supported between sections of type SectionDescription.TYPE_EMPLOYEES.
+ */
+public class BorrowingRule {
+
+    public final String lenderSection;
+    public final int maxEmployees;
+    public final int pendingTasksThreshold;
+
+    public BorrowingRule(String lenderSection, int maxEmployees, int pendingTasksThreshold) {
+        if (lenderSection == null) {
+            throw new IllegalArgumentException("Lender section name can not be null.");
+        }
+
+        if (maxEmployees <= 0) {
+            throw new IllegalArgumentException("Maximum borrowed employees must be greater than zero.");
+        }
+
+        if (pendingTasksThreshold < 0) {
+            throw new IllegalArgumentException("Pending tasks threshold can not be negative.");
+        }
+
+        this.lenderSection = lenderSection;
+        this.maxEmployees = maxEmployees;
+        this.pendingTasksThreshold = pendingTasksThreshold;
+    }
+
+}
@@ -0,0 +1,172 @@
+package com.yashoid.office.office;
+
+import com.yashoid.office.util.BucketedPriorityQueue;
+
+import java.util.Iterator;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pending tasks of a deadline scheduled section, earliest deadline first. Tasks with the same
+ * deadline keep their order.
+ */
+class DeadlineTaskQueue {
+
+    static class DeadlineTask implements Runnable, Comparable<DeadlineTask> {
+
+        private Runnable mTask;
+        private long mDeadline;
+        private long mSequence;
+
+        private SectionStatsRecorder mRecorder;
+        private boolean mIsMissed = false;
+
+        DeadlineTask(Runnable task, long deadline, SectionStatsRecorder recorder) {
+            mTask = task;
+            mDeadline = deadline;
+            mRecorder = recorder;
+        }
+
+        Runnable getTask() {
+            return mTask;
+        }
+
+        boolean isExpired(long now) {
+            return now - mDeadline > 0;
+        }
+
+        /**
+         * Counts the miss once. A task is missed when it is taken from the queue or finishes after
+         * its deadline.
+         */
+        void onDeadlineMissed() {
+            if (!mIsMissed) {
+                mIsMissed = true;
+
+                mRecorder.onDeadlineMissed();
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                mTask.run();
+            } finally {
+                if (isExpired(System.nanoTime())) {
+                    onDeadlineMissed();
+                }
+            }
+        }
+
+        @Override
+        public int compareTo(DeadlineTask other) {
+            long difference = mDeadline - other.mDeadline;
+
+            if (difference == 0) {
+                difference = mSequence - other.mSequence;
+            }
+
+            return difference < 0 ? -1 : (difference > 0 ? 1 : 0);
+        }
+
+    }
+
+    private PriorityQueue<DeadlineTask> mTasks = new PriorityQueue<>();
+    private long mSequence = 0;
+
+    private AtomicInteger mSize = new AtomicInteger(0);
+
+    void offer(DeadlineTask task) {
+        synchronized (mTasks) {
+            task.mSequence = mSequence++;
+
+            mTasks.offer(task);
+
+            mSize.incrementAndGet();
+        }
+    }
+
+    DeadlineTask poll() {
+        if (mSize.get() == 0) {
+            return null;
+        }
+
+        synchronized (mTasks) {
+            DeadlineTask task = mTasks.poll();
+
+            if (task != null) {
+                mSize.decrementAndGet();
+            }
+
+            return task;
+        }
+    }
+
+    /**
+     *
+     * @param key A lookup key of the section.
+     * @return true if a task equal to the key was found and removed.
+     */
+    boolean remove(Object key) {
+        if (mSize.get() == 0) {
+            return false;
+        }
+
+        synchronized (mTasks) {
+            Iterator<DeadlineTask> iterator = mTasks.iterator();
+
+            while (iterator.hasNext()) {
+                if (key.equals(iterator.next().mTask)) {
+                    iterator.remove();
+
+                    mSize.decrementAndGet();
+
+                    return true;
+                }
+            }
+
+            return false;
+        }
+    }
+
+    int removeAll(BucketedPriorityQueue.Filter<Runnable> filter) {
+        if (mSize.get() == 0) {
+            return 0;
+        }
+
+        synchronized (mTasks) {
+            int removedCount = 0;
+
+            Iterator<DeadlineTask> iterator = mTasks.iterator();
+
+            while (iterator.hasNext()) {
+                if (filter.matches(iterator.next().mTask)) {
+                    iterator.remove();
+
+                    removedCount++;
+                }
+            }
+
+            mSize.addAndGet(-removedCount);
+
+            return removedCount;
+        }
+    }
+
+    int size() {
+        return mSize.get();
+    }
+
+    boolean isEmpty() {
+        return mSize.get() == 0;
+    }
+
+    void clear() {
+        synchronized (mTasks) {
+            mTasks.clear();
+
+            mSize.set(0);
+        }
+    }
+
+}
@@ -0,0 +1,271 @@
+package com.yashoid.office.office;
+
+import com.yashoid.office.util.BucketedPriorityQueue;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limits how many tasks of the same key run at once in a section. A task whose key is saturated is
+ * parked with its key when it is about to start, instead of being looked for in the section's
+ * queue. The next task of the key to finish hands its slot to the parked task with the highest
+ * priority. Keys only take memory while they have running or parked tasks.
+ */
+class KeyLimiter {
+
+    /**
+     * Carries the key of a task through the section's assign methods.
+     */
+    static class KeyedTask implements Runnable {
+
+        private Object mKey;
+        private Runnable mTask;
+
+        KeyedTask(Object key, Runnable task) {
+            if (key == null) {
+                throw new IllegalArgumentException("Key can not be null.");
+            }
+
+            mKey = key;
+            mTask = task;
+        }
+
+        Object getKey() {
+            return mKey;
+        }
+
+        Runnable getTask() {
+            return mTask;
+        }
+
+        @Override
+        public void run() {
+            mTask.run();
+        }
+
+    }
+
+    private static class Key {
+
+        private int mRunningCount = 0;
+
+        // Highest priority first. Tasks of a priority keep their order.
+        private TreeMap<Integer, ArrayDeque<TrackedTask>> mParkedTasks = null;
+
+        private boolean mIsRemoved = false;
+
+        private void park(TrackedTask task) {
+            if (mParkedTasks == null) {
+                mParkedTasks = new TreeMap<>(Collections.<Integer>reverseOrder());
+            }
+
+            ArrayDeque<TrackedTask> lane = mParkedTasks.get(task.getPriority());
+
+            if (lane == null) {
+                lane = new ArrayDeque<>();
+                mParkedTasks.put(task.getPriority(), lane);
+            }
+
+            lane.offer(task);
+        }
+
+        private TrackedTask pollParked() {
+            if (mParkedTasks == null || mParkedTasks.isEmpty()) {
+                return null;
+            }
+
+            Map.Entry<Integer, ArrayDeque<TrackedTask>> entry = mParkedTasks.firstEntry();
+
+            TrackedTask task = entry.getValue().poll();
+
+            if (entry.getValue().isEmpty()) {
+                mParkedTasks.remove(entry.getKey());
+            }
+
+            return task;
+        }
+
+        private int removeParked(BucketedPriorityQueue.Filter<Runnable> filter, int maxCount) {
+            if (mParkedTasks == null) {
+                return 0;
+            }
+
+            int removedCount = 0;
+
+            Iterator<ArrayDeque<TrackedTask>> lanes = mParkedTasks.values().iterator();
+
+            while (lanes.hasNext() && removedCount < maxCount) {
+                ArrayDeque<TrackedTask> lane = lanes.next();
+
+                Iterator<TrackedTask> iterator = lane.iterator();
+
+                while (iterator.hasNext() && removedCount < maxCount) {
+                    if (filter.matches(iterator.next())) {
+                        iterator.remove();
+
+                        removedCount++;
+                    }
+                }
+
+                if (lane.isEmpty()) {
+                    lanes.remove();
+                }
+            }
+
+            return removedCount;
+        }
+
+    }
+
+    private int mMaxConcurrency;
+
+    private ConcurrentHashMap<Object, Key> mKeys = new ConcurrentHashMap<>();
+
+    private AtomicInteger mParkedTaskCount = new AtomicInteger(0);
+
+    KeyLimiter(int maxConcurrency) {
+        mMaxConcurrency = maxConcurrency;
+    }
+
+    /**
+     *
+     * @return true if the task can start. Otherwise it has been parked.
+     */
+    boolean tryStart(TrackedTask task) {
+        Object keyObject = task.getKey();
+
+        while (true) {
+            Key key = mKeys.get(keyObject);
+
+            if (key == null) {
+                key = new Key();
+
+                Key existingKey = mKeys.putIfAbsent(keyObject, key);
+
+                if (existingKey != null) {
+                    key = existingKey;
+                }
+            }
+
+            synchronized (key) {
+                if (key.mIsRemoved) {
+                    // Its last task finished meanwhile.
+                    continue;
+                }
+
+                if (key.mRunningCount < mMaxConcurrency) {
+                    key.mRunningCount++;
+                    return true;
+                }
+
+                key.park(task);
+
+                mParkedTaskCount.incrementAndGet();
+
+                return false;
+            }
+        }
+    }
+
+    /**
+     *
+     * @return a parked task that now holds the finished task's slot or null.
+     */
+    TrackedTask onTaskFinished(Object keyObject) {
+        Key key = mKeys.get(keyObject);
+
+        if (key == null) {
+            // Forgotten when the section closed.
+            return null;
+        }
+
+        synchronized (key) {
+            TrackedTask task = key.pollParked();
+
+            if (task != null) {
+                mParkedTaskCount.decrementAndGet();
+
+                return task;
+            }
+
+            key.mRunningCount--;
+
+            if (key.mRunningCount == 0) {
+                key.mIsRemoved = true;
+
+                mKeys.remove(keyObject, key);
+            }
+
+            return null;
+        }
+    }
+
+    /**
+     *
+     * @param lookupKey A lookup key of the section.
+     * @return true if a parked task equal to the key was found and removed.
+     */
+    boolean remove(final Object lookupKey) {
+        return removeAll(new BucketedPriorityQueue.Filter<Runnable>() {
+
+            @Override
+            public boolean matches(Runnable element) {
+                return lookupKey.equals(element);
+            }
+
+        }, 1) > 0;
+    }
+
+    int removeAll(BucketedPriorityQueue.Filter<Runnable> filter) {
+        return removeAll(filter, Integer.MAX_VALUE);
+    }
+
+    int getParkedTaskCount() {
+        return mParkedTaskCount.get();
+    }
+
+    /**
+     * Forgets the keys along with their parked tasks, so the slots of the pending tasks that are
+     * dropped with them are not left taken.
+     */
+    void clear() {
+        for (Key key: mKeys.values()) {
+            synchronized (key) {
+                key.mParkedTasks = null;
+                key.mIsRemoved = true;
+            }
+        }
+
+        mKeys.clear();
+
+        mParkedTaskCount.set(0);
+    }
+
+    private int removeAll(BucketedPriorityQueue.Filter<Runnable> filter, int maxCount) {
+        if (mParkedTaskCount.get() == 0) {
+            return 0;
+        }
+
+        int removedCount = 0;
+
+        for (Key key: mKeys.values()) {
+            synchronized (key) {
+                removedCount += key.removeParked(filter, maxCount - removedCount);
+            }
+
+            if (removedCount == maxCount) {
+                break;
+            }
+        }
+
+        mParkedTaskCount.addAndGet(-removedCount);
+
+        return removedCount;
+    }
+
+}
@@ -0,0 +1,892 @@
+package com.yashoid.office.office;
+
+import com.yashoid.office.employee.Employee;
+import com.yashoid.office.employee.EmployeeBackend;
+import com.yashoid.office.employee.EmployeeManager;
+import com.yashoid.office.platform.MainExecutor;
+import com.yashoid.office.platform.Platform;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Created by Yashar on 4/13/2017.
+ */
+
+public class Office {
+
+    public static class SectionDescription {
+
+        /**
+         * Tasks are handed to the first free employee and wait in a priority queue otherwise.
+         */
+        public static final int TYPE_EMPLOYEES = 0;
+
+        /**
+         * Every employee owns a deque and idle employees steal from the busy ones. Tasks assigned
+         * from inside the section stay on the assigning employee's deque.
+         */
+        public static final int TYPE_WORK_STEALING = 1;
+
+        /**
+         * Every task runs on a new virtual thread, or a plain thread before JDK 21. The employee
+         * count is the maximum number of tasks that run at the same time.
+         */
+        public static final int TYPE_VIRTUAL_THREADS = 2;
+
+        public static final long DEFAULT_KEEP_ALIVE_TIME = 30000;
+
+        /**
+         * A deadline task that is still pending after its deadline runs late.
+         */
+        public static final int EXPIRED_TASK_RUN = 0;
+
+        /**
+         * A deadline task that is still pending after its deadline is dropped.
+         */
+        public static final int EXPIRED_TASK_DROP = 1;
+
+        /**
+         * A deadline task that is still pending after its deadline is handed to the section's
+         * OnTaskExpiredListener instead of running.
+         */
+        public static final int EXPIRED_TASK_CALLBACK = 2;
+
+        /**
+         * The submitter of a task to a full section waits until there is room for it, or until
+         * the block timeout passes and the task is rejected with a SectionOverflowException. The
+         * section's own threads and the timer's actions never wait. They run the task themselves
+         * and reject it respectively.
+         */
+        public static final int OVERFLOW_BLOCK = 0;
+
+        /**
+         * A task assigned to a full section is rejected with a SectionOverflowException.
+         */
+        public static final int OVERFLOW_REJECT = 1;
+
+        /**
+         * A task assigned to a full section is handed to the section's OnTaskRejectedListener.
+         */
+        public static final int OVERFLOW_CALLBACK = 2;
+
+        /**
+         * A task assigned to a full section runs on the submitting thread.
+         */
+        public static final int OVERFLOW_CALLER_RUNS = 3;
+
+        /**
+         * A pending task of the lowest priority is dropped to make room for a task assigned to a
+         * full section.
+         */
+        public static final int OVERFLOW_DROP_LOWEST = 4;
+
+        /**
+         * The pending task that is next in line is dropped to make room for a task assigned to a
+         * full section, like ThreadPoolExecutor.DiscardOldestPolicy.
+         */
+        public static final int OVERFLOW_DROP_OLDEST = 5;
+
+        public interface OnTaskExpiredListener {
+
+            /**
+             * Called on the thread that dispatches the section's tasks. Must return quickly.
+             */
+            void onTaskExpired(String section, Runnable task);
+
+        }
+
+        public interface OnTaskShedListener {
+
+            /**
+             * Called on the thread that assigned or dispatched the task. Must return quickly.
+             */
+            void onTaskShed(String section, Runnable task, int priority);
+
+        }
+
+        /**
+         * Told about the tasks that a full section drops or rejects without an exception. A task
+         * that implements this interface is also told about itself.
+         */
+        public interface OnTaskRejectedListener {
+
+            /**
+             * Called on the submitting thread. Must return quickly.
+             */
+            void onTaskRejected(String section, Runnable task);
+
+        }
+
+        public static class Builder {
+
+            private String mName;
+            private int mEmployeeCount;
+            private int mMaxEmployeeCount;
+            private long mKeepAliveTime = DEFAULT_KEEP_ALIVE_TIME;
+            private int mType = TYPE_EMPLOYEES;
+
+            private boolean mDeadlineScheduling = false;
+            private int mExpiredTaskPolicy = EXPIRED_TASK_RUN;
+            private OnTaskExpiredListener mOnTaskExpiredListener = null;
+
+            private SchedulingPolicy mSchedulingPolicy = SchedulingPolicy.STRICT_PRIORITY;
+
+            private int mCapacity = 0;
+            private int mOverflowPolicy = OVERFLOW_BLOCK;
+            private long mBlockTimeout = 0;
+            private OnTaskRejectedListener mOnTaskRejectedListener = null;
+
+            private long mShedWaitThreshold = 0;
+            private int mProtectedPriority;
+            private OnTaskShedListener mOnTaskShedListener = null;
+
+            private double mRateLimit = 0;
+            private int mRateLimitBurst;
+
+            private int mConcurrencyPerKey = 0;
+
+            private ArrayList<BorrowingRule> mBorrowingRules = new ArrayList<>(2);
+
+            public Builder(String name, int employeeCount) {
+                mName = name;
+                mEmployeeCount = employeeCount;
+                mMaxEmployeeCount = employeeCount;
+            }
+
+            public Builder setType(int type) {
+                mType = type;
+                return this;
+            }
+
+            /**
+             * Lets a TYPE_EMPLOYEES section hire up to maxEmployeeCount employees when tasks are
+             * pending. The employees beyond the core employee count are retired after being idle
+             * for the keep alive time.
+             */
+            public Builder setMaxEmployeeCount(int maxEmployeeCount) {
+                mMaxEmployeeCount = maxEmployeeCount;
+                return this;
+            }
+
+            /**
+             *
+             * @param keepAliveTime Idle time in milliseconds after which an extra employee is retired.
+             */
+            public Builder setKeepAliveTime(long keepAliveTime) {
+                mKeepAliveTime = keepAliveTime;
+                return this;
+            }
+
+            /**
+             * Allows the section to borrow up to maxEmployees free employees of the lender section
+             * while it has more than pendingTasksThreshold pending tasks.
+             */
+            public Builder borrowFrom(String lenderSection, int maxEmployees, int pendingTasksThreshold) {
+                mBorrowingRules.add(new BorrowingRule(lenderSection, maxEmployees, pendingTasksThreshold));
+                return this;
+            }
+
+            /**
+             * Sets the order in which the section runs its pending tasks. The default is
+             * SchedulingPolicy.STRICT_PRIORITY.
+             */
+            public Builder setSchedulingPolicy(SchedulingPolicy schedulingPolicy) {
+                if (schedulingPolicy == null) {
+                    throw new IllegalArgumentException("Scheduling policy can not be null.");
+                }
+
+                mSchedulingPolicy = schedulingPolicy;
+                return this;
+            }
+
+            /**
+             * Lets waiting tasks gain priority so lower priorities are not starved. Same as
+             * setSchedulingPolicy(SchedulingPolicy.priorityAging(agingInterval)). Zero turns aging
+             * off, which is the default.
+             */
+            public Builder setPriorityAging(long agingInterval) {
+                if (agingInterval < 0) {
+                    throw new IllegalArgumentException("Aging interval can not be negative.");
+                }
+
+                mSchedulingPolicy = agingInterval == 0 ?
+                        SchedulingPolicy.STRICT_PRIORITY : SchedulingPolicy.priorityAging(agingInterval);
+                return this;
+            }
+
+            /**
+             * Dispatches the tasks that are run with a deadline earliest deadline first, ahead of
+             * the tasks without one. Only TYPE_EMPLOYEES sections support deadlines.
+             *
+             * @param expiredTaskPolicy EXPIRED_TASK_RUN or EXPIRED_TASK_DROP.
+             */
+            public Builder setDeadlineScheduling(int expiredTaskPolicy) {
+                if (expiredTaskPolicy != EXPIRED_TASK_RUN && expiredTaskPolicy != EXPIRED_TASK_DROP) {
+                    throw new IllegalArgumentException("Unknown expired task policy " + expiredTaskPolicy + ".");
+                }
+
+                mDeadlineScheduling = true;
+                mExpiredTaskPolicy = expiredTaskPolicy;
+                mOnTaskExpiredListener = null;
+                return this;
+            }
+
+            /**
+             * Same as setDeadlineScheduling(EXPIRED_TASK_CALLBACK). Expired tasks are handed to the
+             * listener.
+             */
+            public Builder setDeadlineScheduling(OnTaskExpiredListener listener) {
+                if (listener == null) {
+                    throw new IllegalArgumentException("Listener can not be null.");
+                }
+
+                mDeadlineScheduling = true;
+                mExpiredTaskPolicy = EXPIRED_TASK_CALLBACK;
+                mOnTaskExpiredListener = listener;
+                return this;
+            }
+
+            /**
+             * Limits the number of pending tasks of the section. Tasks assigned while it is full
+             * are handled by the overflow policy. Sections are unbounded by default.
+             *
+             * @param capacity
+             * @param overflowPolicy One of the OVERFLOW_ constants other than OVERFLOW_CALLBACK.
+             */
+            public Builder setCapacity(int capacity, int overflowPolicy) {
+                if (capacity < 1) {
+                    throw new IllegalArgumentException("Capacity must be positive.");
+                }
+
+                if (overflowPolicy < OVERFLOW_BLOCK || overflowPolicy > OVERFLOW_DROP_OLDEST
+                        || overflowPolicy == OVERFLOW_CALLBACK) {
+                    throw new IllegalArgumentException("Unknown overflow policy " + overflowPolicy + ".");
+                }
+
+                mCapacity = capacity;
+                mOverflowPolicy = overflowPolicy;
+                return this;
+            }
+
+            /**
+             * Same as setCapacity(capacity, OVERFLOW_CALLBACK). Tasks assigned while the section is
+             * full are handed to the listener. The listener is also told about the tasks that
+             * OVERFLOW_DROP_ policies drop.
+             */
+            public Builder setCapacity(int capacity, OnTaskRejectedListener listener) {
+                if (listener == null) {
+                    throw new IllegalArgumentException("Listener can not be null.");
+                }
+
+                setCapacity(capacity, OVERFLOW_REJECT);
+
+                mOverflowPolicy = OVERFLOW_CALLBACK;
+                mOnTaskRejectedListener = listener;
+                return this;
+            }
+
+            /**
+             * Only applies to OVERFLOW_BLOCK.
+             *
+             * @param blockTimeout Milliseconds a submitter waits for room. Zero waits without a
+             *                     limit, which is the default.
+             */
+            public Builder setBlockTimeout(long blockTimeout) {
+                if (blockTimeout < 0) {
+                    throw new IllegalArgumentException("Block timeout can not be negative.");
+                }
+
+                mBlockTimeout = blockTimeout;
+                return this;
+            }
+
+            /**
+             * Sheds low priority tasks while the section is overloaded. The section counts as
+             * overloaded while its queue wait stays above the threshold. Then new and pending tasks
+             * below a priority cutoff are dropped instead of run. The cutoff rises a priority for
+             * every 100 milliseconds of overload and falls back when the waits get short again. A
+             * task that implements OnTaskRejectedListener is told when it is shed.
+             *
+             * @param waitThreshold Milliseconds of queue wait that count as overload.
+             * @param protectedPriority Tasks of this priority and above are never shed.
+             * @param listener Told about the shed tasks. Can be null.
+             */
+            public Builder setLoadShedding(long waitThreshold, int protectedPriority, OnTaskShedListener listener) {
+                if (waitThreshold <= 0) {
+                    throw new IllegalArgumentException("Wait threshold must be positive.");
+                }
+
+                mShedWaitThreshold = waitThreshold;
+                mProtectedPriority = protectedPriority;
+                mOnTaskShedListener = listener;
+                return this;
+            }
+
+            /**
+             * Limits the rate at which pending tasks start, with a token bucket. The tasks that are
+             * released still go in priority order. A timer releases the next task when a token is
+             * available, so no worker sleeps. Work stealing sections do not support rate limits.
+             *
+             * @param tasksPerSecond The rate at which tokens are added.
+             * @param burst The most tasks that can start at once after an idle period.
+             */
+            public Builder setRateLimit(double tasksPerSecond, int burst) {
+                if (!(tasksPerSecond > 0)) {
+                    throw new IllegalArgumentException("Rate must be positive.");
+                }
+
+                if (burst < 1) {
+                    throw new IllegalArgumentException("Burst must be positive.");
+                }
+
+                mRateLimit = tasksPerSecond;
+                mRateLimitBurst = burst;
+                return this;
+            }
+
+            /**
+             * Lets at most maxConcurrency tasks with the same key run at once. Keys are given to
+             * TaskManager.runTask(section, key, task, priority), for example the host of a request.
+             * A task whose key is saturated is set aside without blocking a worker and the other
+             * keys' tasks run meanwhile.
+             */
+            public Builder setConcurrencyPerKey(int maxConcurrency) {
+                if (maxConcurrency < 1) {
+                    throw new IllegalArgumentException("Concurrency per key must be positive.");
+                }
+
+                mConcurrencyPerKey = maxConcurrency;
+                return this;
+            }
+
+            public SectionDescription build() {
+                return new SectionDescription(this);
+            }
+
+        }
+
+        public final String name;
+        public final int employeeCount;
+        public final int maxEmployeeCount;
+        public final long keepAliveTime;
+        public final int type;
+        public final List<BorrowingRule> borrowingRules;
+        public final SchedulingPolicy schedulingPolicy;
+        public final int capacity;
+        public final int overflowPolicy;
+        public final long blockTimeout;
+        public final OnTaskRejectedListener onTaskRejectedListener;
+        public final long shedWaitThreshold;
+        public final int protectedPriority;
+        public final OnTaskShedListener onTaskShedListener;
+        public final double rateLimit;
+        public final int rateLimitBurst;
+        public final int concurrencyPerKey;
+        public final boolean deadlineScheduling;
+        public final int expiredTaskPolicy;
+        public final OnTaskExpiredListener onTaskExpiredListener;
+
+        public SectionDescription(String name, int employeeCount) {
+            this(name, employeeCount, TYPE_EMPLOYEES);
+        }
+
+        public SectionDescription(String name, int employeeCount, int type) {
+            this(new Builder(name, employeeCount).setType(type));
+        }
+
+        private SectionDescription(Builder builder) {
+            this.name = builder.mName;
+            this.employeeCount = builder.mEmployeeCount;
+            this.maxEmployeeCount = builder.mMaxEmployeeCount;
+            this.keepAliveTime = builder.mKeepAliveTime;
+            this.type = builder.mType;
+            this.borrowingRules = Collections.unmodifiableList(new ArrayList<>(builder.mBorrowingRules));
+            this.schedulingPolicy = builder.mSchedulingPolicy;
+            this.capacity = builder.mCapacity;
+            this.overflowPolicy = builder.mOverflowPolicy;
+            this.blockTimeout = builder.mBlockTimeout;
+            this.onTaskRejectedListener = builder.mOnTaskRejectedListener;
+            this.shedWaitThreshold = builder.mShedWaitThreshold;
+            this.protectedPriority = builder.mProtectedPriority;
+            this.onTaskShedListener = builder.mOnTaskShedListener;
+            this.rateLimit = builder.mRateLimit;
+            this.rateLimitBurst = builder.mRateLimitBurst;
+            this.concurrencyPerKey = builder.mConcurrencyPerKey;
+            this.deadlineScheduling = builder.mDeadlineScheduling;
+            this.expiredTaskPolicy = builder.mExpiredTaskPolicy;
+            this.onTaskExpiredListener = builder.mOnTaskExpiredListener;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == null) {
+                return false;
+            }
+
+            if (!(obj instanceof SectionDescription)) {
+                return false;
+            }
+
+            return name.equals(((SectionDescription) obj).name);
+        }
+
+    }
+
+    private ConcurrentHashMap<String, SectionManager> mSectionManagers;
+
+    private EmployeeManager mImmediateEmployeeManager;
+
+    private TaskTimer mTimer;
+
+    private volatile boolean mIsClosed = false;
+
+    private EmployeeBackend.Factory mBackendFactory;
+
+    private MainExecutor mMainExecutor;
+
+    public Office(MainExecutor mainExecutor, int immediateEmployees, SectionDescription... sectionDescriptions) {
+        this(Platform.get(), mainExecutor, immediateEmployees, sectionDescriptions);
+    }
+
+    public Office(EmployeeBackend.Factory backendFactory, MainExecutor mainExecutor, int immediateEmployees,
+                  SectionDescription... sectionDescriptions) {
+        if (backendFactory == null) {
+            throw new IllegalArgumentException("Employee backend factory can not be null.");
+        }
+
+        if (mainExecutor == null) {
+            throw new IllegalArgumentException("Main executor can not be null.");
+        }
+
+        mBackendFactory = backendFactory;
+        mMainExecutor = mainExecutor;
+
+        mTimer = new TaskTimer("office-timer", backendFactory);
+
+        mSectionManagers = new ConcurrentHashMap<>(sectionDescriptions.length);
+
+        for (int i=0; i<sectionDescriptions.length; i++) {
+            SectionManager sectionManager = newSectionManager(sectionDescriptions[i]);
+
+            mSectionManagers.put(sectionDescriptions[i].name, sectionManager);
+        }
+
+        for (SectionDescription sectionDescription: sectionDescriptions) {
+            applyBorrowingRules(sectionDescription);
+        }
+
+        mImmediateEmployeeManager = new EmployeeManager(backendFactory, "_immediate", immediateEmployees, immediateEmployees, 0);
+    }
+
+    public void close() {
+        synchronized (this) {
+            mIsClosed = true;
+
+            for (SectionManager sectionManager: mSectionManagers.values()) {
+                sectionManager.close();
+            }
+
+            mSectionManagers.clear();
+
+            mImmediateEmployeeManager.relieveEmployees();
+
+            mTimer.close();
+        }
+    }
+
+    private boolean isClosed() {
+        return mIsClosed;
+    }
+
+    public boolean assignTask(String sectionName, Runnable task, int priority) {
+        if (isClosed()) {
+            return false;
+        }
+
+        SectionManager sectionManager = getSectionManager(sectionName);
+
+        if (sectionManager.admitTask(task, priority)) {
+            sectionManager.assignTask(task, priority);
+        }
+
+        return true;
+    }
+
+    /**
+     * Assigns the task to a section with keyed concurrency limits. It starts once fewer than the
+     * section's limit of tasks with the same key are running.
+     */
+    public boolean assignTask(String sectionName, Object key, Runnable task, int priority) {
+        if (isClosed()) {
+            return false;
+        }
+
+        SectionManager sectionManager = getSectionManager(sectionName);
+
+        if (sectionManager.admitTask(task, priority)) {
+            sectionManager.assignKeyedTask(key, task, priority);
+        }
+
+        return true;
+    }
+
+    public boolean assignTasks(String sectionName, Collection<? extends Runnable> tasks, int priority) {
+        if (isClosed()) {
+            return false;
+        }
+
+        SectionManager sectionManager = getSectionManager(sectionName);
+
+        int admittedCount = sectionManager.admitTasks(tasks, priority);
+
+        if (admittedCount == tasks.size()) {
+            sectionManager.assignTasks(tasks, priority);
+            return true;
+        }
+
+        // Whatever does not fit goes through the overflow policy one by one.
+        ArrayList<Runnable> remainingTasks = new ArrayList<>(tasks);
+
+        sectionManager.assignTasks(remainingTasks.subList(0, admittedCount), priority);
+
+        for (Runnable task: remainingTasks.subList(admittedCount, remainingTasks.size())) {
+            if (sectionManager.admitTask(task, priority)) {
+                sectionManager.assignTask(task, priority);
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     *
+     * @param sectionName A section with deadline scheduling.
+     * @param task
+     * @param deadline The System.nanoTime() by which the task should be done.
+     * @return false if the office is closed.
+     */
+    public boolean assignTaskWithDeadline(String sectionName, Runnable task, long deadline) {
+        if (isClosed()) {
+            return false;
+        }
+
+        SectionManager sectionManager = getSectionManager(sectionName);
+
+        if (sectionManager.admitTask(task, 0)) {
+            sectionManager.assignTaskWithDeadline(task, deadline);
+        }
+
+        return true;
+    }
+
+    public boolean assignTaskAndWait(String sectionName, Runnable task, int priority) {
+        if (isClosed()) {
+            return false;
+        }
+
+        SectionManager sectionManager = getSectionManager(sectionName);
+
+        if (sectionManager.admitTask(task, priority)) {
+            sectionManager.assignTaskAndWait(task, priority);
+        }
+
+        return true;
+    }
+
+    /**
+     * Runs the action on the office's timer dispatcher at the given time. The action must not
+     * block. It is meant to assign the actual task to a section.
+     *
+     * @param action
+     * @param triggerTime The System.nanoTime() at which the action is due.
+     * @return a handle to cancel the action with or null if the office is closed.
+     */
+    public ScheduledTask schedule(Runnable action, long triggerTime) {
+        if (isClosed()) {
+            return null;
+        }
+
+        return mTimer.schedule(action, triggerTime);
+    }
+
+    public void addSection(SectionDescription sectionDescription) {
+        String name = sectionDescription.name;
+
+        if (name == null) {
+            throw new IllegalArgumentException("Section name can not be null.");
+        }
+
+        if (mSectionManagers.containsKey(name)
+                || mSectionManagers.putIfAbsent(name, newSectionManager(sectionDescription)) != null) {
+            throw new SectionNameDuplicationException("Section with name '" + name + "' already exists.");
+        }
+
+        applyBorrowingRules(sectionDescription);
+    }
+
+    public void addSection(String name, int employeeCount) {
+        addSection(new SectionDescription(name, employeeCount));
+    }
+
+    public boolean performTaskImmediately(Runnable task) {
+        if (isClosed()) {
+            return false;
+        }
+
+        getImmediateEmployee().assignTask(task);
+
+        return true;
+    }
+
+    public boolean performTaskImmediatelyAndWait(Runnable task) {
+        if (isClosed()) {
+            return false;
+        }
+
+        getImmediateEmployee().assignTaskAndWait(task);
+
+        return true;
+    }
+
+    /**
+     *
+     * @param sectionName
+     * @param task
+     * @param priority
+     * @return true if the task has truly canceled.
+     */
+    public boolean cancelTask(String sectionName, Runnable task, int priority) {
+        if (isClosed()) {
+            return false;
+        }
+
+        return getSectionManager(sectionName).cancelTask(task, priority);
+    }
+
+    /**
+     *
+     * @param sectionName
+     * @param tasks
+     * @param priority
+     * @return the number of tasks that have truly canceled.
+     */
+    public int cancelTasks(String sectionName, Collection<? extends Runnable> tasks, int priority) {
+        if (isClosed()) {
+            return 0;
+        }
+
+        return getSectionManager(sectionName).cancelTasks(tasks, priority);
+    }
+
+    /**
+     *
+     * @param sectionName
+     * @param task
+     * @return true if the task has truly canceled.
+     */
+    public boolean cancelTask(String sectionName, Runnable task) {
+        if (isClosed()) {
+            return false;
+        }
+
+        return getSectionManager(sectionName).cancelTask(task);
+    }
+
+    /**
+     *
+     * @param task
+     * @return true if the task has truly canceled.
+     */
+    public boolean cancelTask(Runnable task) {
+        if (isClosed()) {
+            return false;
+        }
+
+        for (String sectionName: mSectionManagers.keySet()) {
+            if (getSectionManager(sectionName).cancelTask(task)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    public void runOnMainThread(Runnable task) {
+        mMainExecutor.execute(task);
+    }
+
+    public void runOnMainThreadAndWait(Runnable task) {
+        final Object lock = new Object();
+        final boolean[] done = { false };
+
+        synchronized (lock) {
+            mMainExecutor.execute(task);
+            mMainExecutor.execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    synchronized (lock) {
+                        done[0] = true;
+
+                        lock.notifyAll();
+                    }
+                }
+
+            });
+
+            while (!done[0]) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) { }
+            }
+        }
+    }
+
+    public void cancelFromMainThread(Runnable task) {
+        mMainExecutor.cancel(task);
+    }
+
+    /**
+     *
+     * @param sectionName
+     * @return the number of employees the section is currently borrowing from other sections.
+     */
+    public int getBorrowedEmployeeCount(String sectionName) {
+        return getSectionManager(sectionName).getBorrowedEmployeeCount();
+    }
+
+    /**
+     *
+     * @param sectionName
+     * @return the number of the section's employees that are currently lent to other sections.
+     */
+    public int getLentEmployeeCount(String sectionName) {
+        return getSectionManager(sectionName).getLentEmployeeCount();
+    }
+
+    /**
+     *
+     * @param sectionName
+     * @return the total number of the section's tasks that have run on borrowed employees.
+     */
+    public long getBorrowedTaskCount(String sectionName) {
+        return getSectionManager(sectionName).getBorrowedTaskCount();
+    }
+
+    /**
+     *
+     * @param sectionName
+     * @return a snapshot of the section's task counters and timings.
+     */
+    public SectionStats getSectionStats(String sectionName) {
+        return getSectionManager(sectionName).getStats();
+    }
+
+    private void applyBorrowingRules(SectionDescription sectionDescription) {
+        if (sectionDescription.borrowingRules.isEmpty()) {
+            return;
+        }
+
+        SectionManager borrower = getSectionManager(sectionDescription.name);
+
+        for (BorrowingRule rule: sectionDescription.borrowingRules) {
+            SectionManager lender = getSectionManager(rule.lenderSection);
+
+            if (lender == borrower) {
+                throw new IllegalArgumentException("Section '" + sectionDescription.name + "' can not borrow from itself.");
+            }
+
+            if (!borrower.supportsBorrowing() || !lender.supportsBorrowing()) {
+                throw new IllegalArgumentException("Borrowing is not supported between '"
+                        + sectionDescription.name + "' and '" + rule.lenderSection + "'.");
+            }
+
+            borrower.addLender(lender, rule);
+        }
+    }
+
+    private SectionManager newSectionManager(SectionDescription sectionDescription) {
+        SectionManager sectionManager = createSectionManager(sectionDescription);
+
+        if (sectionDescription.schedulingPolicy != SchedulingPolicy.STRICT_PRIORITY) {
+            sectionManager.setSchedulingPolicy(sectionDescription.schedulingPolicy);
+        }
+
+        if (sectionDescription.capacity > 0) {
+            sectionManager.setCapacity(sectionDescription.capacity, sectionDescription.overflowPolicy,
+                    sectionDescription.blockTimeout, sectionDescription.onTaskRejectedListener);
+        }
+
+        if (sectionDescription.shedWaitThreshold > 0) {
+            sectionManager.setLoadShedding(sectionDescription.shedWaitThreshold, sectionDescription.protectedPriority,
+                    sectionDescription.onTaskShedListener);
+        }
+
+        if (sectionDescription.rateLimit > 0) {
+            sectionManager.setRateLimit(sectionDescription.rateLimit, sectionDescription.rateLimitBurst, mTimer);
+        }
+
+        if (sectionDescription.concurrencyPerKey > 0) {
+            sectionManager.setConcurrencyPerKey(sectionDescription.concurrencyPerKey);
+        }
+
+        return sectionManager;
+    }
+
+    private SectionManager createSectionManager(SectionDescription sectionDescription) {
+        if (sectionDescription.deadlineScheduling && sectionDescription.type != SectionDescription.TYPE_EMPLOYEES) {
+            throw new IllegalArgumentException("Deadline scheduling is not supported by section '"
+                    + sectionDescription.name + "'.");
+        }
+
+        if (sectionDescription.rateLimit > 0 && sectionDescription.type == SectionDescription.TYPE_WORK_STEALING) {
+            throw new IllegalArgumentException("Rate limiting is not supported by section '"
+                    + sectionDescription.name + "'.");
+        }
+
+        switch (sectionDescription.type) {
+            case SectionDescription.TYPE_EMPLOYEES:
+                SectionManager sectionManager = new SectionManager(mBackendFactory, sectionDescription.name,
+                        sectionDescription.employeeCount, sectionDescription.maxEmployeeCount,
+                        sectionDescription.keepAliveTime);
+
+                if (sectionDescription.deadlineScheduling) {
+                    sectionManager.setDeadlineScheduling(sectionDescription.expiredTaskPolicy,
+                            sectionDescription.onTaskExpiredListener);
+                }
+
+                return sectionManager;
+            case SectionDescription.TYPE_WORK_STEALING:
+                return new WorkStealingSectionManager(mBackendFactory, sectionDescription.name, sectionDescription.employeeCount);
+            case SectionDescription.TYPE_VIRTUAL_THREADS:
+                return new VirtualThreadSectionManager(mBackendFactory, sectionDescription.name, sectionDescription.employeeCount);
+            default:
+                throw new IllegalArgumentException("Unknown section type " + sectionDescription.type + ".");
+        }
+    }
+
+    private SectionManager getSectionManager(String sectionName) {
+        SectionManager sectionManager = mSectionManagers.get(sectionName);
+
+        if (sectionManager == null) {
+            throw new IllegalStateException("No section found with name '" + sectionName + "'.");
+        }
+
+        return sectionManager;
+    }
+
+    private Employee getImmediateEmployee() {
+        Employee employee = mImmediateEmployeeManager.takeFreeEmployee();
+
+        if (employee != null) {
+            return employee;
+        }
+
+        return mImmediateEmployeeManager.hireTemporaryEmployee();
+    }
+
+}
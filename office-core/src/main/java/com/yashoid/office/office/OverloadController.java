@@ -0,0 +1,162 @@
+package com.yashoid.office.office;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides which priorities a section sheds. Time is split into windows of 100 milliseconds. At the
+ * end of every window the queue wait is taken as the longer of two measures. One is the shortest
+ * wait of the tasks that started in the window, which stays low after a burst that drained. The
+ * other is the wait a new task can expect, the pending tasks divided by the tasks started in the
+ * window. The second one also sees low priority tasks that never get to start.
+ *
+ * Every window with a wait above the threshold raises the cutoff to just above the lowest priority
+ * that was admitted in it. Every window with a wait under half the threshold lowers it by one. A
+ * calm window in which nothing was shed, or an idle one, turns shedding off. Tasks below the
+ * cutoff are shed. Tasks of the protected priority and above never are.
+ */
+class OverloadController {
+
+    private static final long WINDOW = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private static final int OFF = Integer.MIN_VALUE;
+
+    private long mWaitThreshold;
+    private int mProtectedPriority;
+
+    private volatile int mCutoff = OFF;
+
+    // Only used by the thread that ended the window.
+    private long mWindowLength;
+
+    private AtomicLong mWindowStart = new AtomicLong(System.nanoTime());
+    private AtomicLong mMinWaitTime = new AtomicLong(Long.MAX_VALUE);
+    private AtomicInteger mMinPriority = new AtomicInteger(Integer.MAX_VALUE);
+    private AtomicInteger mStartedCount = new AtomicInteger(0);
+    private AtomicInteger mShedCount = new AtomicInteger(0);
+
+    /**
+     *
+     * @param waitThreshold Milliseconds of queue wait that count as overload.
+     * @param protectedPriority The lowest priority that is never shed.
+     */
+    OverloadController(long waitThreshold, int protectedPriority) {
+        mWaitThreshold = TimeUnit.MILLISECONDS.toNanos(waitThreshold);
+        mProtectedPriority = protectedPriority;
+    }
+
+    /**
+     *
+     * @return true if tasks of the priority should be shed.
+     */
+    boolean shouldShed(int priority) {
+        return priority < mCutoff;
+    }
+
+    /**
+     * Assignments end windows too, so the cutoff comes down while no task starts.
+     *
+     * @return true if the window is over. The caller must then call onWindowEnded().
+     */
+    boolean onTaskAssigned(int priority) {
+        if (!shouldShed(priority)) {
+            updateMin(mMinPriority, priority);
+        }
+
+        return endWindow();
+    }
+
+    void onTaskShed() {
+        mShedCount.incrementAndGet();
+    }
+
+    /**
+     *
+     * @return true if the window is over. The caller must then call onWindowEnded().
+     */
+    boolean onTaskStarted(long waitTime) {
+        updateMin(mMinWaitTime, waitTime);
+
+        mStartedCount.incrementAndGet();
+
+        return endWindow();
+    }
+
+    /**
+     * Only called by the thread that ended the window.
+     *
+     * @param pendingTaskCount The section's current pending task count.
+     * @return true if the cutoff has been raised. Pending tasks below it should be shed.
+     */
+    boolean onWindowEnded(int pendingTaskCount) {
+        long minWaitTime = mMinWaitTime.getAndSet(Long.MAX_VALUE);
+        int minPriority = mMinPriority.getAndSet(Integer.MAX_VALUE);
+        int startedCount = mStartedCount.getAndSet(0);
+        int shedCount = mShedCount.getAndSet(0);
+
+        if (mWindowLength >= 2 * WINDOW && pendingTaskCount == 0) {
+            // A whole window passed without a task being assigned or started. The measures left
+            // over from before it are stale.
+            mCutoff = OFF;
+            return false;
+        }
+
+        long expectedWaitTime = pendingTaskCount * WINDOW / Math.max(1, startedCount);
+
+        long waitTime = Math.max(minWaitTime == Long.MAX_VALUE ? 0 : minWaitTime, expectedWaitTime);
+
+        int cutoff = mCutoff;
+
+        if (waitTime > mWaitThreshold) {
+            if (minPriority >= mProtectedPriority) {
+                // Only protected tasks are coming. Shedding can not help them.
+                return false;
+            }
+
+            // The lowest priority that still got in, so the ones without tasks are skipped.
+            mCutoff = minPriority + 1;
+
+            return true;
+        }
+
+        if (cutoff != OFF && waitTime < mWaitThreshold / 2) {
+            mCutoff = shedCount == 0 ? OFF : cutoff - 1;
+        }
+
+        return false;
+    }
+
+    private boolean endWindow() {
+        long now = System.nanoTime();
+        long windowStart = mWindowStart.get();
+
+        if (now - windowStart >= WINDOW && mWindowStart.compareAndSet(windowStart, now)) {
+            mWindowLength = now - windowStart;
+            return true;
+        }
+
+        return false;
+    }
+
+    private static void updateMin(AtomicLong min, long value) {
+        while (true) {
+            long current = min.get();
+
+            if (value >= current || min.compareAndSet(current, value)) {
+                return;
+            }
+        }
+    }
+
+    private static void updateMin(AtomicInteger min, int value) {
+        while (true) {
+            int current = min.get();
+
+            if (value >= current || min.compareAndSet(current, value)) {
+                return;
+            }
+        }
+    }
+
+}
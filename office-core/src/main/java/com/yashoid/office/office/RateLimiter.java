@@ -0,0 +1,58 @@
+package com.yashoid.office.office;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A token bucket that never blocks. Instead of counting tokens it keeps the time at which the
+ * bucket is full again, so taking a token is a single compare and set.
+ */
+class RateLimiter {
+
+    private long mInterval;
+    private long mBurstTime;
+
+    private AtomicLong mFullTime = new AtomicLong(System.nanoTime());
+
+    /**
+     *
+     * @param tasksPerSecond The rate at which the bucket refills.
+     * @param burst The size of the bucket. It starts full.
+     */
+    RateLimiter(double tasksPerSecond, int burst) {
+        mInterval = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / tasksPerSecond));
+        mBurstTime = mInterval * burst;
+    }
+
+    /**
+     *
+     * @return zero if a token was taken. Otherwise the nanoseconds until the next one.
+     */
+    long tryAcquire() {
+        while (true) {
+            long now = System.nanoTime();
+            long fullTime = mFullTime.get();
+
+            // The bucket does not fill beyond its size.
+            long nextFullTime = (fullTime - now < 0 ? now : fullTime) + mInterval;
+
+            long waitTime = nextFullTime - mBurstTime - now;
+
+            if (waitTime > 0) {
+                return waitTime;
+            }
+
+            if (mFullTime.compareAndSet(fullTime, nextFullTime)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Gives back a token that was taken but not used.
+     */
+    void release() {
+        mFullTime.addAndGet(-mInterval);
+    }
+
+}
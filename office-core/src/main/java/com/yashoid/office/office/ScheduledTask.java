@@ -0,0 +1,48 @@
+package com.yashoid.office.office;
+
+import com.yashoid.office.util.TimingWheel;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A pending action of the office's timer.
+ */
+public class ScheduledTask {
+
+    private TaskTimer mTimer;
+    private Runnable mAction;
+    private long mTriggerTime;
+
+    TimingWheel.Entry<ScheduledTask> mEntry;
+
+    ScheduledTask(TaskTimer timer, Runnable action, long triggerTime) {
+        mTimer = timer;
+        mAction = action;
+        mTriggerTime = triggerTime;
+    }
+
+    Runnable getAction() {
+        return mAction;
+    }
+
+    /**
+     *
+     * @return the System.nanoTime() at which the action is due.
+     */
+    public long getTriggerTime() {
+        return mTriggerTime;
+    }
+
+    public long getDelay(TimeUnit unit) {
+        return unit.convert(mTriggerTime - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     *
+     * @return true if the action has not been triggered yet and will not be.
+     */
+    public boolean cancel() {
+        return mTimer.cancel(this);
+    }
+
+}
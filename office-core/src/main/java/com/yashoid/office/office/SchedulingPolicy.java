@@ -0,0 +1,949 @@
+package com.yashoid.office.office;
+
+import com.yashoid.office.util.BucketedPriorityQueue;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Decides the order in which a section runs its pending tasks. Every section gets its own queue
+ * from newTaskQueue(). Set it with Office.SectionDescription.Builder.setSchedulingPolicy(). The
+ * default is STRICT_PRIORITY.
+ */
+public abstract class SchedulingPolicy {
+
+    /**
+     * The pending tasks of a section. It is used by several threads at once.
+     */
+    public interface TaskQueue {
+
+        void offer(Runnable task, int priority);
+
+        void offerAll(Collection<? extends Runnable> tasks, int priority);
+
+        /**
+         *
+         * @return the next task to run or null if the queue is empty.
+         */
+        Runnable poll();
+
+        /**
+         * Takes a task that would run late, for a full section that drops its lowest priority task.
+         *
+         * @return a task of the lowest pending priority or null if the queue is empty.
+         */
+        Runnable pollLowest();
+
+        /**
+         *
+         * @param key Equals the pending task to remove.
+         * @param priority The priority the task was offered with.
+         * @return true if a task was removed.
+         */
+        boolean remove(Object key, int priority);
+
+        boolean remove(Object key);
+
+        /**
+         *
+         * @return the number of removed tasks.
+         */
+        int removeAll(BucketedPriorityQueue.Filter<Runnable> filter, int priority);
+
+        int size();
+
+        boolean isEmpty();
+
+        void clear();
+
+    }
+
+    public interface Weights {
+
+        /**
+         *
+         * @return how many tasks of the priority run in one round. Values below one count as one.
+         */
+        int getWeight(int priority);
+
+    }
+
+    /**
+     * Implemented by tasks that belong to an owner, like the tasks of an Operation, for the
+     * fairShare() policy.
+     */
+    public interface FairShareTask {
+
+        /**
+         *
+         * @return the owner whose tasks share one turn or null.
+         */
+        Object getFairShareOwner();
+
+        /**
+         *
+         * @return how many tasks of the owner run in one turn. Values below one count as one.
+         */
+        int getFairShareWeight();
+
+    }
+
+    /**
+     * Higher priorities first and FIFO within a priority.
+     */
+    public static final SchedulingPolicy STRICT_PRIORITY = new SchedulingPolicy() {
+
+        @Override
+        public TaskQueue newTaskQueue() {
+            return new StrictPriorityQueue();
+        }
+
+    };
+
+    /**
+     * Tasks run in the order they are assigned. Priorities are ignored.
+     */
+    public static final SchedulingPolicy FIFO = new SchedulingPolicy() {
+
+        @Override
+        public TaskQueue newTaskQueue() {
+            return new DequeQueue(false);
+        }
+
+    };
+
+    /**
+     * The latest assigned task runs first. Priorities are ignored. Suits loads where only the
+     * freshest requests matter, like images of a scrolling list.
+     */
+    public static final SchedulingPolicy LIFO = new SchedulingPolicy() {
+
+        @Override
+        public TaskQueue newTaskQueue() {
+            return new DequeQueue(true);
+        }
+
+    };
+
+    private static final SchedulingPolicy FAIR_SHARE = new SchedulingPolicy() {
+
+        @Override
+        public TaskQueue newTaskQueue() {
+            return new FairShareQueue();
+        }
+
+    };
+
+    /**
+     * Strict priority where a pending task gains one priority level for every agingInterval
+     * milliseconds it waits, so it waits about (priority difference x agingInterval) at most for
+     * tasks with a higher priority that are assigned after it.
+     */
+    public static SchedulingPolicy priorityAging(long agingInterval) {
+        if (agingInterval <= 0) {
+            throw new IllegalArgumentException("Aging interval must be positive.");
+        }
+
+        final long agingIntervalNanos = TimeUnit.MILLISECONDS.toNanos(agingInterval);
+
+        return new SchedulingPolicy() {
+
+            @Override
+            public TaskQueue newTaskQueue() {
+                return new AgingQueue(agingIntervalNanos);
+            }
+
+            @Override
+            long getAgingInterval() {
+                return agingIntervalNanos;
+            }
+
+        };
+    }
+
+    /**
+     * Visits the pending priorities from the highest to the lowest over and over and runs up to
+     * the weight of each priority at every visit. Every priority gets its share, so none starves.
+     */
+    public static SchedulingPolicy weightedRoundRobin(final Weights weights) {
+        return new SchedulingPolicy() {
+
+            @Override
+            public TaskQueue newTaskQueue() {
+                return new WeightedRoundRobinQueue(weights);
+            }
+
+        };
+    }
+
+    /**
+     * Weighted round robin where the weight grows by one with every priority. Lane priority
+     * BucketedPriorityQueue.MIN_LANE_PRIORITY and below have a weight of one.
+     */
+    public static SchedulingPolicy weightedRoundRobin() {
+        return weightedRoundRobin(new Weights() {
+
+            @Override
+            public int getWeight(int priority) {
+                return priority - BucketedPriorityQueue.MIN_LANE_PRIORITY + 1;
+            }
+
+        });
+    }
+
+    /**
+     * Round robin between the owners of the pending tasks so one owner flooding the section does
+     * not hold back the others. An owner's turn runs up to its weight of tasks, highest priority
+     * first. Tasks that are not a FairShareTask, or have no owner, share a single turn.
+     */
+    public static SchedulingPolicy fairShare() {
+        return FAIR_SHARE;
+    }
+
+    public abstract TaskQueue newTaskQueue();
+
+    /**
+     *
+     * @return the nano seconds of waiting that raise a pending task's priority by one or zero if
+     * the policy does not age tasks.
+     */
+    long getAgingInterval() {
+        return 0;
+    }
+
+    private static class StrictPriorityQueue implements TaskQueue {
+
+        protected BucketedPriorityQueue<Runnable> mTasks = new BucketedPriorityQueue<>();
+
+        @Override
+        public void offer(Runnable task, int priority) {
+            mTasks.offer(task, priority);
+        }
+
+        @Override
+        public void offerAll(Collection<? extends Runnable> tasks, int priority) {
+            mTasks.offerAll(tasks, priority);
+        }
+
+        @Override
+        public Runnable poll() {
+            return mTasks.poll();
+        }
+
+        @Override
+        public Runnable pollLowest() {
+            return mTasks.pollLowest();
+        }
+
+        @Override
+        public boolean remove(Object key, int priority) {
+            return mTasks.remove(key, priority);
+        }
+
+        @Override
+        public boolean remove(Object key) {
+            return mTasks.remove(key);
+        }
+
+        @Override
+        public int removeAll(BucketedPriorityQueue.Filter<Runnable> filter, int priority) {
+            return mTasks.removeAll(filter, priority);
+        }
+
+        @Override
+        public int size() {
+            return mTasks.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return mTasks.isEmpty();
+        }
+
+        @Override
+        public void clear() {
+            mTasks.clear();
+        }
+
+    }
+
+    private static class AgingQueue extends StrictPriorityQueue {
+
+        private long mAgingInterval;
+
+        private AgingQueue(long agingInterval) {
+            mAgingInterval = agingInterval;
+        }
+
+        @Override
+        public Runnable poll() {
+            return mTasks.poll(System.nanoTime(), mAgingInterval, TrackedTask.ASSIGN_TIME);
+        }
+
+    }
+
+    private static class DequeQueue implements TaskQueue {
+
+        private final ArrayDeque<Runnable> mTasks = new ArrayDeque<>();
+
+        private AtomicInteger mSize = new AtomicInteger(0);
+
+        private boolean mIsLifo;
+
+        private DequeQueue(boolean lifo) {
+            mIsLifo = lifo;
+        }
+
+        @Override
+        public void offer(Runnable task, int priority) {
+            synchronized (mTasks) {
+                mTasks.offerLast(task);
+
+                mSize.incrementAndGet();
+            }
+        }
+
+        @Override
+        public void offerAll(Collection<? extends Runnable> tasks, int priority) {
+            synchronized (mTasks) {
+                mTasks.addAll(tasks);
+
+                mSize.addAndGet(tasks.size());
+            }
+        }
+
+        @Override
+        public Runnable poll() {
+            if (mSize.get() == 0) {
+                return null;
+            }
+
+            synchronized (mTasks) {
+                return onTaskPolled(mIsLifo ? mTasks.pollLast() : mTasks.pollFirst());
+            }
+        }
+
+        @Override
+        public Runnable pollLowest() {
+            if (mSize.get() == 0) {
+                return null;
+            }
+
+            synchronized (mTasks) {
+                return onTaskPolled(mIsLifo ? mTasks.pollFirst() : mTasks.pollLast());
+            }
+        }
+
+        @Override
+        public boolean remove(Object key, int priority) {
+            return remove(key);
+        }
+
+        @Override
+        public boolean remove(Object key) {
+            if (mSize.get() == 0) {
+                return false;
+            }
+
+            synchronized (mTasks) {
+                if (mTasks.removeFirstOccurrence(key)) {
+                    mSize.decrementAndGet();
+                    return true;
+                }
+
+                return false;
+            }
+        }
+
+        @Override
+        public int removeAll(BucketedPriorityQueue.Filter<Runnable> filter, int priority) {
+            if (mSize.get() == 0) {
+                return 0;
+            }
+
+            synchronized (mTasks) {
+                int removedCount = 0;
+
+                Iterator<Runnable> iterator = mTasks.iterator();
+
+                while (iterator.hasNext()) {
+                    if (filter.matches(iterator.next())) {
+                        iterator.remove();
+
+                        removedCount++;
+                    }
+                }
+
+                mSize.addAndGet(-removedCount);
+
+                return removedCount;
+            }
+        }
+
+        @Override
+        public int size() {
+            return mSize.get();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return mSize.get() == 0;
+        }
+
+        @Override
+        public void clear() {
+            synchronized (mTasks) {
+                mTasks.clear();
+
+                mSize.set(0);
+            }
+        }
+
+        private Runnable onTaskPolled(Runnable task) {
+            if (task != null) {
+                mSize.decrementAndGet();
+            }
+
+            return task;
+        }
+
+    }
+
+    private static class WeightedRoundRobinQueue implements TaskQueue {
+
+        private Weights mWeights;
+
+        private final PriorityLanes mLanes = new PriorityLanes();
+
+        private AtomicInteger mSize = new AtomicInteger(0);
+
+        // Guarded by mLanes.
+        private Integer mCurrentPriority = null;
+        private int mCredits = 0;
+
+        private WeightedRoundRobinQueue(Weights weights) {
+            mWeights = weights;
+        }
+
+        @Override
+        public void offer(Runnable task, int priority) {
+            synchronized (mLanes) {
+                mLanes.offer(task, priority);
+
+                mSize.incrementAndGet();
+            }
+        }
+
+        @Override
+        public void offerAll(Collection<? extends Runnable> tasks, int priority) {
+            synchronized (mLanes) {
+                mLanes.offerAll(tasks, priority);
+
+                mSize.addAndGet(tasks.size());
+            }
+        }
+
+        @Override
+        public Runnable poll() {
+            if (mSize.get() == 0) {
+                return null;
+            }
+
+            synchronized (mLanes) {
+                if (mLanes.isEmpty()) {
+                    return null;
+                }
+
+                if (mCurrentPriority == null || mCredits <= 0 || !mLanes.contains(mCurrentPriority)) {
+                    Integer priority = mCurrentPriority == null ? null : mLanes.lowerPriority(mCurrentPriority);
+
+                    if (priority == null) {
+                        // A new round.
+                        priority = mLanes.highestPriority();
+                    }
+
+                    mCurrentPriority = priority;
+                    mCredits = mWeights.getWeight(priority);
+                }
+
+                mCredits--;
+                mSize.decrementAndGet();
+
+                return mLanes.poll(mCurrentPriority);
+            }
+        }
+
+        @Override
+        public Runnable pollLowest() {
+            if (mSize.get() == 0) {
+                return null;
+            }
+
+            synchronized (mLanes) {
+                if (mLanes.isEmpty()) {
+                    return null;
+                }
+
+                mSize.decrementAndGet();
+
+                return mLanes.poll(mLanes.lowestPriority());
+            }
+        }
+
+        @Override
+        public boolean remove(Object key, int priority) {
+            if (mSize.get() == 0) {
+                return false;
+            }
+
+            synchronized (mLanes) {
+                return onTasksRemoved(mLanes.remove(key, priority) ? 1 : 0) > 0;
+            }
+        }
+
+        @Override
+        public boolean remove(Object key) {
+            if (mSize.get() == 0) {
+                return false;
+            }
+
+            synchronized (mLanes) {
+                return onTasksRemoved(mLanes.remove(key) ? 1 : 0) > 0;
+            }
+        }
+
+        @Override
+        public int removeAll(BucketedPriorityQueue.Filter<Runnable> filter, int priority) {
+            if (mSize.get() == 0) {
+                return 0;
+            }
+
+            synchronized (mLanes) {
+                return onTasksRemoved(mLanes.removeAll(filter, priority));
+            }
+        }
+
+        @Override
+        public int size() {
+            return mSize.get();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return mSize.get() == 0;
+        }
+
+        @Override
+        public void clear() {
+            synchronized (mLanes) {
+                mLanes.clear();
+
+                mSize.set(0);
+            }
+        }
+
+        private int onTasksRemoved(int count) {
+            mSize.addAndGet(-count);
+
+            return count;
+        }
+
+    }
+
+    /**
+     * Every owner has its own flow of tasks. Flows take turns and an owner's turn runs up to its
+     * weight of tasks, in the owner's priority order. A flow only exists while it has pending tasks,
+     * so the cost of a poll does not depend on the number of owners.
+     */
+    private static class FairShareQueue implements TaskQueue {
+
+        private static class Flow {
+
+            private Object mOwner;
+            private int mWeight;
+
+            private PriorityLanes mLanes = new PriorityLanes();
+
+            private Flow(Object owner) {
+                mOwner = owner;
+            }
+
+        }
+
+        private final HashMap<Object, Flow> mFlows = new HashMap<>();
+
+        // Guarded by mFlows. The flows waiting for their turn. The current flow is not in it.
+        private ArrayDeque<Flow> mWaitingFlows = new ArrayDeque<>();
+        private Flow mCurrentFlow = null;
+        private int mCredits = 0;
+
+        private AtomicInteger mSize = new AtomicInteger(0);
+
+        @Override
+        public void offer(Runnable task, int priority) {
+            synchronized (mFlows) {
+                getFlow(task).mLanes.offer(task, priority);
+
+                mSize.incrementAndGet();
+            }
+        }
+
+        @Override
+        public void offerAll(Collection<? extends Runnable> tasks, int priority) {
+            synchronized (mFlows) {
+                for (Runnable task: tasks) {
+                    getFlow(task).mLanes.offer(task, priority);
+                }
+
+                mSize.addAndGet(tasks.size());
+            }
+        }
+
+        @Override
+        public Runnable poll() {
+            if (mSize.get() == 0) {
+                return null;
+            }
+
+            synchronized (mFlows) {
+                if (mCurrentFlow == null || mCredits <= 0) {
+                    if (mCurrentFlow != null) {
+                        mWaitingFlows.addLast(mCurrentFlow);
+                    }
+
+                    mCurrentFlow = mWaitingFlows.pollFirst();
+
+                    if (mCurrentFlow == null) {
+                        return null;
+                    }
+
+                    mCredits = mCurrentFlow.mWeight;
+                }
+
+                Flow flow = mCurrentFlow;
+
+                Runnable task = flow.mLanes.poll(flow.mLanes.highestPriority());
+
+                mCredits--;
+
+                onTasksRemoved(flow, 1);
+
+                return task;
+            }
+        }
+
+        /**
+         * Takes from the flow with the most pending tasks, which is the one flooding the section.
+         */
+        @Override
+        public Runnable pollLowest() {
+            if (mSize.get() == 0) {
+                return null;
+            }
+
+            synchronized (mFlows) {
+                Flow largestFlow = null;
+
+                for (Flow flow: mFlows.values()) {
+                    if (largestFlow == null || flow.mLanes.size() > largestFlow.mLanes.size()) {
+                        largestFlow = flow;
+                    }
+                }
+
+                if (largestFlow == null) {
+                    return null;
+                }
+
+                Runnable task = largestFlow.mLanes.poll(largestFlow.mLanes.lowestPriority());
+
+                onTasksRemoved(largestFlow, 1);
+
+                return task;
+            }
+        }
+
+        @Override
+        public boolean remove(Object key, int priority) {
+            if (mSize.get() == 0) {
+                return false;
+            }
+
+            synchronized (mFlows) {
+                for (Flow flow: mFlows.values()) {
+                    if (flow.mLanes.remove(key, priority)) {
+                        onTasksRemoved(flow, 1);
+
+                        return true;
+                    }
+                }
+
+                return false;
+            }
+        }
+
+        @Override
+        public boolean remove(Object key) {
+            if (mSize.get() == 0) {
+                return false;
+            }
+
+            synchronized (mFlows) {
+                for (Flow flow: mFlows.values()) {
+                    if (flow.mLanes.remove(key)) {
+                        onTasksRemoved(flow, 1);
+
+                        return true;
+                    }
+                }
+
+                return false;
+            }
+        }
+
+        @Override
+        public int removeAll(BucketedPriorityQueue.Filter<Runnable> filter, int priority) {
+            if (mSize.get() == 0) {
+                return 0;
+            }
+
+            synchronized (mFlows) {
+                int removedCount = 0;
+
+                for (Flow flow: new ArrayList<>(mFlows.values())) {
+                    int count = flow.mLanes.removeAll(filter, priority);
+
+                    if (count > 0) {
+                        onTasksRemoved(flow, count);
+
+                        removedCount += count;
+                    }
+                }
+
+                return removedCount;
+            }
+        }
+
+        @Override
+        public int size() {
+            return mSize.get();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return mSize.get() == 0;
+        }
+
+        @Override
+        public void clear() {
+            synchronized (mFlows) {
+                mFlows.clear();
+                mWaitingFlows.clear();
+                mCurrentFlow = null;
+
+                mSize.set(0);
+            }
+        }
+
+        private Flow getFlow(Runnable task) {
+            Object owner = null;
+            int weight = 1;
+
+            Runnable ownedTask = task instanceof TrackedTask ? ((TrackedTask) task).getTask() : task;
+
+            if (ownedTask instanceof FairShareTask) {
+                owner = ((FairShareTask) ownedTask).getFairShareOwner();
+                weight = ((FairShareTask) ownedTask).getFairShareWeight();
+            }
+
+            Flow flow = mFlows.get(owner);
+
+            if (flow == null) {
+                flow = new Flow(owner);
+
+                mFlows.put(owner, flow);
+                mWaitingFlows.addLast(flow);
+            }
+
+            flow.mWeight = Math.max(1, weight);
+
+            return flow;
+        }
+
+        private void onTasksRemoved(Flow flow, int count) {
+            mSize.addAndGet(-count);
+
+            if (!flow.mLanes.isEmpty()) {
+                return;
+            }
+
+            mFlows.remove(flow.mOwner);
+
+            if (flow == mCurrentFlow) {
+                mCurrentFlow = null;
+            }
+            else {
+                mWaitingFlows.remove(flow);
+            }
+        }
+
+    }
+
+    /**
+     * Tasks by priority, FIFO within a priority. Not thread safe.
+     */
+    private static class PriorityLanes {
+
+        private TreeMap<Integer, ArrayDeque<Runnable>> mLanes = new TreeMap<>();
+        private int mSize = 0;
+
+        void offer(Runnable task, int priority) {
+            getLane(priority).offer(task);
+
+            mSize++;
+        }
+
+        void offerAll(Collection<? extends Runnable> tasks, int priority) {
+            getLane(priority).addAll(tasks);
+
+            mSize += tasks.size();
+        }
+
+        boolean contains(int priority) {
+            return mLanes.containsKey(priority);
+        }
+
+        /**
+         *
+         * @return null if empty.
+         */
+        Integer highestPriority() {
+            return mLanes.isEmpty() ? null : mLanes.lastKey();
+        }
+
+        /**
+         *
+         * @return null if empty.
+         */
+        Integer lowestPriority() {
+            return mLanes.isEmpty() ? null : mLanes.firstKey();
+        }
+
+        /**
+         *
+         * @return the highest pending priority below the given one or null.
+         */
+        Integer lowerPriority(int priority) {
+            return mLanes.lowerKey(priority);
+        }
+
+        /**
+         *
+         * @param priority A pending priority.
+         */
+        Runnable poll(int priority) {
+            ArrayDeque<Runnable> lane = mLanes.get(priority);
+
+            Runnable task = lane.poll();
+
+            mSize--;
+
+            removeIfEmpty(priority, lane);
+
+            return task;
+        }
+
+        boolean remove(Object key, int priority) {
+            ArrayDeque<Runnable> lane = mLanes.get(priority);
+
+            if (lane != null && lane.remove(key)) {
+                mSize--;
+
+                removeIfEmpty(priority, lane);
+
+                return true;
+            }
+
+            return false;
+        }
+
+        boolean remove(Object key) {
+            for (Map.Entry<Integer, ArrayDeque<Runnable>> entry: mLanes.entrySet()) {
+                if (entry.getValue().remove(key)) {
+                    mSize--;
+
+                    removeIfEmpty(entry.getKey(), entry.getValue());
+
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        int removeAll(BucketedPriorityQueue.Filter<Runnable> filter, int priority) {
+            ArrayDeque<Runnable> lane = mLanes.get(priority);
+
+            if (lane == null) {
+                return 0;
+            }
+
+            int removedCount = 0;
+
+            Iterator<Runnable> iterator = lane.iterator();
+
+            while (iterator.hasNext()) {
+                if (filter.matches(iterator.next())) {
+                    iterator.remove();
+
+                    removedCount++;
+                }
+            }
+
+            mSize -= removedCount;
+
+            removeIfEmpty(priority, lane);
+
+            return removedCount;
+        }
+
+        int size() {
+            return mSize;
+        }
+
+        boolean isEmpty() {
+            return mLanes.isEmpty();
+        }
+
+        void clear() {
+            mLanes.clear();
+
+            mSize = 0;
+        }
+
+        private ArrayDeque<Runnable> getLane(int priority) {
+            ArrayDeque<Runnable> lane = mLanes.get(priority);
+
+            if (lane == null) {
+                lane = new ArrayDeque<>();
+                mLanes.put(priority, lane);
+            }
+
+            return lane;
+        }
+
+        private void removeIfEmpty(int priority, ArrayDeque<Runnable> lane) {
+            if (lane.isEmpty()) {
+                mLanes.remove(priority);
+            }
+        }
+
+    }
+
+}
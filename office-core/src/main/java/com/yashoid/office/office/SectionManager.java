@@ -0,0 +1,1131 @@
+package com.yashoid.office.office;
+
+import com.yashoid.office.employee.Employee;
+import com.yashoid.office.employee.EmployeeBackend;
+import com.yashoid.office.employee.EmployeeManager;
+import com.yashoid.office.util.BucketedPriorityQueue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Created by Yashar on 4/14/2017.
+ */
+
+public class SectionManager {
+
+    private static final long HELP_WAIT_TIME = 10;
+
+    private String mName;
+
+    private EmployeeManager mEmployeeManager;
+
+    private SchedulingPolicy mSchedulingPolicy = SchedulingPolicy.STRICT_PRIORITY;
+    private SchedulingPolicy.TaskQueue mPendingTasks = mSchedulingPolicy.newTaskQueue();
+
+    // Only set on sections with deadline scheduling.
+    private DeadlineTaskQueue mDeadlineTasks = null;
+    private int mExpiredTaskPolicy;
+    private Office.SectionDescription.OnTaskExpiredListener mOnTaskExpiredListener;
+
+    // Zero for an unbounded section.
+    private int mCapacity = 0;
+    private int mOverflowPolicy;
+    private long mBlockTimeout;
+    private Office.SectionDescription.OnTaskRejectedListener mOnTaskRejectedListener;
+
+    // Only set on sections with load shedding.
+    private OverloadController mOverloadController = null;
+    private Office.SectionDescription.OnTaskShedListener mOnTaskShedListener;
+
+    // Only set on rate limited sections.
+    private RateLimiter mRateLimiter = null;
+    private TaskTimer mTimer;
+    private AtomicBoolean mIsWaitingForPermit = new AtomicBoolean(false);
+
+    // Only set on sections with keyed concurrency limits.
+    private KeyLimiter mKeyLimiter = null;
+
+    private final Object mCapacityLock = new Object();
+    private AtomicInteger mBlockedSubmitterCount = new AtomicInteger(0);
+
+    private AtomicBoolean mIsWaitingForFreeEmployee = new AtomicBoolean(false);
+
+    // Threads of this section that run its pending tasks while they wait for another task.
+    private final Object mHelpLock = new Object();
+    private AtomicInteger mHelpingWaiterCount = new AtomicInteger(0);
+    private long mHelpSignal = 0;
+
+    private CopyOnWriteArrayList<Lender> mLenders = new CopyOnWriteArrayList<>();
+    private AtomicInteger mBorrowedEmployeeCount = new AtomicInteger(0);
+    private AtomicInteger mLentEmployeeCount = new AtomicInteger(0);
+    private AtomicLong mBorrowedTaskCount = new AtomicLong(0);
+
+    private SectionStatsRecorder mStats = new SectionStatsRecorder();
+
+    protected SectionManager(EmployeeBackend.Factory backendFactory, String name, int employeeCount) {
+        this(backendFactory, name, employeeCount, employeeCount, 0);
+    }
+
+    protected SectionManager(EmployeeBackend.Factory backendFactory, String name,
+                             int coreEmployeeCount, int maxEmployeeCount, long keepAliveTime) {
+        mName = name;
+
+        mEmployeeManager = new EmployeeManager(backendFactory, name, coreEmployeeCount, maxEmployeeCount, keepAliveTime);
+    }
+
+    protected void assignTask(Runnable task, int priority) {
+        task = track(task, priority);
+
+        Employee employee = findEmployeeForNewTask();
+
+        if (employee != null) {
+            employee.assignTask(task);
+            return;
+        }
+
+        mPendingTasks.offer(task, priority);
+
+        onTasksQueued();
+    }
+
+    /**
+     * Hands the first tasks to as many free employees as there are, hiring up to the maximum, and
+     * queues the rest in one step.
+     */
+    protected void assignTasks(Collection<? extends Runnable> tasks, int priority) {
+        if (tasks.isEmpty()) {
+            return;
+        }
+
+        ArrayList<Runnable> trackedTasks = new ArrayList<>(tasks.size());
+
+        for (Runnable task: tasks) {
+            trackedTasks.add(track(task, priority));
+        }
+
+        ArrayList<Employee> employees = new ArrayList<>();
+
+        // Tasks of a rate limited section all go through the queue.
+        int employeeCount = mRateLimiter == null ?
+                mEmployeeManager.takeOrHireFreeEmployees(trackedTasks.size(), employees) : 0;
+
+        for (int i = 0; i < employeeCount; i++) {
+            employees.get(i).assignTask(trackedTasks.get(i));
+        }
+
+        if (employeeCount == trackedTasks.size()) {
+            return;
+        }
+
+        mPendingTasks.offerAll(trackedTasks.subList(employeeCount, trackedTasks.size()), priority);
+
+        onTasksQueued();
+    }
+
+    /**
+     * Runs the task ahead of the tasks without a deadline and of the ones with a later deadline.
+     *
+     * @param task
+     * @param deadline The System.nanoTime() by which the task should be done.
+     */
+    protected void assignTaskWithDeadline(Runnable task, long deadline) {
+        if (mDeadlineTasks == null) {
+            throw new IllegalStateException("Section '" + mName + "' does not have deadline scheduling.");
+        }
+
+        DeadlineTaskQueue.DeadlineTask deadlineTask = new DeadlineTaskQueue.DeadlineTask(track(task, 0), deadline, mStats);
+
+        Employee employee = findEmployeeForNewTask();
+
+        if (employee != null) {
+            employee.assignTask(deadlineTask);
+            return;
+        }
+
+        mDeadlineTasks.offer(deadlineTask);
+
+        onTasksQueued();
+    }
+
+    protected void assignTaskAndWait(Runnable task, int priority) {
+        Employee employee = findEmployeeForNewTask();
+
+        boolean canHelp = getCurrentSection() != null;
+
+        if (employee != null && !canHelp) {
+            employee.assignTaskAndWait(track(task, priority));
+            return;
+        }
+
+        Object lock = newWaitLock();
+        final boolean[] done = { false };
+
+        Runnable waitingTask = newWaitingTask(task, lock, done);
+
+        if (employee != null) {
+            employee.assignTask(track(waitingTask, priority));
+        }
+        else {
+            mPendingTasks.offer(track(waitingTask, priority), priority);
+
+            onTasksQueued();
+        }
+
+        waitForTask(lock, done);
+    }
+
+    /**
+     *
+     * @param task
+     * @param priority
+     * @return true if the task has truly canceled.
+     */
+    protected boolean cancelTask(Runnable task, int priority) {
+        Object key = lookupKey(task);
+
+        return onCancelTask(mPendingTasks.remove(key, priority) || (mDeadlineTasks != null && mDeadlineTasks.remove(key))
+                || removeParkedTask(key));
+    }
+
+    /**
+     *
+     * @param task
+     * @return true if the task has truly canceled.
+     */
+    protected boolean cancelTask(Runnable task) {
+        Object key = lookupKey(task);
+
+        return onCancelTask(mPendingTasks.remove(key) || (mDeadlineTasks != null && mDeadlineTasks.remove(key))
+                || removeParkedTask(key));
+    }
+
+    /**
+     *
+     * @param tasks
+     * @param priority
+     * @return the number of tasks that have truly canceled.
+     */
+    protected int cancelTasks(Collection<? extends Runnable> tasks, int priority) {
+        if (tasks.isEmpty()) {
+            return 0;
+        }
+
+        BucketedPriorityQueue.Filter<Runnable> filter = lookupFilter(tasks);
+
+        int canceledCount = mPendingTasks.removeAll(filter, priority);
+
+        if (mDeadlineTasks != null) {
+            canceledCount += mDeadlineTasks.removeAll(filter);
+        }
+
+        canceledCount += removeParkedTasks(filter);
+
+        return onCancelTasks(canceledCount);
+    }
+
+    /**
+     *
+     * @return the next pending task that a thread of this section may run while it waits for
+     * another task, or null.
+     */
+    protected Runnable pollPendingTask() {
+        return pollTask();
+    }
+
+    /**
+     *
+     * @return the section whose task is running on the current thread or null.
+     */
+    protected static SectionManager getCurrentSection() {
+        return TrackedTask.getCurrentSection();
+    }
+
+    protected static Runnable newWaitingTask(Runnable task, Object lock, boolean[] done) {
+        return new WaitingTask(task, lock, done);
+    }
+
+    /**
+     *
+     * @return the lock to pass to newWaitingTask() and waitForTask(). A thread of a section gets its
+     * section's help lock, so it wakes up both when the awaited task is done and when there are new
+     * tasks to help with.
+     */
+    protected static Object newWaitLock() {
+        SectionManager currentSection = getCurrentSection();
+
+        return currentSection == null ? new Object() : currentSection.mHelpLock;
+    }
+
+    /**
+     * Blocks until the waiting task is done. A thread that is running a task of a section does not
+     * block. It runs the pending tasks of its own section in the mean time, which include the
+     * awaited task when it waits on its own section. So a section never waits on itself and
+     * sections waiting on each other keep making progress.
+     *
+     * The helped tasks run nested on the waiting thread's stack. Any monitor the waiting task holds
+     * is held while they run, and being re-entrant it does not keep them out. So a task should not
+     * wait while holding a lock that other tasks of its section use.
+     *
+     * @param lock The lock from newWaitLock().
+     */
+    protected void waitForTask(Object lock, boolean[] done) {
+        SectionManager currentSection = getCurrentSection();
+
+        if (currentSection == null) {
+            synchronized (lock) {
+                while (!done[0] && !mEmployeeManager.areEmployeesRelieved()) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) { }
+                }
+            }
+
+            return;
+        }
+
+        currentSection.helpUntilDone(done, this);
+    }
+
+    private void helpUntilDone(boolean[] done, SectionManager awaitedSection) {
+        mHelpingWaiterCount.incrementAndGet();
+
+        try {
+            long signal;
+
+            synchronized (mHelpLock) {
+                signal = mHelpSignal;
+            }
+
+            while (true) {
+                Runnable pendingTask = pollPendingTask();
+
+                if (pendingTask != null) {
+                    pendingTask.run();
+                    continue;
+                }
+
+                synchronized (mHelpLock) {
+                    if (done[0] || awaitedSection.mEmployeeManager.areEmployeesRelieved()) {
+                        return;
+                    }
+
+                    if (signal == mHelpSignal) {
+                        try {
+                            mHelpLock.wait();
+                        } catch (InterruptedException e) { }
+                    }
+
+                    signal = mHelpSignal;
+                }
+            }
+        } finally {
+            mHelpingWaiterCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * Wakes up the section's threads that help while waiting, so they look for tasks again. Called
+     * whenever tasks may have become available to them.
+     */
+    protected void wakeHelpingWaiters() {
+        if (mHelpingWaiterCount.get() > 0) {
+            synchronized (mHelpLock) {
+                mHelpSignal++;
+
+                mHelpLock.notifyAll();
+            }
+        }
+    }
+
+    protected void close() {
+        mEmployeeManager.relieveEmployees();
+
+        wakeHelpingWaiters();
+
+        mPendingTasks.clear();
+
+        if (mDeadlineTasks != null) {
+            mDeadlineTasks.clear();
+        }
+
+        if (mKeyLimiter != null) {
+            mKeyLimiter.clear();
+        }
+    }
+
+    protected boolean supportsBorrowing() {
+        return true;
+    }
+
+    protected SectionStats getStats() {
+        int parkedTaskCount = mKeyLimiter == null ? 0 : mKeyLimiter.getParkedTaskCount();
+
+        return mStats.snapshot(mName, getPendingTaskCount() + parkedTaskCount, getBorrowedEmployeeCount(), getLentEmployeeCount(),
+                getBorrowedTaskCount());
+    }
+
+    protected int getPendingTaskCount() {
+        return mDeadlineTasks == null ? mPendingTasks.size() : mPendingTasks.size() + mDeadlineTasks.size();
+    }
+
+    /**
+     * Must be called before any task is assigned. Sections with their own queues override this to
+     * create them from the policy.
+     */
+    protected void setSchedulingPolicy(SchedulingPolicy schedulingPolicy) {
+        mSchedulingPolicy = schedulingPolicy;
+        mPendingTasks = schedulingPolicy.newTaskQueue();
+    }
+
+    protected SchedulingPolicy getSchedulingPolicy() {
+        return mSchedulingPolicy;
+    }
+
+    protected void setCapacity(int capacity, int overflowPolicy, long blockTimeout,
+                               Office.SectionDescription.OnTaskRejectedListener listener) {
+        mCapacity = capacity;
+        mOverflowPolicy = overflowPolicy;
+        mBlockTimeout = blockTimeout;
+        mOnTaskRejectedListener = listener;
+    }
+
+    /**
+     * Applies the section's overflow policy when it is full.
+     *
+     * @return true if the task can be assigned. Otherwise it has already run or has been rejected.
+     * @throws SectionOverflowException if the section is full and rejects the task.
+     */
+    protected boolean admitTask(Runnable task, int priority) {
+        if (mOverloadController != null) {
+            if (mOverloadController.onTaskAssigned(priority)) {
+                onOverloadWindowEnded();
+            }
+
+            if (mOverloadController.shouldShed(priority)) {
+                onTaskShed(task, priority);
+                return false;
+            }
+        }
+
+        if (mCapacity == 0 || getPendingTaskCount() < mCapacity) {
+            return true;
+        }
+
+        switch (mOverflowPolicy) {
+            case Office.SectionDescription.OVERFLOW_BLOCK:
+                if (getCurrentSection() == this) {
+                    // Waiting for room in our own queue could dead lock.
+                    track(task, priority).run();
+                    return false;
+                }
+
+                if (TaskTimer.isTimerThread()) {
+                    throw new SectionOverflowException("Section '" + mName + "' is full.");
+                }
+
+                if (waitForCapacity()) {
+                    return true;
+                }
+
+                throw new SectionOverflowException("Section '" + mName + "' stayed full for " + mBlockTimeout + "ms.");
+            case Office.SectionDescription.OVERFLOW_REJECT:
+                throw new SectionOverflowException("Section '" + mName + "' is full.");
+            case Office.SectionDescription.OVERFLOW_CALLBACK:
+                onTaskRejected(task);
+                return false;
+            case Office.SectionDescription.OVERFLOW_CALLER_RUNS:
+                track(task, priority).run();
+                return false;
+            default:
+                Runnable droppedTask = removePendingTask(mOverflowPolicy == Office.SectionDescription.OVERFLOW_DROP_LOWEST);
+
+                if (droppedTask == null) {
+                    // Nothing to make room with. The new task is the one dropped.
+                    onTaskRejected(task);
+                    return false;
+                }
+
+                mStats.onTaskCanceled();
+
+                onTaskRejected(droppedTask instanceof TrackedTask ? ((TrackedTask) droppedTask).getTask() : droppedTask);
+
+                onPendingTaskDropped(droppedTask);
+
+                return true;
+        }
+    }
+
+    /**
+     * The bulk counterpart of admitTask. It never blocks or drops. An OVERFLOW_REJECT section
+     * rejects all the tasks if they do not all fit.
+     *
+     * @return the number of leading tasks that fit. The rest should go through admitTask.
+     */
+    protected int admitTasks(Collection<? extends Runnable> tasks, int priority) {
+        if (mOverloadController != null) {
+            if (mOverloadController.onTaskAssigned(priority)) {
+                onOverloadWindowEnded();
+            }
+
+            if (mOverloadController.shouldShed(priority)) {
+                return 0;
+            }
+        }
+
+        if (mCapacity == 0) {
+            return tasks.size();
+        }
+
+        int room = Math.max(0, mCapacity - getPendingTaskCount());
+
+        if (room >= tasks.size()) {
+            return tasks.size();
+        }
+
+        if (mOverflowPolicy == Office.SectionDescription.OVERFLOW_REJECT) {
+            throw new SectionOverflowException("Section '" + mName + "' does not have room for " + tasks.size() + " tasks.");
+        }
+
+        return room;
+    }
+
+    /**
+     * Takes a pending task out to make room in a full section.
+     *
+     * @param lowestPriority Whether to take a task of the lowest priority or the one next in line.
+     * @return null if there is no pending task to take.
+     */
+    protected Runnable removePendingTask(boolean lowestPriority) {
+        return lowestPriority ? mPendingTasks.pollLowest() : mPendingTasks.poll();
+    }
+
+    /**
+     * Puts back a task that removePendingTask() took but that should still run.
+     */
+    protected void restorePendingTask(Runnable task, int priority) {
+        mPendingTasks.offer(task, priority);
+    }
+
+    protected void setLoadShedding(long waitThreshold, int protectedPriority,
+                                   Office.SectionDescription.OnTaskShedListener listener) {
+        mOverloadController = new OverloadController(waitThreshold, protectedPriority);
+        mOnTaskShedListener = listener;
+    }
+
+    void setRateLimit(double tasksPerSecond, int burst, TaskTimer timer) {
+        mRateLimiter = new RateLimiter(tasksPerSecond, burst);
+        mTimer = timer;
+    }
+
+    /**
+     * Takes a token of the section's rate limit for a pending task that is about to start.
+     *
+     * @return false if there is no token yet. The timer calls dispatchPendingTasks() when there is
+     * one.
+     */
+    protected boolean acquirePermit() {
+        if (mRateLimiter == null) {
+            return true;
+        }
+
+        long waitTime = mRateLimiter.tryAcquire();
+
+        if (waitTime == 0) {
+            return true;
+        }
+
+        // One timer action is enough. It dispatches as many tasks as there are tokens.
+        if (mIsWaitingForPermit.compareAndSet(false, true)) {
+            mTimer.schedule(mOnPermitAvailableAction, System.nanoTime() + waitTime);
+        }
+
+        return false;
+    }
+
+    /**
+     * Gives back a token that acquirePermit() took when no task was taken after all.
+     */
+    protected void releasePermit() {
+        if (mRateLimiter != null) {
+            mRateLimiter.release();
+        }
+    }
+
+    void setConcurrencyPerKey(int maxConcurrency) {
+        mKeyLimiter = new KeyLimiter(maxConcurrency);
+    }
+
+    /**
+     * Runs the task once fewer than the section's limit of tasks with the same key are running.
+     */
+    protected void assignKeyedTask(Object key, Runnable task, int priority) {
+        if (mKeyLimiter == null) {
+            throw new IllegalStateException("Section '" + mName + "' does not have keyed concurrency limits.");
+        }
+
+        assignTask(new KeyLimiter.KeyedTask(key, task), priority);
+    }
+
+    /**
+     *
+     * @return true if the task can start. Otherwise it is parked until a task of its key finishes.
+     */
+    boolean tryStartKeyedTask(TrackedTask task) {
+        return mKeyLimiter.tryStart(task);
+    }
+
+    void onKeyedTaskFinished(Object key) {
+        TrackedTask parkedTask = mKeyLimiter.onTaskFinished(key);
+
+        if (parkedTask != null) {
+            parkedTask.onKeySlotReceived();
+
+            restorePendingTask(parkedTask, parkedTask.getPriority());
+
+            dispatchPendingTasks();
+        }
+    }
+
+    /**
+     *
+     * @return true if a parked task of a keyed section equal to the lookup key was removed.
+     */
+    protected boolean removeParkedTask(Object key) {
+        return mKeyLimiter != null && mKeyLimiter.remove(key);
+    }
+
+    protected int removeParkedTasks(BucketedPriorityQueue.Filter<Runnable> filter) {
+        return mKeyLimiter == null ? 0 : mKeyLimiter.removeAll(filter);
+    }
+
+    /**
+     * Takes the next task of the queue. Pending tasks that the section sheds under overload are
+     * dropped on the way. Tasks whose key is saturated are parked on the way, so they neither take
+     * a worker nor a token of the rate limit.
+     */
+    protected Runnable pollQueue(SchedulingPolicy.TaskQueue queue) {
+        while (true) {
+            Runnable task = queue.poll();
+
+            if (!(task instanceof TrackedTask)) {
+                return task;
+            }
+
+            TrackedTask trackedTask = (TrackedTask) task;
+
+            if (mOverloadController != null && mOverloadController.shouldShed(trackedTask.getPriority())) {
+                mStats.onTaskCanceled();
+
+                onTaskShed(trackedTask.getTask(), trackedTask.getPriority());
+
+                onPendingTaskDropped(trackedTask);
+                continue;
+            }
+
+            if (trackedTask.tryTakeKeySlot()) {
+                return trackedTask;
+            }
+        }
+    }
+
+    /**
+     * Called for a pending task that leaves the section without running. A task that was handed
+     * the slot of its key passes it on.
+     */
+    private void onPendingTaskDropped(Runnable task) {
+        if (task instanceof TrackedTask && ((TrackedTask) task).holdsKeySlot()) {
+            onKeyedTaskFinished(((TrackedTask) task).getKey());
+        }
+    }
+
+    /**
+     * Called when a task of the section starts, which means it has left the queue.
+     */
+    void onTaskStarted(long waitTime) {
+        if (mOverloadController != null && mOverloadController.onTaskStarted(waitTime)) {
+            onOverloadWindowEnded();
+        }
+
+        if (mBlockedSubmitterCount.get() > 0) {
+            synchronized (mCapacityLock) {
+                mCapacityLock.notifyAll();
+            }
+        }
+    }
+
+    protected void setDeadlineScheduling(int expiredTaskPolicy, Office.SectionDescription.OnTaskExpiredListener listener) {
+        mDeadlineTasks = new DeadlineTaskQueue();
+        mExpiredTaskPolicy = expiredTaskPolicy;
+        mOnTaskExpiredListener = listener;
+    }
+
+    /**
+     * Wraps the task to record its wait and run time in the section's stats. Every assigned task
+     * goes through here once.
+     */
+    protected Runnable track(Runnable task, int priority) {
+        mStats.onTaskSubmitted();
+
+        return TrackedTask.obtain(this, mStats, task, priority);
+    }
+
+    /**
+     * Queues hold tracked tasks. Pass the result of this method to their remove methods.
+     */
+    protected Object lookupKey(Runnable task) {
+        return TrackedTask.lookupKey(task);
+    }
+
+    /**
+     * The bulk counterpart of lookupKey.
+     */
+    protected BucketedPriorityQueue.Filter<Runnable> lookupFilter(Collection<? extends Runnable> tasks) {
+        return TrackedTask.lookupFilter(tasks);
+    }
+
+    protected int onCancelTasks(int canceledCount) {
+        if (canceledCount > 0) {
+            mStats.onTasksCanceled(canceledCount);
+        }
+
+        return canceledCount;
+    }
+
+    protected boolean onCancelTask(boolean canceled) {
+        if (canceled) {
+            mStats.onTaskCanceled();
+        }
+
+        return canceled;
+    }
+
+    protected void addLender(SectionManager lender, BorrowingRule rule) {
+        mLenders.add(new Lender(lender, rule));
+    }
+
+    protected int getBorrowedEmployeeCount() {
+        return mBorrowedEmployeeCount.get();
+    }
+
+    protected int getLentEmployeeCount() {
+        return mLentEmployeeCount.get();
+    }
+
+    protected long getBorrowedTaskCount() {
+        return mBorrowedTaskCount.get();
+    }
+
+    /**
+     *
+     * @return a free employee that can run another section's task or null if this section has
+     * pending tasks of its own or no free employees. It must be assigned a task or given back
+     * through returnEmployee().
+     */
+    private Employee takeEmployeeToLend() {
+        if (hasPendingTasks()) {
+            return null;
+        }
+
+        return mEmployeeManager.takeFreeEmployee();
+    }
+
+    /**
+     *
+     * @return false if the block timeout passed or the thread was interrupted.
+     */
+    private boolean waitForCapacity() {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(mBlockTimeout);
+
+        mBlockedSubmitterCount.incrementAndGet();
+
+        try {
+            synchronized (mCapacityLock) {
+                while (getPendingTaskCount() >= mCapacity && !mEmployeeManager.areEmployeesRelieved()) {
+                    // Canceled tasks also make room, so check again every now and then.
+                    long waitTime = HELP_WAIT_TIME;
+
+                    if (mBlockTimeout > 0) {
+                        long remainingTime = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+
+                        if (remainingTime <= 0) {
+                            return false;
+                        }
+
+                        waitTime = Math.min(waitTime, remainingTime);
+                    }
+
+                    try {
+                        mCapacityLock.wait(waitTime);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return false;
+                    }
+                }
+
+                return true;
+            }
+        } finally {
+            mBlockedSubmitterCount.decrementAndGet();
+        }
+    }
+
+    private void onOverloadWindowEnded() {
+        if (mOverloadController.onWindowEnded(getPendingTaskCount())) {
+            shedPendingTasks();
+        }
+    }
+
+    /**
+     * Sheds the pending tasks below the cutoff, lowest priority first. It stops at the first task
+     * that may stay, so the ones the scheduling policy does not order by priority are left to
+     * pollQueue().
+     */
+    private void shedPendingTasks() {
+        while (true) {
+            Runnable task = removePendingTask(true);
+
+            if (task == null) {
+                return;
+            }
+
+            // Pending tasks are always tracked.
+            int priority = ((TrackedTask) task).getPriority();
+
+            if (!mOverloadController.shouldShed(priority)) {
+                restorePendingTask(task, priority);
+                return;
+            }
+
+            mStats.onTaskCanceled();
+
+            onTaskShed(((TrackedTask) task).getTask(), priority);
+
+            onPendingTaskDropped(task);
+        }
+    }
+
+    private void onTaskShed(Runnable task, int priority) {
+        mStats.onTaskShed();
+
+        mOverloadController.onTaskShed();
+
+        if (mOnTaskShedListener != null) {
+            mOnTaskShedListener.onTaskShed(mName, task, priority);
+        }
+
+        notifyRejectedTask(task);
+    }
+
+    private void onTaskRejected(Runnable task) {
+        if (mOnTaskRejectedListener != null) {
+            mOnTaskRejectedListener.onTaskRejected(mName, task);
+        }
+
+        notifyRejectedTask(task);
+    }
+
+    private void notifyRejectedTask(Runnable task) {
+        if (task instanceof Office.SectionDescription.OnTaskRejectedListener) {
+            ((Office.SectionDescription.OnTaskRejectedListener) task).onTaskRejected(mName, task);
+        }
+    }
+
+    private void borrowEmployees() {
+        for (Lender lender: mLenders) {
+            lender.borrowEmployees();
+        }
+    }
+
+    /**
+     *
+     * @return an employee to hand a new task to directly or null if it must be queued. Tasks of a
+     * rate limited section are always queued.
+     */
+    private Employee findEmployeeForNewTask() {
+        return mRateLimiter == null ? takeOrHireFreeEmployee() : null;
+    }
+
+    private void onTasksQueued() {
+        wakeHelpingWaiters();
+
+        if (mRateLimiter != null) {
+            // Takes care of waiting for employees too.
+            dispatchPendingTasks();
+            return;
+        }
+
+        waitForFreeEmployee();
+
+        borrowEmployees();
+    }
+
+    /**
+     * The employee is taken off the free ones, so it must be assigned a task or given back through
+     * returnEmployee().
+     */
+    private Employee takeOrHireFreeEmployee() {
+        return mEmployeeManager.takeOrHireFreeEmployee();
+    }
+
+    private void waitForFreeEmployee() {
+        // A single registration is enough. The listener keeps dispatching while there are free
+        // employees and registers itself again if tasks are still pending.
+        if (mIsWaitingForFreeEmployee.compareAndSet(false, true)) {
+            mEmployeeManager.notifyWhenFreeEmployeeIsAvailable(mOnFreeEmployeeAvailableListener);
+        }
+    }
+
+    private boolean hasPendingTasks() {
+        return !mPendingTasks.isEmpty() || (mDeadlineTasks != null && !mDeadlineTasks.isEmpty());
+    }
+
+    /**
+     * Only takes a task if the section's rate limit allows it.
+     */
+    private Runnable pollTask() {
+        if (mRateLimiter == null) {
+            return takeTask();
+        }
+
+        if (!hasPendingTasks() || !acquirePermit()) {
+            return null;
+        }
+
+        Runnable task = takeTask();
+
+        if (task == null) {
+            releasePermit();
+        }
+
+        return task;
+    }
+
+    /**
+     * Deadline tasks go first, earliest deadline first. Expired ones are counted as missed and
+     * handled by the section's expired task policy.
+     */
+    private Runnable takeTask() {
+        if (mDeadlineTasks != null) {
+            DeadlineTaskQueue.DeadlineTask task;
+
+            while ((task = mDeadlineTasks.poll()) != null) {
+                if (!task.isExpired(System.nanoTime())) {
+                    return task;
+                }
+
+                task.onDeadlineMissed();
+
+                if (mExpiredTaskPolicy == Office.SectionDescription.EXPIRED_TASK_RUN) {
+                    return task;
+                }
+
+                mStats.onTaskCanceled();
+
+                if (mExpiredTaskPolicy == Office.SectionDescription.EXPIRED_TASK_CALLBACK) {
+                    mOnTaskExpiredListener.onTaskExpired(mName, ((TrackedTask) task.getTask()).getTask());
+                }
+            }
+        }
+
+        return pollQueue(mPendingTasks);
+    }
+
+    /**
+     * Hands pending tasks to free workers. Also called by the timer's actions, so it must not block.
+     */
+    protected void dispatchPendingTasks() {
+        wakeHelpingWaiters();
+
+        while (hasPendingTasks()) {
+            Employee employee = takeOrHireFreeEmployee();
+
+            if (employee == null) {
+                waitForFreeEmployee();
+
+                borrowEmployees();
+                return;
+            }
+
+            Runnable task = pollTask();
+
+            if (task == null) {
+                mEmployeeManager.returnEmployee(employee);
+                return;
+            }
+
+            employee.assignTask(task);
+        }
+    }
+
+    private Runnable mOnPermitAvailableAction = new Runnable() {
+
+        @Override
+        public void run() {
+            mIsWaitingForPermit.set(false);
+
+            dispatchPendingTasks();
+        }
+
+    };
+
+    private EmployeeManager.OnFreeEmployeeAvailableListener mOnFreeEmployeeAvailableListener =
+            new EmployeeManager.OnFreeEmployeeAvailableListener() {
+
+        @Override
+        public void onFreeEmployeeAvailable() {
+            mIsWaitingForFreeEmployee.set(false);
+
+            dispatchPendingTasks();
+        }
+
+    };
+
+    private class Lender implements EmployeeManager.OnFreeEmployeeAvailableListener {
+
+        private SectionManager mSection;
+        private BorrowingRule mRule;
+
+        private AtomicInteger mBorrowedEmployeeCount = new AtomicInteger(0);
+        private AtomicBoolean mIsWaitingForFreeEmployee = new AtomicBoolean(false);
+
+        private Lender(SectionManager section, BorrowingRule rule) {
+            mSection = section;
+            mRule = rule;
+        }
+
+        private void borrowEmployees() {
+            while (getPendingTaskCount() > mRule.pendingTasksThreshold) {
+                int borrowedEmployeeCount = mBorrowedEmployeeCount.get();
+
+                if (borrowedEmployeeCount >= mRule.maxEmployees) {
+                    return;
+                }
+
+                if (mSection.hasPendingTasks()) {
+                    // The lender needs its employees. We will try again when one of our tasks finishes.
+                    return;
+                }
+
+                if (!mBorrowedEmployeeCount.compareAndSet(borrowedEmployeeCount, borrowedEmployeeCount + 1)) {
+                    continue;
+                }
+
+                Employee employee = mSection.takeEmployeeToLend();
+
+                if (employee == null) {
+                    mBorrowedEmployeeCount.decrementAndGet();
+
+                    if (mIsWaitingForFreeEmployee.compareAndSet(false, true)) {
+                        mSection.mEmployeeManager.notifyWhenFreeEmployeeIsAvailable(this);
+                    }
+
+                    return;
+                }
+
+                Runnable task = pollTask();
+
+                if (task == null) {
+                    mBorrowedEmployeeCount.decrementAndGet();
+
+                    mSection.mEmployeeManager.returnEmployee(employee);
+                    return;
+                }
+
+                SectionManager.this.mBorrowedEmployeeCount.incrementAndGet();
+                mSection.mLentEmployeeCount.incrementAndGet();
+
+                employee.assignTask(new BorrowedTask(this, task));
+            }
+        }
+
+        private void onBorrowedTaskFinished() {
+            mBorrowedEmployeeCount.decrementAndGet();
+
+            SectionManager.this.mBorrowedEmployeeCount.decrementAndGet();
+            mSection.mLentEmployeeCount.decrementAndGet();
+
+            mBorrowedTaskCount.incrementAndGet();
+
+            borrowEmployees();
+        }
+
+        @Override
+        public void onFreeEmployeeAvailable() {
+            mIsWaitingForFreeEmployee.set(false);
+
+            borrowEmployees();
+        }
+
+    }
+
+    private static class WaitingTask implements Runnable, Office.SectionDescription.OnTaskRejectedListener {
+
+        private Runnable mTask;
+        private final Object mLock;
+        private boolean[] mDone;
+
+        private WaitingTask(Runnable task, Object lock, boolean[] done) {
+            mTask = task;
+            mLock = lock;
+            mDone = done;
+        }
+
+        @Override
+        public void run() {
+            try {
+                mTask.run();
+            } finally {
+                onDone();
+            }
+        }
+
+        @Override
+        public void onTaskRejected(String section, Runnable task) {
+            try {
+                if (mTask instanceof Office.SectionDescription.OnTaskRejectedListener) {
+                    ((Office.SectionDescription.OnTaskRejectedListener) mTask).onTaskRejected(section, mTask);
+                }
+            } finally {
+                // The waiting thread must not wait for a task that will never run.
+                onDone();
+            }
+        }
+
+        private void onDone() {
+            synchronized (mLock) {
+                mDone[0] = true;
+
+                mLock.notifyAll();
+            }
+        }
+
+    }
+
+    private static class BorrowedTask implements Runnable {
+
+        private Lender mLender;
+        private Runnable mTask;
+
+        private BorrowedTask(Lender lender, Runnable task) {
+            mLender = lender;
+            mTask = task;
+        }
+
+        @Override
+        public void run() {
+            try {
+                mTask.run();
+            } finally {
+                mLender.onBorrowedTaskFinished();
+            }
+        }
+
+    }
+
+}
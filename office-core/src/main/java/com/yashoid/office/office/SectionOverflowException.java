@@ -0,0 +1,16 @@
+package com.yashoid.office.office;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Thrown when a task is assigned to a full section that rejects it.
+ */
+public class SectionOverflowException extends RejectedExecutionException {
+
+    private static final long serialVersionUID = 1L;
+
+    public SectionOverflowException(String description) {
+        super(description);
+    }
+
+}
@@ -0,0 +1,165 @@
+package com.yashoid.office.office;
+
+import com.yashoid.office.util.BucketedPriorityQueue;
+import com.yashoid.office.util.LogHistogram;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.SortedMap;
+
+/**
+ * A point in time snapshot of a section's counters and timings. Times are in nanoseconds. Wait time
+ * is measured from assigning a task to the start of its run.
+ *
+ * Timings are kept per priority. Priorities below LOWEST_PRIORITY_BAND or above
+ * HIGHEST_PRIORITY_BAND are counted under those bands.
+ */
+public class SectionStats {
+
+    public static final int LOWEST_PRIORITY_BAND = BucketedPriorityQueue.MIN_LANE_PRIORITY - 1;
+    public static final int HIGHEST_PRIORITY_BAND = BucketedPriorityQueue.MAX_LANE_PRIORITY + 1;
+
+    private String mName;
+
+    private long mSubmittedTaskCount;
+    private long mCompletedTaskCount;
+    private long mCanceledTaskCount;
+
+    private int mPendingTaskCount;
+    private int mBusyEmployeeCount;
+
+    private int mBorrowedEmployeeCount;
+    private int mLentEmployeeCount;
+    private long mBorrowedTaskCount;
+
+    private long mDeadlineMissCount;
+    private long mShedTaskCount;
+
+    private SortedMap<Integer, LogHistogram.Snapshot> mWaitTimes;
+    private SortedMap<Integer, LogHistogram.Snapshot> mRunTimes;
+
+    SectionStats(String name, long submittedTaskCount, long completedTaskCount, long canceledTaskCount,
+                 int pendingTaskCount, int busyEmployeeCount, int borrowedEmployeeCount, int lentEmployeeCount,
+                 long borrowedTaskCount, long deadlineMissCount, long shedTaskCount, SortedMap<Integer, LogHistogram.Snapshot> waitTimes,
+                 SortedMap<Integer, LogHistogram.Snapshot> runTimes) {
+        mName = name;
+
+        mSubmittedTaskCount = submittedTaskCount;
+        mCompletedTaskCount = completedTaskCount;
+        mCanceledTaskCount = canceledTaskCount;
+
+        mPendingTaskCount = pendingTaskCount;
+        mBusyEmployeeCount = busyEmployeeCount;
+
+        mBorrowedEmployeeCount = borrowedEmployeeCount;
+        mLentEmployeeCount = lentEmployeeCount;
+        mBorrowedTaskCount = borrowedTaskCount;
+
+        mDeadlineMissCount = deadlineMissCount;
+        mShedTaskCount = shedTaskCount;
+
+        mWaitTimes = Collections.unmodifiableSortedMap(waitTimes);
+        mRunTimes = Collections.unmodifiableSortedMap(runTimes);
+    }
+
+    public static int getPriorityBand(int priority) {
+        return Math.max(LOWEST_PRIORITY_BAND, Math.min(HIGHEST_PRIORITY_BAND, priority));
+    }
+
+    public String getName() {
+        return mName;
+    }
+
+    public long getSubmittedTaskCount() {
+        return mSubmittedTaskCount;
+    }
+
+    public long getCompletedTaskCount() {
+        return mCompletedTaskCount;
+    }
+
+    public long getCanceledTaskCount() {
+        return mCanceledTaskCount;
+    }
+
+    public int getPendingTaskCount() {
+        return mPendingTaskCount;
+    }
+
+    /**
+     *
+     * @return the number of the section's tasks that are running, including the ones running on
+     * borrowed employees.
+     */
+    public int getBusyEmployeeCount() {
+        return mBusyEmployeeCount;
+    }
+
+    public int getBorrowedEmployeeCount() {
+        return mBorrowedEmployeeCount;
+    }
+
+    public int getLentEmployeeCount() {
+        return mLentEmployeeCount;
+    }
+
+    public long getBorrowedTaskCount() {
+        return mBorrowedTaskCount;
+    }
+
+    /**
+     *
+     * @return the number of deadline tasks that started or finished after their deadline, including
+     * the expired tasks that were dropped.
+     */
+    public long getDeadlineMissCount() {
+        return mDeadlineMissCount;
+    }
+
+    /**
+     *
+     * @return the number of tasks shed under overload. Shed tasks that were pending are also counted
+     * as canceled.
+     */
+    public long getShedTaskCount() {
+        return mShedTaskCount;
+    }
+
+    /**
+     *
+     * @return the priority bands that have run at least one task, in ascending order.
+     */
+    public Set<Integer> getPriorities() {
+        return mRunTimes.keySet();
+    }
+
+    public LogHistogram.Snapshot getWaitTimeHistogram() {
+        return LogHistogram.Snapshot.merge(mWaitTimes.values());
+    }
+
+    public LogHistogram.Snapshot getWaitTimeHistogram(int priority) {
+        return getHistogram(mWaitTimes, priority);
+    }
+
+    public LogHistogram.Snapshot getRunTimeHistogram() {
+        return LogHistogram.Snapshot.merge(mRunTimes.values());
+    }
+
+    public LogHistogram.Snapshot getRunTimeHistogram(int priority) {
+        return getHistogram(mRunTimes, priority);
+    }
+
+    private static LogHistogram.Snapshot getHistogram(SortedMap<Integer, LogHistogram.Snapshot> histograms, int priority) {
+        LogHistogram.Snapshot histogram = histograms.get(getPriorityBand(priority));
+
+        return histogram == null ? LogHistogram.Snapshot.EMPTY : histogram;
+    }
+
+    @Override
+    public String toString() {
+        return "SectionStats{" + mName + " submitted=" + mSubmittedTaskCount + " completed=" + mCompletedTaskCount
+                + " canceled=" + mCanceledTaskCount + " pending=" + mPendingTaskCount + " busy=" + mBusyEmployeeCount
+                + " borrowed=" + mBorrowedEmployeeCount + " lent=" + mLentEmployeeCount + " missed=" + mDeadlineMissCount + " shed=" + mShedTaskCount + "}";
+    }
+
+}
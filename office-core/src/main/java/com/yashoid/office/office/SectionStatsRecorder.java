@@ -0,0 +1,97 @@
+package com.yashoid.office.office;
+
+import com.yashoid.office.util.LogHistogram;
+import com.yashoid.office.util.StripedCounter;
+
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Collects the counters and timings of a section. Recording never locks and only allocates the
+ * histograms of a priority the first time a task with that priority runs.
+ */
+class SectionStatsRecorder {
+
+    private static final int BAND_COUNT = SectionStats.HIGHEST_PRIORITY_BAND - SectionStats.LOWEST_PRIORITY_BAND + 1;
+
+    private StripedCounter mSubmittedCount = new StripedCounter();
+    private StripedCounter mCompletedCount = new StripedCounter();
+    private StripedCounter mCanceledCount = new StripedCounter();
+    private StripedCounter mRunningCount = new StripedCounter();
+    private StripedCounter mDeadlineMissCount = new StripedCounter();
+    private StripedCounter mShedCount = new StripedCounter();
+
+    private AtomicReferenceArray<LogHistogram> mWaitTimes = new AtomicReferenceArray<>(BAND_COUNT);
+    private AtomicReferenceArray<LogHistogram> mRunTimes = new AtomicReferenceArray<>(BAND_COUNT);
+
+    void onTaskSubmitted() {
+        mSubmittedCount.increment();
+    }
+
+    void onTaskCanceled() {
+        mCanceledCount.increment();
+    }
+
+    void onTasksCanceled(int count) {
+        mCanceledCount.add(count);
+    }
+
+    void onDeadlineMissed() {
+        mDeadlineMissCount.increment();
+    }
+
+    void onTaskShed() {
+        mShedCount.increment();
+    }
+
+    void onTaskStarted(int priority, long waitTime) {
+        mRunningCount.increment();
+
+        getHistogram(mWaitTimes, priority).record(waitTime);
+    }
+
+    void onTaskFinished(int priority, long runTime) {
+        getHistogram(mRunTimes, priority).record(runTime);
+
+        mRunningCount.decrement();
+        mCompletedCount.increment();
+    }
+
+    SectionStats snapshot(String name, int pendingTaskCount, int borrowedEmployeeCount, int lentEmployeeCount,
+                          long borrowedTaskCount) {
+        TreeMap<Integer, LogHistogram.Snapshot> waitTimes = new TreeMap<>();
+        TreeMap<Integer, LogHistogram.Snapshot> runTimes = new TreeMap<>();
+
+        for (int i = 0; i < BAND_COUNT; i++) {
+            LogHistogram waitTime = mWaitTimes.get(i);
+            LogHistogram runTime = mRunTimes.get(i);
+
+            if (waitTime != null) {
+                waitTimes.put(SectionStats.LOWEST_PRIORITY_BAND + i, waitTime.snapshot());
+            }
+
+            if (runTime != null) {
+                runTimes.put(SectionStats.LOWEST_PRIORITY_BAND + i, runTime.snapshot());
+            }
+        }
+
+        return new SectionStats(name, mSubmittedCount.sum(), mCompletedCount.sum(), mCanceledCount.sum(),
+                pendingTaskCount, (int) Math.max(0, mRunningCount.sum()), borrowedEmployeeCount,
+                lentEmployeeCount, borrowedTaskCount, mDeadlineMissCount.sum(), mShedCount.sum(), waitTimes, runTimes);
+    }
+
+    private static LogHistogram getHistogram(AtomicReferenceArray<LogHistogram> histograms, int priority) {
+        int band = SectionStats.getPriorityBand(priority) - SectionStats.LOWEST_PRIORITY_BAND;
+
+        LogHistogram histogram = histograms.get(band);
+
+        if (histogram == null) {
+            histograms.compareAndSet(band, null, new LogHistogram());
+
+            histogram = histograms.get(band);
+        }
+
+        return histogram;
+    }
+
+}
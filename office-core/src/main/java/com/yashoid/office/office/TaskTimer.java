@@ -0,0 +1,185 @@
+package com.yashoid.office.office;
+
+import com.yashoid.office.employee.EmployeeBackend;
+import com.yashoid.office.util.TimingWheel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Runs scheduled actions at their time. The actions only hand tasks to sections, so one timer
+ * serves every section. Deadlines are kept in a timing wheel with a tick of a millisecond and the
+ * timer thread only wakes up when something is due or the wheel has to cascade.
+ *
+ * The timer thread does not run the actions itself. It posts them to a dispatcher backend, so an
+ * action that is slow or throws does not hold up or kill the clock. The threads are started with
+ * the first scheduled action.
+ */
+class TaskTimer implements Runnable {
+
+    private static final long TICK = 1000000L;
+
+    private static ThreadLocal<Boolean> mIsTimerThread = new ThreadLocal<>();
+
+    /**
+     *
+     * @return true if called from the actions of a timer, which must not block.
+     */
+    static boolean isTimerThread() {
+        return mIsTimerThread.get() != null;
+    }
+
+    private String mName;
+    private EmployeeBackend.Factory mBackendFactory;
+
+    private long mStartTime = System.nanoTime();
+
+    private TimingWheel<ScheduledTask> mWheel = new TimingWheel<>(0);
+
+    private Thread mThread = null;
+    private EmployeeBackend mDispatcher = null;
+    private boolean mIsClosed = false;
+
+    TaskTimer(String name, EmployeeBackend.Factory backendFactory) {
+        mName = name;
+        mBackendFactory = backendFactory;
+    }
+
+    /**
+     *
+     * @param action Runs on the timer's dispatcher thread and must not block.
+     * @param triggerTime The System.nanoTime() at which the action is due.
+     * @return null if the timer is closed.
+     */
+    ScheduledTask schedule(Runnable action, long triggerTime) {
+        ScheduledTask task = new ScheduledTask(this, action, triggerTime);
+
+        long tick = Math.max(0, (triggerTime - mStartTime + TICK - 1) / TICK);
+
+        task.mEntry = new TimingWheel.Entry<>(task, tick);
+
+        EmployeeBackend dispatcher;
+
+        synchronized (this) {
+            if (mIsClosed) {
+                return null;
+            }
+
+            makeSureTimerIsRunning();
+
+            long wakeUpTick = mWheel.nextWakeUpTick();
+
+            if (mWheel.add(task.mEntry)) {
+                if (mWheel.nextWakeUpTick() < wakeUpTick) {
+                    notify();
+                }
+
+                return task;
+            }
+
+            dispatcher = mDispatcher;
+        }
+
+        // Already due.
+        dispatch(dispatcher, Collections.singletonList(task));
+
+        return task;
+    }
+
+    boolean cancel(ScheduledTask task) {
+        synchronized (this) {
+            return mWheel.remove(task.mEntry);
+        }
+    }
+
+    void close() {
+        synchronized (this) {
+            mIsClosed = true;
+
+            if (mDispatcher != null) {
+                mDispatcher.quit();
+            }
+
+            notify();
+        }
+    }
+
+    @Override
+    public void run() {
+        while (true) {
+            ArrayList<ScheduledTask> dueTasks = new ArrayList<>();
+            EmployeeBackend dispatcher;
+
+            synchronized (this) {
+                while (!mIsClosed) {
+                    long currentTick = currentTick();
+
+                    mWheel.advance(currentTick, dueTasks);
+
+                    if (!dueTasks.isEmpty()) {
+                        break;
+                    }
+
+                    long wakeUpTick = mWheel.nextWakeUpTick();
+
+                    try {
+                        if (wakeUpTick == Long.MAX_VALUE) {
+                            wait();
+                        }
+                        else {
+                            wait(Math.max(1, wakeUpTick - currentTick));
+                        }
+                    } catch (InterruptedException e) { }
+                }
+
+                if (mIsClosed) {
+                    return;
+                }
+
+                dispatcher = mDispatcher;
+            }
+
+            dispatch(dispatcher, dueTasks);
+        }
+    }
+
+    private static void dispatch(EmployeeBackend dispatcher, final List<ScheduledTask> dueTasks) {
+        dispatcher.post(new Runnable() {
+
+            @Override
+            public void run() {
+                mIsTimerThread.set(Boolean.TRUE);
+
+                for (ScheduledTask task: dueTasks) {
+                    try {
+                        task.getAction().run();
+                    } catch (Throwable t) {
+                        // The other due actions still run.
+                        Thread thread = Thread.currentThread();
+
+                        thread.getUncaughtExceptionHandler().uncaughtException(thread, t);
+                    }
+                }
+            }
+
+        });
+    }
+
+    private long currentTick() {
+        return (System.nanoTime() - mStartTime) / TICK;
+    }
+
+    private void makeSureTimerIsRunning() {
+        if (mThread != null) {
+            return;
+        }
+
+        mDispatcher = mBackendFactory.newEmployeeBackend(mName + "-dispatcher");
+
+        mThread = new Thread(this, mName);
+        mThread.setDaemon(true);
+        mThread.start();
+    }
+
+}
@@ -0,0 +1,248 @@
+package com.yashoid.office.office;
+
+import com.yashoid.office.util.BucketedPriorityQueue;
+import com.yashoid.office.util.FlexiblePool;
+
+import java.util.Collection;
+import java.util.HashSet;
+
+/**
+ * Wraps an assigned task to record its wait and run time. Instances are pooled so tracking does
+ * not allocate in the steady state.
+ */
+class TrackedTask implements Runnable {
+
+    private static final FlexiblePool<TrackedTask> POOL = new FlexiblePool<TrackedTask>() {
+
+        @Override
+        protected TrackedTask newInstance() {
+            return new TrackedTask();
+        }
+
+        @Override
+        protected boolean markReleased(TrackedTask instance) {
+            return instance.markReleased();
+        }
+
+        @Override
+        protected void onInstanceReleased(TrackedTask instance) {
+            instance.mSection = null;
+            instance.mRecorder = null;
+            instance.mTask = null;
+            instance.mKey = null;
+        }
+
+    };
+
+    private static ThreadLocal<SectionManager> mCurrentSection = new ThreadLocal<>();
+
+    static TrackedTask obtain(SectionManager section, SectionStatsRecorder recorder, Runnable task, int priority) {
+        TrackedTask trackedTask = POOL.acquire();
+
+        trackedTask.mIsReleased = false;
+        trackedTask.mSection = section;
+        trackedTask.mRecorder = recorder;
+        if (task instanceof KeyLimiter.KeyedTask) {
+            trackedTask.mTask = ((KeyLimiter.KeyedTask) task).getTask();
+            trackedTask.mKey = ((KeyLimiter.KeyedTask) task).getKey();
+        }
+        else {
+            trackedTask.mTask = task;
+        }
+
+        trackedTask.mHoldsKeySlot = false;
+        trackedTask.mPriority = priority;
+        trackedTask.mAssignTime = System.nanoTime();
+
+        return trackedTask;
+    }
+
+    /**
+     *
+     * @return the section whose task is running on the current thread or null.
+     */
+    static SectionManager getCurrentSection() {
+        return mCurrentSection.get();
+    }
+
+    /**
+     *
+     * @param task
+     * @return an object that equals the pending TrackedTask of the given task, unless it holds a
+     * slot of its key. To be passed to the remove methods of the queues.
+     */
+    static Object lookupKey(Runnable task) {
+        return new LookupKey(task);
+    }
+
+    /**
+     *
+     * @param tasks
+     * @return a filter that matches the pending TrackedTasks of any of the given tasks. The bulk
+     * counterpart of lookupKey.
+     */
+    static BucketedPriorityQueue.Filter<Runnable> lookupFilter(Collection<? extends Runnable> tasks) {
+        return new LookupFilter(new HashSet<Runnable>(tasks));
+    }
+
+    /**
+     * Tells when a tracked task was assigned, for priority aging.
+     */
+    static final BucketedPriorityQueue.Timestamp<Runnable> ASSIGN_TIME = new BucketedPriorityQueue.Timestamp<Runnable>() {
+
+        @Override
+        public long getTimestamp(Runnable element) {
+            return element instanceof TrackedTask ? ((TrackedTask) element).mAssignTime : System.nanoTime();
+        }
+
+    };
+
+    private SectionManager mSection;
+    private SectionStatsRecorder mRecorder;
+    private Runnable mTask;
+    private int mPriority;
+    private long mAssignTime;
+
+    // Only set on tasks of sections with keyed concurrency limits.
+    private Object mKey;
+    private boolean mHoldsKeySlot;
+
+    private boolean mIsReleased = false;
+
+    private TrackedTask() {
+
+    }
+
+    Runnable getTask() {
+        return mTask;
+    }
+
+    int getPriority() {
+        return mPriority;
+    }
+
+    Object getKey() {
+        return mKey;
+    }
+
+    /**
+     * Called on a parked task that has been handed the slot of a finished task of its key.
+     */
+    void onKeySlotReceived() {
+        mHoldsKeySlot = true;
+    }
+
+    /**
+     * A task that holds a slot of its key has started as far as its key is concerned. It can not be
+     * canceled any more and must pass the slot on if it leaves without running.
+     */
+    boolean holdsKeySlot() {
+        return mHoldsKeySlot;
+    }
+
+    /**
+     *
+     * @return true if the task can start. Otherwise it is parked until a task of its key finishes.
+     */
+    boolean tryTakeKeySlot() {
+        if (mKey == null || mHoldsKeySlot) {
+            return true;
+        }
+
+        if (!mSection.tryStartKeyedTask(this)) {
+            return false;
+        }
+
+        mHoldsKeySlot = true;
+
+        return true;
+    }
+
+    @Override
+    public void run() {
+        Object key = mKey;
+
+        if (!tryTakeKeySlot()) {
+            return;
+        }
+
+        SectionManager section = mSection;
+        SectionStatsRecorder recorder = mRecorder;
+        int priority = mPriority;
+
+        long startTime = System.nanoTime();
+
+        long waitTime = startTime - mAssignTime;
+
+        recorder.onTaskStarted(priority, waitTime);
+
+        mSection.onTaskStarted(waitTime);
+
+        // Tasks can run nested when a waiting thread helps its section.
+        SectionManager previousSection = mCurrentSection.get();
+
+        mCurrentSection.set(mSection);
+
+        try {
+            mTask.run();
+        } finally {
+            mCurrentSection.set(previousSection);
+
+            recorder.onTaskFinished(priority, System.nanoTime() - startTime);
+
+            POOL.release(this);
+
+            if (key != null) {
+                section.onKeyedTaskFinished(key);
+            }
+        }
+    }
+
+    private synchronized boolean markReleased() {
+        if (mIsReleased) {
+            return false;
+        }
+
+        mIsReleased = true;
+
+        return true;
+    }
+
+    private static class LookupKey {
+
+        private Runnable mTask;
+
+        private LookupKey(Runnable task) {
+            mTask = task;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof TrackedTask && !((TrackedTask) obj).mHoldsKeySlot
+                    && mTask.equals(((TrackedTask) obj).mTask);
+        }
+
+        @Override
+        public int hashCode() {
+            return mTask.hashCode();
+        }
+
+    }
+
+    private static class LookupFilter implements BucketedPriorityQueue.Filter<Runnable> {
+
+        private HashSet<Runnable> mTasks;
+
+        private LookupFilter(HashSet<Runnable> tasks) {
+            mTasks = tasks;
+        }
+
+        @Override
+        public boolean matches(Runnable element) {
+            return element instanceof TrackedTask && !((TrackedTask) element).mHoldsKeySlot
+                    && mTasks.contains(((TrackedTask) element).mTask);
+        }
+
+    }
+
+}
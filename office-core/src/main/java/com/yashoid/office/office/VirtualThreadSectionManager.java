@@ -0,0 +1,258 @@
+package com.yashoid.office.office;
+
+import com.yashoid.office.employee.EmployeeBackend;
+import com.yashoid.office.util.BucketedPriorityQueue;
+import com.yashoid.office.util.FlexiblePool;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A section that starts a new thread for every task instead of keeping employees. On JDK 21 and
+ * later the threads are virtual threads, so a blocking task does not hold on to an OS thread. On
+ * older runtimes and on Android plain daemon threads are used.
+ *
+ * At most maxConcurrency tasks run at the same time. The rest wait in the priority queue and can be
+ * canceled until a thread is started for them.
+ */
+class VirtualThreadSectionManager extends SectionManager {
+
+    private static final ThreadFactory VIRTUAL_THREAD_FACTORY = newVirtualThreadFactory();
+
+    private String mName;
+    private int mMaxConcurrency;
+
+    private ThreadFactory mThreadFactory;
+
+    private SchedulingPolicy.TaskQueue mPendingTasks = getSchedulingPolicy().newTaskQueue();
+
+    private AtomicInteger mRunningTaskCount = new AtomicInteger(0);
+    private AtomicInteger mThreadCounter = new AtomicInteger(0);
+
+    private volatile boolean mIsClosed = false;
+
+    protected VirtualThreadSectionManager(EmployeeBackend.Factory backendFactory, String name, int maxConcurrency) {
+        super(backendFactory, name, 0);
+
+        mName = name == null ? "VT-" + hashCode() + "-" : name.concat("-");
+        mMaxConcurrency = maxConcurrency;
+
+        mThreadFactory = VIRTUAL_THREAD_FACTORY;
+    }
+
+    @Override
+    protected void assignTask(Runnable task, int priority) {
+        if (mIsClosed) {
+            return;
+        }
+
+        mPendingTasks.offer(track(task, priority), priority);
+
+        dispatchPendingTasks();
+    }
+
+    @Override
+    protected void assignTasks(Collection<? extends Runnable> tasks, int priority) {
+        if (mIsClosed || tasks.isEmpty()) {
+            return;
+        }
+
+        ArrayList<Runnable> trackedTasks = new ArrayList<>(tasks.size());
+
+        for (Runnable task: tasks) {
+            trackedTasks.add(track(task, priority));
+        }
+
+        mPendingTasks.offerAll(trackedTasks, priority);
+
+        dispatchPendingTasks();
+    }
+
+    @Override
+    protected void assignTaskAndWait(Runnable task, int priority) {
+        if (getCurrentSection() == this) {
+            // The calling task already holds one of the section's slots. Waiting for another one
+            // would dead lock when the section is at its concurrency limit.
+            track(task, priority).run();
+            return;
+        }
+
+        Object lock = newWaitLock();
+        final boolean[] done = { false };
+
+        assignTask(newWaitingTask(task, lock, done), priority);
+
+        waitForTask(lock, done);
+    }
+
+    @Override
+    protected boolean cancelTask(Runnable task, int priority) {
+        Object key = lookupKey(task);
+
+        return onCancelTask(mPendingTasks.remove(key, priority) || removeParkedTask(key));
+    }
+
+    @Override
+    protected boolean cancelTask(Runnable task) {
+        Object key = lookupKey(task);
+
+        return onCancelTask(mPendingTasks.remove(key) || removeParkedTask(key));
+    }
+
+    @Override
+    protected int cancelTasks(Collection<? extends Runnable> tasks, int priority) {
+        if (tasks.isEmpty()) {
+            return 0;
+        }
+
+        BucketedPriorityQueue.Filter<Runnable> filter = lookupFilter(tasks);
+
+        return onCancelTasks(mPendingTasks.removeAll(filter, priority) + removeParkedTasks(filter));
+    }
+
+    @Override
+    protected void close() {
+        mIsClosed = true;
+
+        mPendingTasks.clear();
+
+        super.close();
+    }
+
+    @Override
+    protected Runnable pollPendingTask() {
+        if (mPendingTasks.isEmpty() || !acquirePermit()) {
+            return null;
+        }
+
+        Runnable task = pollQueue(mPendingTasks);
+
+        if (task == null) {
+            releasePermit();
+        }
+
+        return task;
+    }
+
+    @Override
+    protected void setSchedulingPolicy(SchedulingPolicy schedulingPolicy) {
+        super.setSchedulingPolicy(schedulingPolicy);
+
+        mPendingTasks = schedulingPolicy.newTaskQueue();
+    }
+
+    @Override
+    protected Runnable removePendingTask(boolean lowestPriority) {
+        return lowestPriority ? mPendingTasks.pollLowest() : mPendingTasks.poll();
+    }
+
+    @Override
+    protected void restorePendingTask(Runnable task, int priority) {
+        mPendingTasks.offer(task, priority);
+    }
+
+    @Override
+    protected boolean supportsBorrowing() {
+        return false;
+    }
+
+    @Override
+    protected int getPendingTaskCount() {
+        return mPendingTasks.size();
+    }
+
+    @Override
+    protected void dispatchPendingTasks() {
+        wakeHelpingWaiters();
+
+        while (!mPendingTasks.isEmpty()) {
+            int runningTaskCount = mRunningTaskCount.get();
+
+            if (runningTaskCount >= mMaxConcurrency) {
+                // A finishing task dispatches again.
+                return;
+            }
+
+            if (!mRunningTaskCount.compareAndSet(runningTaskCount, runningTaskCount + 1)) {
+                continue;
+            }
+
+            if (!acquirePermit()) {
+                // The timer dispatches again when there is a token.
+                mRunningTaskCount.decrementAndGet();
+                return;
+            }
+
+            Runnable task = pollQueue(mPendingTasks);
+
+            if (task == null) {
+                releasePermit();
+                mRunningTaskCount.decrementAndGet();
+                continue;
+            }
+
+            newThread(new TaskRunner(task)).start();
+        }
+    }
+
+    private Thread newThread(Runnable runner) {
+        String name = mName.concat("" + mThreadCounter.getAndIncrement());
+
+        if (mThreadFactory != null) {
+            Thread thread = mThreadFactory.newThread(runner);
+            thread.setName(name);
+            return thread;
+        }
+
+        Thread thread = new Thread(runner, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private class TaskRunner implements Runnable {
+
+        private Runnable mTask;
+
+        private TaskRunner(Runnable task) {
+            mTask = task;
+        }
+
+        @Override
+        public void run() {
+            // Every task gets a new thread, so caching pooled objects per thread is of no use.
+            FlexiblePool.markShortLivedThread();
+
+            try {
+                mTask.run();
+            } finally {
+                mRunningTaskCount.decrementAndGet();
+
+                if (!mIsClosed) {
+                    dispatchPendingTasks();
+                }
+            }
+        }
+
+    }
+
+    /**
+     * Looks up Thread.ofVirtual().factory() through reflection so the library still builds and runs
+     * on runtimes without virtual threads.
+     *
+     * @return null if virtual threads are not available.
+     */
+    private static ThreadFactory newVirtualThreadFactory() {
+        try {
+            Method ofVirtual = Thread.class.getMethod("ofVirtual");
+            Method factory = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+
+            return (ThreadFactory) factory.invoke(ofVirtual.invoke(null));
+        } catch (Throwable t) {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,473 @@
+package com.yashoid.office.office;
+
+import com.yashoid.office.employee.EmployeeBackend;
+import com.yashoid.office.util.BucketedPriorityQueue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Random;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A section in which every employee owns a deque of tasks. Tasks assigned from outside of the
+ * section go to a shared priority queue. Tasks assigned by the section's own employees are pushed
+ * to the local deque of that employee and are taken back in LIFO order, so related work stays on
+ * the same thread. Idle employees steal the oldest task of busy employees' deques.
+ *
+ * Priorities only apply to the shared queue. Tasks on a local deque run before the shared queue is
+ * consulted, the same way ForkJoinPool treats local submissions. With priority aging on, every
+ * employee also takes a shared task once per aging interval.
+ */
+class WorkStealingSectionManager extends SectionManager {
+
+    private static ThreadLocal<StealingEmployee> mCurrentEmployee = new ThreadLocal<>();
+
+    private String mName;
+    private int mEmployeeCount;
+
+    private EmployeeBackend.Factory mBackendFactory;
+
+    // Null until the employees have started working. Only set once it is fully built.
+    private volatile StealingEmployee[] mEmployees = null;
+
+    private SchedulingPolicy.TaskQueue mSharedTasks = getSchedulingPolicy().newTaskQueue();
+
+    private final Object mIdleLock = new Object();
+    private AtomicInteger mIdleEmployeeCount = new AtomicInteger(0);
+
+    private volatile boolean mIsClosed = false;
+
+    protected WorkStealingSectionManager(EmployeeBackend.Factory backendFactory, String name, int employeeCount) {
+        super(backendFactory, name, 0);
+
+        mName = name == null ? "WS-" + hashCode() + "-" : name.concat("-");
+        mEmployeeCount = employeeCount;
+
+        mBackendFactory = backendFactory;
+    }
+
+    @Override
+    protected void assignTask(Runnable task, int priority) {
+        if (mIsClosed) {
+            return;
+        }
+
+        makeSureEmployeesHaveStartedWorking();
+
+        task = track(task, priority);
+
+        StealingEmployee currentEmployee = getCurrentEmployee();
+
+        if (currentEmployee != null) {
+            currentEmployee.mTasks.addLast(task);
+        }
+        else {
+            mSharedTasks.offer(task, priority);
+        }
+
+        dispatchPendingTasks();
+    }
+
+    @Override
+    protected void assignTasks(Collection<? extends Runnable> tasks, int priority) {
+        if (mIsClosed || tasks.isEmpty()) {
+            return;
+        }
+
+        makeSureEmployeesHaveStartedWorking();
+
+        ArrayList<Runnable> trackedTasks = new ArrayList<>(tasks.size());
+
+        for (Runnable task: tasks) {
+            trackedTasks.add(track(task, priority));
+        }
+
+        StealingEmployee currentEmployee = getCurrentEmployee();
+
+        if (currentEmployee != null) {
+            currentEmployee.mTasks.addAll(trackedTasks);
+        }
+        else {
+            mSharedTasks.offerAll(trackedTasks, priority);
+        }
+
+        wakeHelpingWaiters();
+
+        int idleEmployeeCount = mIdleEmployeeCount.get();
+
+        if (idleEmployeeCount > 0) {
+            synchronized (mIdleLock) {
+                if (trackedTasks.size() >= idleEmployeeCount) {
+                    mIdleLock.notifyAll();
+                }
+                else {
+                    for (int i = 0; i < trackedTasks.size(); i++) {
+                        mIdleLock.notify();
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    protected void assignTaskAndWait(Runnable task, int priority) {
+        if (getCurrentEmployee() != null) {
+            // Waiting on a task that might end up in our own deque would never finish.
+            track(task, priority).run();
+            return;
+        }
+
+        Object lock = newWaitLock();
+        final boolean[] done = { false };
+
+        assignTask(newWaitingTask(task, lock, done), priority);
+
+        waitForTask(lock, done);
+    }
+
+    @Override
+    protected boolean cancelTask(Runnable task, int priority) {
+        Object key = lookupKey(task);
+
+        return onCancelTask(mSharedTasks.remove(key, priority) || cancelTaskFromEmployees(key) || removeParkedTask(key));
+    }
+
+    @Override
+    protected boolean cancelTask(Runnable task) {
+        Object key = lookupKey(task);
+
+        return onCancelTask(mSharedTasks.remove(key) || cancelTaskFromEmployees(key) || removeParkedTask(key));
+    }
+
+    @Override
+    protected int cancelTasks(Collection<? extends Runnable> tasks, int priority) {
+        if (tasks.isEmpty()) {
+            return 0;
+        }
+
+        BucketedPriorityQueue.Filter<Runnable> filter = lookupFilter(tasks);
+
+        int canceledCount = mSharedTasks.removeAll(filter, priority);
+
+        StealingEmployee[] employees = mEmployees;
+
+        if (employees != null) {
+            for (StealingEmployee employee: employees) {
+                for (Runnable task: employee.mTasks) {
+                    if (filter.matches(task) && employee.mTasks.removeFirstOccurrence(task)) {
+                        canceledCount++;
+                    }
+                }
+            }
+        }
+
+        canceledCount += removeParkedTasks(filter);
+
+        return onCancelTasks(canceledCount);
+    }
+
+    @Override
+    protected void close() {
+        mIsClosed = true;
+
+        synchronized (mIdleLock) {
+            mIdleLock.notifyAll();
+        }
+
+        mSharedTasks.clear();
+
+        StealingEmployee[] employees;
+
+        synchronized (this) {
+            employees = mEmployees;
+        }
+
+        if (employees != null) {
+            for (StealingEmployee employee: employees) {
+                employee.mTasks.clear();
+            }
+        }
+
+        super.close();
+    }
+
+    @Override
+    protected Runnable pollPendingTask() {
+        StealingEmployee currentEmployee = getCurrentEmployee();
+
+        if (currentEmployee != null) {
+            return currentEmployee.findTask();
+        }
+
+        return pollQueue(mSharedTasks);
+    }
+
+    @Override
+    protected void setSchedulingPolicy(SchedulingPolicy schedulingPolicy) {
+        super.setSchedulingPolicy(schedulingPolicy);
+
+        mSharedTasks = schedulingPolicy.newTaskQueue();
+    }
+
+    /**
+     * Local deques have no priorities. Their oldest task is taken when the shared queue is empty.
+     */
+    @Override
+    protected Runnable removePendingTask(boolean lowestPriority) {
+        Runnable task = lowestPriority ? mSharedTasks.pollLowest() : mSharedTasks.poll();
+
+        StealingEmployee[] employees = mEmployees;
+
+        if (task != null || employees == null) {
+            return task;
+        }
+
+        for (StealingEmployee employee: employees) {
+            task = employee.mTasks.pollFirst();
+
+            if (task != null) {
+                return task;
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    protected void restorePendingTask(Runnable task, int priority) {
+        mSharedTasks.offer(task, priority);
+    }
+
+    /**
+     * Employees take the tasks themselves. It only wakes an idle one up.
+     */
+    @Override
+    protected void dispatchPendingTasks() {
+        wakeHelpingWaiters();
+
+        if (mIdleEmployeeCount.get() > 0) {
+            synchronized (mIdleLock) {
+                mIdleLock.notify();
+            }
+        }
+    }
+
+    @Override
+    protected boolean supportsBorrowing() {
+        return false;
+    }
+
+    @Override
+    protected int getPendingTaskCount() {
+        int count = mSharedTasks.size();
+
+        StealingEmployee[] employees = mEmployees;
+
+        if (employees != null) {
+            for (StealingEmployee employee: employees) {
+                count += employee.mTasks.size();
+            }
+        }
+
+        return count;
+    }
+
+    private boolean cancelTaskFromEmployees(Object key) {
+        StealingEmployee[] employees = mEmployees;
+
+        if (employees == null) {
+            return false;
+        }
+
+        for (StealingEmployee employee: employees) {
+            if (employee.mTasks.removeFirstOccurrence(key)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void makeSureEmployeesHaveStartedWorking() {
+        if (mEmployees != null) {
+            return;
+        }
+
+        synchronized (this) {
+            if (mEmployees != null || mIsClosed) {
+                return;
+            }
+
+            StealingEmployee[] employees = new StealingEmployee[mEmployeeCount];
+
+            for (int i = 0; i < employees.length; i++) {
+                employees[i] = new StealingEmployee();
+            }
+
+            mEmployees = employees;
+
+            for (int i = 0; i < employees.length; i++) {
+                employees[i].start(mName.concat("" + i));
+            }
+        }
+    }
+
+    private StealingEmployee getCurrentEmployee() {
+        StealingEmployee currentEmployee = mCurrentEmployee.get();
+
+        if (currentEmployee != null && currentEmployee.getSection() == this) {
+            return currentEmployee;
+        }
+
+        return null;
+    }
+
+    private boolean hasPendingTasks() {
+        if (!mSharedTasks.isEmpty()) {
+            return true;
+        }
+
+        StealingEmployee[] employees = mEmployees;
+
+        if (employees == null) {
+            return false;
+        }
+
+        for (StealingEmployee employee: employees) {
+            if (!employee.mTasks.isEmpty()) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Runs its work loop as a single long task on a backend of the section's platform.
+     */
+    private class StealingEmployee implements Runnable {
+
+        private LinkedBlockingDeque<Runnable> mTasks = new LinkedBlockingDeque<>();
+
+        private Random mRandom = new Random();
+
+        private long mLastSharedPollTime = System.nanoTime();
+
+        private EmployeeBackend mBackend;
+
+        private void start(String name) {
+            mBackend = mBackendFactory.newEmployeeBackend(name);
+            mBackend.post(this);
+        }
+
+        private WorkStealingSectionManager getSection() {
+            return WorkStealingSectionManager.this;
+        }
+
+        @Override
+        public void run() {
+            mCurrentEmployee.set(this);
+
+            try {
+                work();
+            } finally {
+                mCurrentEmployee.remove();
+
+                mBackend.quit();
+            }
+        }
+
+        private void work() {
+            while (!mIsClosed) {
+                Runnable task = findTask();
+
+                if (task != null) {
+                    try {
+                        task.run();
+                    } catch (Throwable t) {
+                        // A failing task must not cost the section one of its employees.
+                        Thread thread = Thread.currentThread();
+
+                        thread.getUncaughtExceptionHandler().uncaughtException(thread, t);
+                    }
+
+                    continue;
+                }
+
+                synchronized (mIdleLock) {
+                    mIdleEmployeeCount.incrementAndGet();
+
+                    while (!mIsClosed && !hasPendingTasks()) {
+                        try {
+                            mIdleLock.wait();
+                        } catch (InterruptedException e) { }
+                    }
+
+                    mIdleEmployeeCount.decrementAndGet();
+                }
+            }
+        }
+
+        private Runnable findTask() {
+            Runnable task;
+
+            long agingInterval = getSchedulingPolicy().getAgingInterval();
+
+            if (agingInterval > 0 && System.nanoTime() - mLastSharedPollTime >= agingInterval) {
+                // With aging on the shared queue is looked at once every aging interval even when
+                // the local deque keeps refilling, so its tasks are not starved.
+                task = pollSharedTask();
+
+                if (task != null) {
+                    return task;
+                }
+            }
+
+            task = mTasks.pollLast();
+
+            if (task != null) {
+                return task;
+            }
+
+            task = pollSharedTask();
+
+            if (task != null) {
+                return task;
+            }
+
+            return steal();
+        }
+
+        private Runnable pollSharedTask() {
+            mLastSharedPollTime = System.nanoTime();
+
+            return pollQueue(mSharedTasks);
+        }
+
+        private Runnable steal() {
+            StealingEmployee[] employees = mEmployees;
+
+            int count = employees.length;
+            int start = mRandom.nextInt(count);
+
+            for (int i = 0; i < count; i++) {
+                StealingEmployee victim = employees[(start + i) % count];
+
+                if (victim == this) {
+                    continue;
+                }
+
+                Runnable task = victim.mTasks.pollFirst();
+
+                if (task != null) {
+                    return task;
+                }
+            }
+
+            return null;
+        }
+
+    }
+
+}
@@ -0,0 +1,26 @@
+package com.yashoid.office.platform;
+
+import com.yashoid.office.employee.EmployeeBackend;
+
+/**
+ * A MainExecutor that runs the main tasks on an EmployeeBackend.
+ */
+public class BackendMainExecutor implements MainExecutor {
+
+    private EmployeeBackend mBackend;
+
+    public BackendMainExecutor(EmployeeBackend backend) {
+        mBackend = backend;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        mBackend.post(task);
+    }
+
+    @Override
+    public void cancel(Runnable task) {
+        mBackend.removeCallbacks(task);
+    }
+
+}
@@ -0,0 +1,32 @@
+package com.yashoid.office.platform;
+
+import com.yashoid.office.employee.EmployeeBackend;
+import com.yashoid.office.employee.ThreadEmployeeBackend;
+
+/**
+ * Plain Java platform. There is no main thread on the JVM so the main section is a dedicated
+ * single thread.
+ */
+public class JavaPlatform extends Platform {
+
+    private static final String MAIN_THREAD_NAME = "office-main";
+
+    private MainExecutor mMainExecutor = null;
+
+    @Override
+    public EmployeeBackend newEmployeeBackend(String name) {
+        return new ThreadEmployeeBackend(name);
+    }
+
+    @Override
+    public MainExecutor newMainExecutor() {
+        synchronized (this) {
+            if (mMainExecutor == null) {
+                mMainExecutor = new BackendMainExecutor(new ThreadEmployeeBackend(MAIN_THREAD_NAME));
+            }
+
+            return mMainExecutor;
+        }
+    }
+
+}
@@ -0,0 +1,15 @@
+package com.yashoid.office.platform;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Runs the tasks of the TaskManager.MAIN section. On Android this is the main Looper.
+ */
+public interface MainExecutor extends Executor {
+
+    /**
+     * Removes the task if it has not started running yet.
+     */
+    void cancel(Runnable task);
+
+}
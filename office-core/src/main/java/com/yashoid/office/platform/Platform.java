@@ -0,0 +1,55 @@
+package com.yashoid.office.platform;
+
+import com.yashoid.office.employee.EmployeeBackend;
+
+/**
+ * Provides the threads that Office runs on. The Android platform is picked automatically when the
+ * Android adapter is on the class path. Otherwise plain Java threads are used.
+ */
+public abstract class Platform implements EmployeeBackend.Factory {
+
+    private static final String ANDROID_PLATFORM = "com.yashoid.office.android.AndroidPlatform";
+
+    private static volatile Platform mPlatform = null;
+
+    public static Platform get() {
+        if (mPlatform == null) {
+            synchronized (Platform.class) {
+                if (mPlatform == null) {
+                    mPlatform = findPlatform();
+                }
+            }
+        }
+
+        return mPlatform;
+    }
+
+    /**
+     * Overrides the detected platform for the TaskManagers that are created afterwards.
+     */
+    public static void set(Platform platform) {
+        if (platform == null) {
+            throw new IllegalArgumentException("Platform can not be null.");
+        }
+
+        mPlatform = platform;
+    }
+
+    private static Platform findPlatform() {
+        try {
+            return (Platform) Class.forName(ANDROID_PLATFORM).newInstance();
+        } catch (ClassNotFoundException e) {
+            return new JavaPlatform();
+        } catch (InstantiationException e) {
+            throw new RuntimeException("Failed to create the Android platform.", e);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Failed to create the Android platform.", e);
+        }
+    }
+
+    @Override
+    abstract public EmployeeBackend newEmployeeBackend(String name);
+
+    abstract public MainExecutor newMainExecutor();
+
+}
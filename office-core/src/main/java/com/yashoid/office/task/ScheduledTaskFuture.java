@@ -0,0 +1,100 @@
+package com.yashoid.office.task;
+
+import com.yashoid.office.office.ScheduledTask;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A task that is handed to its section by the office's timer. Periodic tasks are scheduled again
+ * after every run, so a run never overlaps the previous one. They only finish by being canceled or
+ * by throwing.
+ */
+public class ScheduledTaskFuture<T> extends TaskFuture<T> implements ScheduledFuture<T> {
+
+    private TaskManager mTaskManager;
+
+    private volatile long mTriggerTime;
+
+    // Positive for a fixed rate, negative for a fixed delay and zero for a single run.
+    private long mPeriod;
+
+    private volatile ScheduledTask mScheduledTask = null;
+
+    ScheduledTaskFuture(TaskManager taskManager, String section, int priority, Callable<T> callable,
+                        long triggerTime, long period) {
+        super(taskManager, section, priority, callable);
+
+        mTaskManager = taskManager;
+        mTriggerTime = triggerTime;
+        mPeriod = period;
+    }
+
+    public boolean isPeriodic() {
+        return mPeriod != 0;
+    }
+
+    /**
+     *
+     * @return the System.nanoTime() of the next run.
+     */
+    long getTriggerTime() {
+        return mTriggerTime;
+    }
+
+    void setScheduledTask(ScheduledTask scheduledTask) {
+        mScheduledTask = scheduledTask;
+
+        if (isCancelled() && scheduledTask != null) {
+            scheduledTask.cancel();
+        }
+    }
+
+    @Override
+    public void run() {
+        if (!isPeriodic()) {
+            super.run();
+            return;
+        }
+
+        if (runAndReset()) {
+            mTriggerTime = mPeriod > 0 ? mTriggerTime + mPeriod : System.nanoTime() - mPeriod;
+
+            mTaskManager.schedule(this);
+        }
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        if (!super.cancel(mayInterruptIfRunning)) {
+            return false;
+        }
+
+        ScheduledTask scheduledTask = mScheduledTask;
+
+        if (scheduledTask != null) {
+            scheduledTask.cancel();
+        }
+
+        return true;
+    }
+
+    @Override
+    public long getDelay(TimeUnit unit) {
+        return unit.convert(mTriggerTime - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public int compareTo(Delayed other) {
+        if (other == this) {
+            return 0;
+        }
+
+        long difference = getDelay(TimeUnit.NANOSECONDS) - other.getDelay(TimeUnit.NANOSECONDS);
+
+        return difference < 0 ? -1 : (difference > 0 ? 1 : 0);
+    }
+
+}
@@ -0,0 +1,269 @@
+package com.yashoid.office.task;
+
+import com.yashoid.office.office.Office;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * A strand on a section. Its tasks run one at a time in the order they were executed, while the
+ * strands of other keys run in parallel on the section's workers. No thread is kept for a strand.
+ * Only one turn of it is assigned to the section at a time and every turn runs one task, so a busy
+ * strand does not hold on to a worker.
+ *
+ * A strand is only referenced by the section while it has tasks, so an idle strand that nobody
+ * holds is garbage collected. When the section does not take a turn, because it is full and
+ * rejects or drops it, the strand's pending tasks are dropped and the ones that listen for it, like
+ * futures, are told.
+ */
+class SerialExecutor implements Executor {
+
+    /**
+     * Hands out one strand per section and key for as long as it is alive.
+     */
+    static class Cache {
+
+        private TaskManager mTaskManager;
+
+        private ConcurrentHashMap<Key, ExecutorReference> mExecutors = new ConcurrentHashMap<>();
+        private ReferenceQueue<SerialExecutor> mCollectedExecutors = new ReferenceQueue<>();
+
+        Cache(TaskManager taskManager) {
+            mTaskManager = taskManager;
+        }
+
+        SerialExecutor get(String section, Object key) {
+            if (key == null) {
+                throw new IllegalArgumentException("Key can not be null.");
+            }
+
+            removeCollectedExecutors();
+
+            Key executorKey = new Key(section, key);
+
+            while (true) {
+                ExecutorReference reference = mExecutors.get(executorKey);
+
+                SerialExecutor executor = reference == null ? null : reference.get();
+
+                if (executor != null) {
+                    return executor;
+                }
+
+                executor = new SerialExecutor(mTaskManager, section);
+
+                ExecutorReference newReference = new ExecutorReference(executorKey, executor, mCollectedExecutors);
+
+                if (reference == null ? mExecutors.putIfAbsent(executorKey, newReference) == null :
+                        mExecutors.replace(executorKey, reference, newReference)) {
+                    return executor;
+                }
+            }
+        }
+
+        private void removeCollectedExecutors() {
+            Reference<? extends SerialExecutor> reference;
+
+            while ((reference = mCollectedExecutors.poll()) != null) {
+                mExecutors.remove(((ExecutorReference) reference).mKey, reference);
+            }
+        }
+
+    }
+
+    private static class Key {
+
+        private String mSection;
+        private Object mKey;
+
+        private Key(String section, Object key) {
+            mSection = section;
+            mKey = key;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+
+            Key other = (Key) obj;
+
+            return mSection.equals(other.mSection) && mKey.equals(other.mKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * mSection.hashCode() + mKey.hashCode();
+        }
+
+    }
+
+    private static class ExecutorReference extends WeakReference<SerialExecutor> {
+
+        private Key mKey;
+
+        private ExecutorReference(Key key, SerialExecutor executor, ReferenceQueue<SerialExecutor> queue) {
+            super(executor, queue);
+
+            mKey = key;
+        }
+
+    }
+
+    private TaskManager mTaskManager;
+    private String mSection;
+
+    private final ArrayDeque<Runnable> mTasks = new ArrayDeque<>();
+    private boolean mIsScheduled = false;
+
+    // The thread that runs the current turn and whether the section ran the next turn inline on it.
+    private Thread mTurnThread = null;
+    private boolean mIsTurnRepeated = false;
+
+    private Turn mTurn = new Turn();
+
+    private SerialExecutor(TaskManager taskManager, String section) {
+        mTaskManager = taskManager;
+        mSection = section;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (task == null) {
+            throw new NullPointerException();
+        }
+
+        synchronized (mTasks) {
+            mTasks.offer(task);
+
+            if (mIsScheduled) {
+                return;
+            }
+
+            mIsScheduled = true;
+        }
+
+        try {
+            mTaskManager.runTask(mSection, mTurn, 0);
+        } catch (RuntimeException e) {
+            synchronized (mTasks) {
+                mTasks.removeLastOccurrence(task);
+            }
+
+            // The tasks that other threads executed meanwhile have no turn either.
+            dropBacklog();
+
+            throw e;
+        }
+    }
+
+    /**
+     *
+     * @return true if the section ran the turn inline, for example when it is full and the caller
+     * runs. The current turn then goes on with the next task instead of recursing.
+     */
+    private boolean scheduleNextTurn() {
+        synchronized (mTasks) {
+            if (mTasks.isEmpty()) {
+                mIsScheduled = false;
+                return false;
+            }
+
+            mIsTurnRepeated = false;
+        }
+
+        try {
+            mTaskManager.runTask(mSection, mTurn, 0);
+        } catch (RuntimeException e) {
+            // The section is full and rejects the turn.
+            dropBacklog();
+            return false;
+        }
+
+        synchronized (mTasks) {
+            return mIsTurnRepeated && mTurnThread == Thread.currentThread();
+        }
+    }
+
+    /**
+     * Nothing runs the pending tasks once the strand has no turn, and the section stops referencing
+     * it. So they are dropped and the ones that listen for it are told.
+     */
+    private void dropBacklog() {
+        ArrayList<Runnable> tasks;
+
+        synchronized (mTasks) {
+            tasks = new ArrayList<>(mTasks);
+
+            mTasks.clear();
+
+            mIsScheduled = false;
+        }
+
+        for (Runnable task: tasks) {
+            if (task instanceof Office.SectionDescription.OnTaskRejectedListener) {
+                ((Office.SectionDescription.OnTaskRejectedListener) task).onTaskRejected(mSection, task);
+            }
+        }
+    }
+
+    /**
+     * Runs the strand's next task, and the ones after it for as long as the section runs the next
+     * turn inline. It is told when the section drops it instead.
+     */
+    private class Turn implements Runnable, Office.SectionDescription.OnTaskRejectedListener {
+
+        @Override
+        public void run() {
+            Thread thread = Thread.currentThread();
+
+            synchronized (mTasks) {
+                if (mTurnThread == thread) {
+                    // Run inline while this thread schedules the next turn.
+                    mIsTurnRepeated = true;
+                    return;
+                }
+
+                mTurnThread = thread;
+            }
+
+            try {
+                do {
+                    Runnable task;
+
+                    synchronized (mTasks) {
+                        task = mTasks.poll();
+                    }
+
+                    try {
+                        if (task != null) {
+                            task.run();
+                        }
+                    } catch (Throwable t) {
+                        // Reported here, so the turn goes on with the strand's next task.
+                        thread.getUncaughtExceptionHandler().uncaughtException(thread, t);
+                    }
+                } while (scheduleNextTurn());
+            } finally {
+                synchronized (mTasks) {
+                    if (mTurnThread == thread) {
+                        mTurnThread = null;
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void onTaskRejected(String section, Runnable task) {
+            dropBacklog();
+        }
+
+    }
+
+}
@@ -1,12 +1,14 @@
 package com.yashoid.office.task;
 
+import com.yashoid.office.office.SchedulingPolicy;
+import com.yashoid.office.trace.Tracer;
 import com.yashoid.office.util.FlexiblePool;
 
 /**
  * Created by Yashar on 4/13/2017.
  */
 
-public class Task implements Runnable {
+public class Task implements Runnable, SchedulingPolicy.FairShareTask {
 
     public static final int STATE_CREATED = 0;
     public static final int STATE_PROCESSED = 1;
@@ -15,7 +17,7 @@ public class Task implements Runnable {
     public static final int STATE_EXECUTED = 4;
     public static final int STATE_RELEASED = 5;
 
-    private static FlexiblePool<Task> mPool = null;
+    private static volatile FlexiblePool<Task> mPool = null;
 
     public interface TaskPerformer {
 
@@ -41,26 +43,40 @@ public class Task implements Runnable {
 
     private static FlexiblePool<Task> getPool() {
         if (mPool == null) {
-            mPool = new FlexiblePool<Task>() {
-
-                @Override
-                protected Task newInstance() {
-                    return new Task();
-                }
-
-                @Override
-                protected void onInstanceReleased(Task instance) {
-                    instance.mPerformer = null;
-//                    instance.mIsScheduled = false;
-                    instance.mState = STATE_RELEASED;
+            synchronized (Task.class) {
+                if (mPool == null) {
+                    mPool = newPool();
                 }
-
-            };
+            }
         }
 
         return mPool;
     }
 
+    private static FlexiblePool<Task> newPool() {
+        return new FlexiblePool<Task>() {
+
+            @Override
+            protected Task newInstance() {
+                return new Task();
+            }
+
+            @Override
+            protected boolean markReleased(Task instance) {
+                return instance.markReleased();
+            }
+
+            @Override
+            protected void onInstanceReleased(Task instance) {
+                instance.mPerformer = null;
+                instance.mFairShareOwner = null;
+//                instance.mIsScheduled = false;
+                instance.mState = STATE_RELEASED;
+            }
+
+        };
+    }
+
     private String mSection;
 
     private TaskPerformer mPerformer = null;
@@ -68,6 +84,9 @@ public class Task implements Runnable {
 
     private int mPriority;
 
+    private Object mFairShareOwner;
+    private int mFairShareWeight;
+
 //    private boolean mIsScheduled = false;
     private int mState;
 
@@ -83,6 +102,9 @@ public class Task implements Runnable {
 
         mPriority = priority;
 
+        mFairShareOwner = null;
+        mFairShareWeight = 1;
+
         mState = STATE_CREATED;
     }
 
@@ -98,6 +120,25 @@ public class Task implements Runnable {
         return mPriority;
     }
 
+    /**
+     * Makes the task share its turns with the other tasks of the owner in sections with the fair
+     * share scheduling policy.
+     */
+    public void setFairShare(Object owner, int weight) {
+        mFairShareOwner = owner;
+        mFairShareWeight = weight;
+    }
+
+    @Override
+    public Object getFairShareOwner() {
+        return mFairShareOwner;
+    }
+
+    @Override
+    public int getFairShareWeight() {
+        return mFairShareWeight;
+    }
+
     @Override
     public void run() {
         if (mPerformer == null) {
@@ -119,10 +160,26 @@ public class Task implements Runnable {
 
     public synchronized void setState(int state) {
         mState = state;
+
+        Tracer.onTaskStateChanged(mSection, mId, state);
     }
 
     public synchronized int getState() {
         return mState;
     }
 
+    /**
+     *
+     * @return false if the task is already released.
+     */
+    private synchronized boolean markReleased() {
+        if (mState == STATE_RELEASED) {
+            return false;
+        }
+
+        mState = STATE_RELEASED;
+
+        return true;
+    }
+
 }
@@ -0,0 +1,327 @@
+package com.yashoid.office.task;
+
+import com.yashoid.office.office.Office;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by Yashar on 9/9/2017.
+ */
+
+class TaskExecutor extends AbstractExecutorService implements ScheduledExecutorService {
+
+    private TaskManager mTaskManager;
+    private String mSection;
+    private int mPriority;
+    private Office.SectionDescription.OnTaskRejectedListener mOnTaskRejectedListener;
+
+    private boolean mIsShutdown = false;
+
+    private ArrayList<RunnableHolder> mPendingTasks;
+    private ArrayList<RunnableHolder> mRunningTasks;
+    private Object mTaskLock = new Object();
+
+    private Semaphore mTerminationSemaphore = new Semaphore(0);
+
+    protected TaskExecutor(TaskManager taskManager, String section, int priority,
+                           Office.SectionDescription.OnTaskRejectedListener listener) {
+        mTaskManager = taskManager;
+
+        mSection = section;
+        mPriority = priority;
+        mOnTaskRejectedListener = listener;
+
+        mPendingTasks = new ArrayList<>();
+        mRunningTasks = new ArrayList<>();
+    }
+
+    @Override
+    public void shutdown() {
+        shutdownNow();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        synchronized (mTaskLock) {
+            if (isShutdown()) {
+                return new ArrayList<>(0);
+            }
+
+            mIsShutdown = true;
+
+            ArrayList<Runnable> canceledTasks = new ArrayList<>(mPendingTasks.size());
+
+            // Canceling a future removes its holder from the pending tasks.
+            for (RunnableHolder runnable: new ArrayList<>(mPendingTasks)) {
+                if (runnable.future != null) {
+                    if (runnable.future.cancel(false)) {
+                        canceledTasks.add(runnable.runnable);
+                    }
+                }
+                else if (mTaskManager.cancelTask(mSection, runnable, mPriority)) {
+                    mPendingTasks.remove(runnable);
+
+                    canceledTasks.add(runnable.runnable);
+                }
+            }
+
+            checkTermination();
+
+            return canceledTasks;
+        }
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return mIsShutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        synchronized (mTaskLock) {
+            return mPendingTasks.isEmpty() && mRunningTasks.isEmpty();
+        }
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        if (isTerminated()) {
+            return true;
+        }
+
+        return mTerminationSemaphore.tryAcquire(1, timeout, unit);
+    }
+
+    private void checkTermination() {
+        if (isShutdown() && isTerminated()) {
+            mTerminationSemaphore.release(1);
+        }
+    }
+
+    /**
+     * A task rejected by a full section, or submitted after shutdown, goes to the executor's
+     * OnTaskRejectedListener if it has one. Otherwise a rejection by the section throws its
+     * SectionOverflowException and a task submitted after shutdown a RejectedExecutionException.
+     */
+    @Override
+    public void execute(Runnable command) {
+        RunnableHolder runnableHolder;
+
+        synchronized (mTaskLock) {
+            if (isShutdown()) {
+                if (mOnTaskRejectedListener == null) {
+                    throw new RejectedExecutionException("Executor is shut down.");
+                }
+
+                mOnTaskRejectedListener.onTaskRejected(mSection, command);
+
+                return;
+            }
+
+            runnableHolder = new RunnableHolder(command);
+
+            mPendingTasks.add(runnableHolder);
+        }
+
+        // Not holding the lock, a full section may block until a running task makes room.
+        try {
+            mTaskManager.runTask(mSection, runnableHolder, mPriority);
+        } catch (RejectedExecutionException e) {
+            runnableHolder.onRemoved();
+
+            if (mOnTaskRejectedListener == null) {
+                throw e;
+            }
+
+            mOnTaskRejectedListener.onTaskRejected(mSection, command);
+        }
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        return schedule(command, TaskManager.triggerTime(delay, unit), 0);
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(final Callable<V> callable, long delay, TimeUnit unit) {
+        synchronized (mTaskLock) {
+            if (isShutdown()) {
+                throw new RejectedExecutionException("Executor is shut down.");
+            }
+
+            final RunnableHolder runnableHolder = new RunnableHolder(null, false);
+
+            ScheduledTaskFuture<V> future = new HeldTaskFuture<>(runnableHolder, new Callable<V>() {
+
+                @Override
+                public V call() throws Exception {
+                    runnableHolder.onStart();
+
+                    boolean finished = false;
+
+                    try {
+                        V result = callable.call();
+
+                        finished = true;
+
+                        return result;
+                    } finally {
+                        runnableHolder.onFinish(finished);
+                    }
+                }
+
+            }, TaskManager.triggerTime(delay, unit), 0);
+
+            runnableHolder.runnable = future;
+            runnableHolder.future = future;
+
+            mPendingTasks.add(runnableHolder);
+
+            return mTaskManager.schedule(future);
+        }
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("Period must be positive.");
+        }
+
+        return schedule(command, TaskManager.triggerTime(initialDelay, unit), unit.toNanos(period));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+        if (delay <= 0) {
+            throw new IllegalArgumentException("Delay must be positive.");
+        }
+
+        return schedule(command, TaskManager.triggerTime(initialDelay, unit), -unit.toNanos(delay));
+    }
+
+    private ScheduledFuture<?> schedule(Runnable command, long triggerTime, long period) {
+        synchronized (mTaskLock) {
+            if (isShutdown()) {
+                throw new RejectedExecutionException("Executor is shut down.");
+            }
+
+            RunnableHolder runnableHolder = new RunnableHolder(command, period != 0);
+
+            ScheduledTaskFuture<Void> future = new HeldTaskFuture<>(runnableHolder,
+                    Executors.<Void>callable(runnableHolder, null), triggerTime, period);
+
+            runnableHolder.future = future;
+
+            mPendingTasks.add(runnableHolder);
+
+            return mTaskManager.schedule(future);
+        }
+    }
+
+    /**
+     * Lets go of its holder once it is done, also when it is canceled directly or rejected.
+     */
+    private class HeldTaskFuture<V> extends ScheduledTaskFuture<V> {
+
+        private RunnableHolder mRunnableHolder;
+
+        private HeldTaskFuture(RunnableHolder runnableHolder, Callable<V> callable, long triggerTime, long period) {
+            super(mTaskManager, mSection, mPriority, callable, triggerTime, period);
+
+            mRunnableHolder = runnableHolder;
+        }
+
+        @Override
+        protected void done() {
+            super.done();
+
+            mRunnableHolder.onRemoved();
+        }
+
+    }
+
+    private class RunnableHolder implements Runnable, Office.SectionDescription.OnTaskRejectedListener {
+
+        private Runnable runnable;
+
+        // Set for scheduled tasks. Canceling it also stops a periodic task.
+        private ScheduledFuture<?> future = null;
+
+        // Periodic tasks stay pending between the runs.
+        private boolean periodic;
+
+        private RunnableHolder(Runnable runnable) {
+            this(runnable, false);
+        }
+
+        private RunnableHolder(Runnable runnable, boolean periodic) {
+            this.runnable = runnable;
+            this.periodic = periodic;
+        }
+
+        @Override
+        public void run() {
+            onStart();
+
+            boolean finished = false;
+
+            try {
+                runnable.run();
+
+                finished = true;
+            } finally {
+                onFinish(finished);
+            }
+        }
+
+        /**
+         * Called when a full section drops the task.
+         */
+        @Override
+        public void onTaskRejected(String section, Runnable task) {
+            onRemoved();
+        }
+
+        private void onRemoved() {
+            synchronized (mTaskLock) {
+                mPendingTasks.remove(this);
+
+                checkTermination();
+            }
+        }
+
+        private void onStart() {
+            synchronized (mTaskLock) {
+                if (!periodic) {
+                    mPendingTasks.remove(this);
+                }
+
+                mRunningTasks.add(this);
+            }
+        }
+
+        private void onFinish(boolean finished) {
+            synchronized (mTaskLock) {
+                if (!finished) {
+                    // A periodic task stops at its first exception.
+                    mPendingTasks.remove(this);
+                }
+
+                mRunningTasks.remove(this);
+
+                checkTermination();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,191 @@
+package com.yashoid.office.task;
+
+import com.yashoid.office.office.Office;
+import com.yashoid.office.office.SectionOverflowException;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * The result of a task submitted with TaskManager.submit(). Continuations are handed to their
+ * section when the task finishes, so no thread is held while waiting for the result. If the task
+ * fails or is canceled its continuations are completed the same way without running.
+ *
+ * Canceling a task that has not started removes it from its section's queue. A task that a full
+ * section drops or rejects fails with a SectionOverflowException.
+ */
+public class TaskFuture<T> extends FutureTask<T> implements Office.SectionDescription.OnTaskRejectedListener {
+
+    public interface Continuation<T, R> {
+
+        R apply(T result) throws Exception;
+
+    }
+
+    private TaskManager mTaskManager;
+    private String mSection;
+    private int mPriority;
+
+    private ArrayList<TaskFuture<?>> mContinuations = null;
+    private boolean mIsDone = false;
+
+    private final Object mLock = new Object();
+
+    protected TaskFuture(TaskManager taskManager, String section, int priority, Callable<T> callable) {
+        super(callable);
+
+        mTaskManager = taskManager;
+        mSection = section;
+        mPriority = priority;
+    }
+
+    public String getSection() {
+        return mSection;
+    }
+
+    public int getPriority() {
+        return mPriority;
+    }
+
+    /**
+     * Runs the task on the given section after this task has completed normally.
+     */
+    public TaskFuture<Void> thenRunOn(String section, final Runnable task, int priority) {
+        return then(new TaskFuture<Void>(mTaskManager, section, priority, new Callable<Void>() {
+
+            @Override
+            public Void call() throws Exception {
+                task.run();
+                return null;
+            }
+
+        }));
+    }
+
+    public TaskFuture<Void> thenRunOn(String section, Runnable task) {
+        return thenRunOn(section, task, mPriority);
+    }
+
+    /**
+     * Passes the result of this task to the continuation on the given section after this task has
+     * completed normally.
+     */
+    public <R> TaskFuture<R> thenApplyOn(String section, final Continuation<? super T, ? extends R> continuation,
+                                         int priority) {
+        return then(new TaskFuture<R>(mTaskManager, section, priority, new Callable<R>() {
+
+            @Override
+            public R call() throws Exception {
+                return continuation.apply(getResult());
+            }
+
+        }));
+    }
+
+    public <R> TaskFuture<R> thenApplyOn(String section, Continuation<? super T, ? extends R> continuation) {
+        return thenApplyOn(section, continuation, mPriority);
+    }
+
+    /**
+     *
+     * @param mayInterruptIfRunning
+     * @return true if the task has been canceled before finishing.
+     */
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        if (!super.cancel(mayInterruptIfRunning)) {
+            return false;
+        }
+
+        mTaskManager.cancelTask(mSection, this, mPriority);
+
+        return true;
+    }
+
+    @Override
+    public void onTaskRejected(String section, Runnable task) {
+        reject(new SectionOverflowException("Section '" + section + "' dropped the task."));
+    }
+
+    void reject(RejectedExecutionException e) {
+        setException(e);
+    }
+
+    @Override
+    protected void done() {
+        ArrayList<TaskFuture<?>> continuations;
+
+        synchronized (mLock) {
+            mIsDone = true;
+
+            continuations = mContinuations;
+
+            mContinuations = null;
+        }
+
+        if (continuations != null) {
+            for (TaskFuture<?> continuation: continuations) {
+                start(continuation);
+            }
+        }
+    }
+
+    private <R> TaskFuture<R> then(TaskFuture<R> continuation) {
+        synchronized (mLock) {
+            if (!mIsDone) {
+                if (mContinuations == null) {
+                    mContinuations = new ArrayList<>(2);
+                }
+
+                mContinuations.add(continuation);
+
+                return continuation;
+            }
+        }
+
+        start(continuation);
+
+        return continuation;
+    }
+
+    private void start(TaskFuture<?> continuation) {
+        if (continuation.isDone()) {
+            // Canceled before this task finished.
+            return;
+        }
+
+        if (isCancelled()) {
+            continuation.cancel(false);
+            return;
+        }
+
+        try {
+            get();
+        } catch (ExecutionException e) {
+            continuation.setException(e.getCause());
+            return;
+        } catch (InterruptedException e) {
+            // Not possible, the task is done.
+        }
+
+        try {
+            mTaskManager.runTask(continuation.mSection, continuation, continuation.mPriority);
+        } catch (RejectedExecutionException e) {
+            continuation.reject(e);
+        }
+    }
+
+    private T getResult() throws Exception {
+        try {
+            return get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+
+            throw cause instanceof Exception ? (Exception) cause : e;
+        }
+    }
+
+}
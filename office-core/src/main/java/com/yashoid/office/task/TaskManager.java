@@ -0,0 +1,450 @@
+package com.yashoid.office.task;
+
+import com.yashoid.office.office.Office;
+import com.yashoid.office.office.ScheduledTask;
+import com.yashoid.office.office.SectionStats;
+import com.yashoid.office.platform.MainExecutor;
+import com.yashoid.office.platform.Platform;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by Yashar on 4/13/2017.
+ */
+
+public class TaskManager {
+
+    public static final String MAIN = "main";
+    public static final String IMMEDIATELY = "immediately";
+
+    public static final String NETWORK = "network";
+    public static final String DATABASE_READ = "data_read";
+    public static final String DATABASE_READWRITE = "data_readwrite";
+    public static final String CALCULATION = "calculation";
+
+    private Office mOffice;
+
+    private ArrayList<Office.SectionDescription> mSectionDescriptions;
+
+    private SerialExecutor.Cache mSerialExecutors = new SerialExecutor.Cache(this);
+
+    public TaskManager(Office.SectionDescription... sectionDescriptions) {
+        this(Platform.get(), null, sectionDescriptions);
+    }
+
+    /**
+     *
+     * @param platform Provides the threads of the sections.
+     * @param mainExecutor Runs the tasks of the MAIN section. Taken from the platform if null.
+     * @param sectionDescriptions
+     */
+    public TaskManager(Platform platform, MainExecutor mainExecutor, Office.SectionDescription... sectionDescriptions) {
+        if (mainExecutor == null) {
+            mainExecutor = platform.newMainExecutor();
+        }
+
+        mOffice = new Office(platform, mainExecutor, 0, sectionDescriptions);
+
+        mSectionDescriptions = new ArrayList<>(sectionDescriptions.length);
+        Collections.addAll(mSectionDescriptions, sectionDescriptions);
+    }
+
+    public void addSection(String name, int workerCount) {
+        addSection(new Office.SectionDescription(name, workerCount));
+    }
+
+    public void addSection(Office.SectionDescription sectionDescription) {
+        synchronized (mSectionDescriptions) {
+            mOffice.addSection(sectionDescription);
+
+            mSectionDescriptions.add(sectionDescription);
+        }
+    }
+
+    /**
+     * Stops all the workers. Pending tasks are dropped and no more tasks are accepted.
+     */
+    public void close() {
+        mOffice.close();
+    }
+
+    public List<Office.SectionDescription> getSectionDescriptions() {
+        synchronized (mSectionDescriptions) {
+            return Collections.unmodifiableList(mSectionDescriptions);
+        }
+    }
+
+    /**
+     *
+     * @param section
+     * @return the number of workers the section is currently borrowing from other sections.
+     */
+    public int getBorrowedWorkerCount(String section) {
+        return mOffice.getBorrowedEmployeeCount(section);
+    }
+
+    /**
+     *
+     * @param section
+     * @return the number of the section's workers that are currently lent to other sections.
+     */
+    public int getLentWorkerCount(String section) {
+        return mOffice.getLentEmployeeCount(section);
+    }
+
+    /**
+     * Statistics are always recorded. Reading them sums the counters of the section, so avoid
+     * calling this in a tight loop.
+     *
+     * @param section
+     * @return a snapshot of the section's task counts, queue depth and wait and run time histograms.
+     */
+    public SectionStats getSectionStats(String section) {
+        return mOffice.getSectionStats(section);
+    }
+
+    public ExecutorService getExecutor(String section, int priority) {
+        return new TaskExecutor(this, section, priority, null);
+    }
+
+    /**
+     * The listener plays the part of ThreadPoolExecutor's RejectedExecutionHandler. It is told about
+     * the tasks that a full section rejects and the ones executed after shutdown. Without a listener
+     * the rejection throws a SectionOverflowException, like AbortPolicy. Caller runs and discard
+     * oldest are overflow policies of the section.
+     */
+    public ExecutorService getExecutor(String section, int priority, Office.SectionDescription.OnTaskRejectedListener listener) {
+        return new TaskExecutor(this, section, priority, listener);
+    }
+
+    public ExecutorService getExecutor(String section) {
+        return getExecutor(section, 0);
+    }
+
+    /**
+     * Returns the strand of the key on the section. Its tasks run one at a time in the order they
+     * were executed, while the strands of other keys run in parallel on the section's workers. The
+     * same strand is returned for a key while it is referenced or has tasks. Idle strands are
+     * garbage collected, so there can be one per entity.
+     *
+     * @param section
+     * @param key For example the id of the user whose writes must stay in order.
+     */
+    public Executor getSerialExecutor(String section, Object key) {
+        return mSerialExecutors.get(section, key);
+    }
+
+    public void runTask(String section, Runnable task, int priority) {
+        if (MAIN.equals(section)) {
+            mOffice.runOnMainThread(task);
+            return;
+        }
+
+        if (IMMEDIATELY.equals(section)) {
+            runTaskImmediately(task);
+            return;
+        }
+
+        mOffice.assignTask(section, task, priority);
+    }
+
+    /**
+     * Runs the task on a section with keyed concurrency limits. It starts once fewer than the
+     * section's limit of tasks with the same key are running. Tasks of the other keys run
+     * meanwhile.
+     *
+     * @param section
+     * @param key Groups the tasks that share a limit, for example the host of a request.
+     * @param task
+     * @param priority
+     */
+    public void runTask(String section, Object key, Runnable task, int priority) {
+        mOffice.assignTask(section, key, task, priority);
+    }
+
+    /**
+     * Runs the task on a section with deadline scheduling. Deadline tasks run earliest deadline first
+     * and ahead of the section's tasks without a deadline. What happens to a task that is still
+     * pending at its deadline depends on the section's expired task policy.
+     *
+     * @param section
+     * @param task
+     * @param deadline The System.nanoTime() by which the task should be done, for example
+     *                 System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(200).
+     */
+    public void runTaskWithDeadline(String section, Runnable task, long deadline) {
+        mOffice.assignTaskWithDeadline(section, task, deadline);
+    }
+
+    /**
+     * Queues all the tasks in one step and starts as many of them as there are workers to run them.
+     */
+    public void runTasks(String section, Collection<? extends Runnable> tasks, int priority) {
+        if (MAIN.equals(section)) {
+            for (Runnable task: tasks) {
+                mOffice.runOnMainThread(task);
+            }
+            return;
+        }
+
+        if (IMMEDIATELY.equals(section)) {
+            for (Runnable task: tasks) {
+                runTaskImmediately(task);
+            }
+            return;
+        }
+
+        mOffice.assignTasks(section, tasks, priority);
+    }
+
+    /**
+     * Runs the callable on the section without blocking the caller. Use the continuations of the
+     * returned future to act on the result on another section.
+     *
+     * @param section
+     * @param callable
+     * @param priority
+     * @return a future that removes the task from the section's queue when canceled.
+     */
+    public <T> TaskFuture<T> submit(String section, Callable<T> callable, int priority) {
+        TaskFuture<T> future = new TaskFuture<>(this, section, priority, callable);
+
+        runTask(section, future, priority);
+
+        return future;
+    }
+
+    public <T> TaskFuture<T> submit(String section, Callable<T> callable) {
+        return submit(section, callable, 0);
+    }
+
+    /**
+     * Runs the task on the section after the delay. Waiting takes no worker. The task enters the
+     * section's queue with its priority when it is due.
+     *
+     * @param section
+     * @param task
+     * @param delay Delay in milliseconds.
+     * @param priority
+     * @return a future to cancel the task with. It fails with a RejectedExecutionException if the
+     * TaskManager is closed.
+     */
+    public ScheduledTaskFuture<Void> schedule(String section, Runnable task, long delay, int priority) {
+        return schedule(section, Executors.<Void>callable(task, null), delay, priority);
+    }
+
+    public <T> ScheduledTaskFuture<T> schedule(String section, Callable<T> callable, long delay, int priority) {
+        return schedule(new ScheduledTaskFuture<T>(this, section, priority, callable,
+                triggerTime(delay, TimeUnit.MILLISECONDS), 0));
+    }
+
+    /**
+     * Runs the task every period milliseconds, starting after initialDelay. A run that is late does
+     * not overlap the next one. The next one starts right after it instead.
+     */
+    public ScheduledTaskFuture<Void> scheduleAtFixedRate(String section, Runnable task, long initialDelay, long period,
+                                                         int priority) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("Period must be positive.");
+        }
+
+        return schedule(new ScheduledTaskFuture<Void>(this, section, priority, Executors.<Void>callable(task, null),
+                triggerTime(initialDelay, TimeUnit.MILLISECONDS), TimeUnit.MILLISECONDS.toNanos(period)));
+    }
+
+    /**
+     * Runs the task after initialDelay and then delay milliseconds after every run finishes.
+     */
+    public ScheduledTaskFuture<Void> scheduleWithFixedDelay(String section, Runnable task, long initialDelay, long delay,
+                                                            int priority) {
+        if (delay <= 0) {
+            throw new IllegalArgumentException("Delay must be positive.");
+        }
+
+        return schedule(new ScheduledTaskFuture<Void>(this, section, priority, Executors.<Void>callable(task, null),
+                triggerTime(initialDelay, TimeUnit.MILLISECONDS), -TimeUnit.MILLISECONDS.toNanos(delay)));
+    }
+
+    <T> ScheduledTaskFuture<T> schedule(final ScheduledTaskFuture<T> future) {
+        ScheduledTask scheduledTask = mOffice.schedule(new Runnable() {
+
+            @Override
+            public void run() {
+                try {
+                    runTask(future.getSection(), future, future.getPriority());
+                } catch (RejectedExecutionException e) {
+                    future.reject(e);
+                }
+            }
+
+        }, future.getTriggerTime());
+
+        if (scheduledTask == null) {
+            future.reject(new RejectedExecutionException("TaskManager is closed."));
+
+            return future;
+        }
+
+        future.setScheduledTask(scheduledTask);
+
+        return future;
+    }
+
+    static long triggerTime(long delay, TimeUnit unit) {
+        return System.nanoTime() + unit.toNanos(Math.max(0, delay));
+    }
+
+    public void runTaskAndWait(String section, Runnable task, int priority) {
+        if (MAIN.equals(section)) {
+            mOffice.runOnMainThreadAndWait(task);
+            return;
+        }
+
+        if (IMMEDIATELY.equals(section)) {
+            runTaskImmediatelyAndWait(task);
+            return;
+        }
+
+        mOffice.assignTaskAndWait(section, task, priority);
+    }
+
+    /**
+     *
+     * @param section
+     * @param task
+     * @param priority
+     * @return true if task has been canceled.
+     */
+    public boolean cancelTask(String section, Runnable task, int priority) {
+        if (MAIN.equals(section)) {
+            mOffice.cancelFromMainThread(task);
+            return true;
+        }
+
+        return mOffice.cancelTask(section, task, priority);
+    }
+
+    /**
+     *
+     * @param section
+     * @param tasks
+     * @param priority
+     * @return the number of tasks that have been canceled.
+     */
+    public int cancelTasks(String section, Collection<? extends Runnable> tasks, int priority) {
+        if (MAIN.equals(section)) {
+            for (Runnable task: tasks) {
+                mOffice.cancelFromMainThread(task);
+            }
+            return tasks.size();
+        }
+
+        return mOffice.cancelTasks(section, tasks, priority);
+    }
+
+    public void runTaskImmediately(Runnable task) {
+        mOffice.performTaskImmediately(task);
+    }
+
+    public void runTaskImmediatelyAndWait(Runnable task) {
+        mOffice.performTaskImmediatelyAndWait(task);
+    }
+
+    public void runTask(Task task) {
+        String section = task.getSection();
+
+        if (section == null) {
+            throw new IllegalStateException("Section is not set on task.");
+        }
+
+        runTask(section, task, task.getPriority());
+    }
+
+    /**
+     * Consecutive tasks with the same section and priority are submitted together.
+     */
+    public void runTasks(Collection<? extends Task> tasks) {
+        for (List<Task> batch: splitBySectionAndPriority(tasks)) {
+            Task task = batch.get(0);
+
+            runTasks(task.getSection(), batch, task.getPriority());
+        }
+    }
+
+    public void runTaskAndWait(Task task) {
+        String section = task.getSection();
+
+        if (section == null) {
+            throw new IllegalStateException("Section is not set on task.");
+        }
+
+        runTaskAndWait(section, task, task.getPriority());
+    }
+
+    /**
+     *
+     * @param task
+     * @return true is task is known to have been canceled.
+     */
+    public boolean cancelTask(Task task) {
+        String section = task.getSection();
+
+        if (section == null) {
+            throw new IllegalStateException("Section is not set on task.");
+        }
+
+        return cancelTask(section, task, task.getPriority());
+    }
+
+    /**
+     *
+     * @param tasks
+     * @return the number of tasks that are known to have been canceled.
+     */
+    public int cancelTasks(Collection<? extends Task> tasks) {
+        int canceledCount = 0;
+
+        for (List<Task> batch: splitBySectionAndPriority(tasks)) {
+            Task task = batch.get(0);
+
+            canceledCount += cancelTasks(task.getSection(), batch, task.getPriority());
+        }
+
+        return canceledCount;
+    }
+
+    private static List<List<Task>> splitBySectionAndPriority(Collection<? extends Task> tasks) {
+        List<List<Task>> batches = new ArrayList<>(1);
+
+        List<Task> batch = null;
+
+        for (Task task: tasks) {
+            String section = task.getSection();
+
+            if (section == null) {
+                throw new IllegalStateException("Section is not set on task.");
+            }
+
+            if (batch == null || !section.equals(batch.get(0).getSection()) || task.getPriority() != batch.get(0).getPriority()) {
+                // Sized by default. A batch that mixes sections or priorities has many small runs.
+                batch = new ArrayList<>();
+
+                batches.add(batch);
+            }
+
+            batch.add(task);
+        }
+
+        return batches;
+    }
+
+}
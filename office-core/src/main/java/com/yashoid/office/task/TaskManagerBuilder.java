@@ -0,0 +1,140 @@
+package com.yashoid.office.task;
+
+import com.yashoid.office.office.Office;
+import com.yashoid.office.platform.MainExecutor;
+import com.yashoid.office.platform.Platform;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Created by Yashar on 9/1/2017.
+ */
+
+public class TaskManagerBuilder {
+
+    private List<Office.SectionDescription> mSectionDescriptions = new ArrayList<>(8);
+
+    private Platform mPlatform = null;
+    private MainExecutor mMainExecutor = null;
+
+    public TaskManagerBuilder() {
+
+    }
+
+    /**
+     * Sets the platform that provides the worker threads. Defaults to Platform.get().
+     */
+    public TaskManagerBuilder setPlatform(Platform platform) {
+        mPlatform = platform;
+
+        return this;
+    }
+
+    /**
+     * Sets the executor of the TaskManager.MAIN section. Defaults to the platform's main executor.
+     */
+    public TaskManagerBuilder setMainExecutor(MainExecutor mainExecutor) {
+        mMainExecutor = mainExecutor;
+
+        return this;
+    }
+
+    public TaskManagerBuilder addSection(String name, int workerCount) {
+        return addSection(name, workerCount, Office.SectionDescription.TYPE_EMPLOYEES);
+    }
+
+    /**
+     * Adds a section whose workers each own a deque of tasks and steal from each other when idle.
+     * Tasks that are run from inside the section are kept on the running worker's deque.
+     */
+    public TaskManagerBuilder addWorkStealingSection(String name, int workerCount) {
+        return addSection(name, workerCount, Office.SectionDescription.TYPE_WORK_STEALING);
+    }
+
+    /**
+     * Adds a section that runs every task on its own virtual thread (a plain thread before JDK 21).
+     * Suits blocking I/O. At most maxConcurrency tasks run at the same time and the rest wait in
+     * priority order.
+     */
+    public TaskManagerBuilder addVirtualSection(String name, int maxConcurrency) {
+        return addSection(name, maxConcurrency, Office.SectionDescription.TYPE_VIRTUAL_THREADS);
+    }
+
+    /**
+     * Adds a section that keeps coreWorkerCount workers and starts more, up to maxWorkerCount, while
+     * tasks are pending. Extra workers stop after being idle for keepAliveTime milliseconds.
+     */
+    public TaskManagerBuilder addElasticSection(String name, int coreWorkerCount, int maxWorkerCount, long keepAliveTime) {
+        return addSection(new Office.SectionDescription.Builder(name, coreWorkerCount)
+                .setMaxEmployeeCount(maxWorkerCount)
+                .setKeepAliveTime(keepAliveTime)
+                .build());
+    }
+
+    private TaskManagerBuilder addSection(String name, int workerCount, int type) {
+        return addSection(new Office.SectionDescription(name, workerCount, type));
+    }
+
+    /**
+     * Adds a section from a full description. Use Office.SectionDescription.Builder to define
+     * options such as borrowing employees from other sections.
+     */
+    public TaskManagerBuilder addSection(Office.SectionDescription sectionDescription) {
+        String name = sectionDescription.name;
+
+        if (name == null) {
+            throw new IllegalArgumentException("Section name can not be null.");
+        }
+
+        if (TaskManager.MAIN.equals(name)) {
+            throw new IllegalArgumentException("Section name is not allowed to be '" + TaskManager.MAIN + "'");
+        }
+
+        if (sectionDescription.maxEmployeeCount <= 0) {
+            throw new IllegalArgumentException("Worker count must be greater than zero.");
+        }
+
+        if (sectionDescription.employeeCount < 0 || sectionDescription.employeeCount > sectionDescription.maxEmployeeCount) {
+            throw new IllegalArgumentException("Core worker count must be between zero and the maximum worker count.");
+        }
+
+        if (sectionDescription.keepAliveTime < 0) {
+            throw new IllegalArgumentException("Keep alive time can not be negative.");
+        }
+
+        if (mSectionDescriptions.contains(sectionDescription)) {
+            throw new IllegalArgumentException("Section '" + name + "' already defined.");
+        }
+
+        mSectionDescriptions.add(sectionDescription);
+
+        return this;
+    }
+
+    public TaskManagerBuilder addNetworkSection(int workerCount) {
+        return addSection(TaskManager.NETWORK, workerCount);
+    }
+
+    public TaskManagerBuilder addDatabaseReadSection(int workerCount) {
+        return addSection(TaskManager.DATABASE_READ, workerCount);
+    }
+
+    public TaskManagerBuilder addDatabaseReadWriteSection(int workerCount) {
+        return addSection(TaskManager.DATABASE_READWRITE, workerCount);
+    }
+
+    public TaskManagerBuilder addCalculationSection(int workerCount) {
+        return addSection(TaskManager.CALCULATION, workerCount);
+    }
+
+    public TaskManager build() {
+        Office.SectionDescription[] sectionDescriptions =
+                mSectionDescriptions.toArray(new Office.SectionDescription[mSectionDescriptions.size()]);
+
+        Platform platform = mPlatform == null ? Platform.get() : mPlatform;
+
+        return new TaskManager(platform, mMainExecutor, sectionDescriptions);
+    }
+
+}
@@ -0,0 +1,204 @@
+package com.yashoid.office.trace;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed size ring of trace events. Writers claim a slot with a single atomic increment and never
+ * block. When the ring is full the oldest events are overwritten. Every slot carries the sequence
+ * number of the event in it, so a reader can skip slots that are being overwritten while it reads.
+ */
+class TraceBuffer {
+
+    private static final long WRITING = -1;
+
+    private int mMask;
+
+    private AtomicLong mCursor = new AtomicLong(0);
+    private AtomicLongArray mSequences;
+
+    private long[] mTimes;
+    private char[] mPhases;
+    private String[] mCategories;
+    private String[] mNames;
+    private long[] mIds;
+    private long[] mThreadIds;
+    private String[] mThreadNames;
+
+    private long mStartTime = System.nanoTime();
+
+    TraceBuffer(int capacity) {
+        int size = 1;
+
+        while (size < capacity) {
+            size <<= 1;
+        }
+
+        mMask = size - 1;
+
+        mSequences = new AtomicLongArray(size);
+
+        for (int i = 0; i < size; i++) {
+            mSequences.set(i, WRITING);
+        }
+
+        mTimes = new long[size];
+        mPhases = new char[size];
+        mCategories = new String[size];
+        mNames = new String[size];
+        mIds = new long[size];
+        mThreadIds = new long[size];
+        mThreadNames = new String[size];
+    }
+
+    void record(char phase, String category, String name, long id) {
+        long time = System.nanoTime();
+        Thread thread = Thread.currentThread();
+
+        long sequence = mCursor.getAndIncrement();
+        int slot = (int) (sequence & mMask);
+
+        mSequences.set(slot, WRITING);
+
+        mTimes[slot] = time;
+        mPhases[slot] = phase;
+        mCategories[slot] = category;
+        mNames[slot] = name;
+        mIds[slot] = id;
+        mThreadIds[slot] = thread.getId();
+        mThreadNames[slot] = thread.getName();
+
+        mSequences.set(slot, sequence);
+    }
+
+    void writeChromeTrace(Writer writer) throws IOException {
+        long end = mCursor.get();
+        long start = Math.max(0, end - mMask - 1);
+
+        Map<Long, String> threadNames = new HashMap<>();
+
+        writer.write("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[");
+
+        boolean first = true;
+
+        for (long sequence = start; sequence < end; sequence++) {
+            int slot = (int) (sequence & mMask);
+
+            if (mSequences.get(slot) != sequence) {
+                continue;
+            }
+
+            long time = mTimes[slot];
+            char phase = mPhases[slot];
+            String category = mCategories[slot];
+            String name = mNames[slot];
+            long id = mIds[slot];
+            long threadId = mThreadIds[slot];
+            String threadName = mThreadNames[slot];
+
+            if (mSequences.get(slot) != sequence) {
+                // Overwritten while we were reading it.
+                continue;
+            }
+
+            if (!first) {
+                writer.write(',');
+            }
+
+            first = false;
+
+            writer.write("{\"ph\":\"");
+            writer.write(phase);
+            writer.write("\",\"cat\":");
+            writeString(writer, category);
+            writer.write(",\"name\":");
+            writeString(writer, name);
+            writer.write(",\"ts\":");
+            writer.write(Double.toString((time - mStartTime) / 1000d));
+            writer.write(",\"pid\":1,\"tid\":");
+            writer.write(Long.toString(threadId));
+
+            if (phase == Tracer.PHASE_ASYNC_BEGIN || phase == Tracer.PHASE_ASYNC_END) {
+                writer.write(",\"id\":\"0x");
+                writer.write(Long.toHexString(id));
+                writer.write('"');
+            }
+            else if (phase == Tracer.PHASE_INSTANT) {
+                writer.write(",\"s\":\"t\",\"args\":{\"id\":");
+                writer.write(Long.toString(id));
+                writer.write('}');
+            }
+            else if (phase == Tracer.PHASE_BEGIN) {
+                writer.write(",\"args\":{\"id\":");
+                writer.write(Long.toString(id));
+                writer.write('}');
+            }
+
+            writer.write('}');
+
+            threadNames.put(threadId, threadName);
+        }
+
+        for (Map.Entry<Long, String> threadName: threadNames.entrySet()) {
+            if (!first) {
+                writer.write(',');
+            }
+
+            first = false;
+
+            writer.write("{\"ph\":\"M\",\"name\":\"thread_name\",\"pid\":1,\"tid\":");
+            writer.write(Long.toString(threadName.getKey()));
+            writer.write(",\"args\":{\"name\":");
+            writeString(writer, threadName.getValue());
+            writer.write("}}");
+        }
+
+        writer.write("]}");
+        writer.flush();
+    }
+
+    private static void writeString(Writer writer, String value) throws IOException {
+        if (value == null) {
+            writer.write("null");
+            return;
+        }
+
+        writer.write('"');
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+
+            switch (c) {
+                case '"':
+                    writer.write("\\\"");
+                    break;
+                case '\\':
+                    writer.write("\\\\");
+                    break;
+                case '\n':
+                    writer.write("\\n");
+                    break;
+                case '\r':
+                    writer.write("\\r");
+                    break;
+                case '\t':
+                    writer.write("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        writer.write(String.format("\\u%04x", (int) c));
+                    }
+                    else {
+                        writer.write(c);
+                    }
+            }
+        }
+
+        writer.write('"');
+    }
+
+}
@@ -0,0 +1,170 @@
+package com.yashoid.office.trace;
+
+import com.yashoid.office.task.Task;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Opt-in recording of the lifecycle of Tasks, TaskGroups and DependencyOperations into a fixed size
+ * lock-free ring buffer. The recorded events can be exported in the Chrome trace event format and
+ * opened in chrome://tracing or ui.perfetto.dev.
+ *
+ * On the timeline a task shows as an async "queued" span from being posted until it starts,
+ * followed by a slice on the thread that runs it. Scheduling a task after another one shows as an
+ * instant event on the scheduling thread. TaskGroups and DependencyOperation runs are async spans.
+ *
+ * Tracing is off by default and costs a single volatile read per event while off.
+ */
+public final class Tracer {
+
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    static final char PHASE_BEGIN = 'B';
+    static final char PHASE_END = 'E';
+    static final char PHASE_ASYNC_BEGIN = 'b';
+    static final char PHASE_ASYNC_END = 'e';
+    static final char PHASE_INSTANT = 'i';
+
+    private static final String CATEGORY_TASK = "task";
+    private static final String CATEGORY_TASK_GROUP = "taskGroup";
+    private static final String CATEGORY_OPERATION = "operation";
+
+    private static final String NAME_PARALLEL_GROUP = "parallel TaskGroup";
+    private static final String NAME_SEQUENTIAL_GROUP = "sequential TaskGroup";
+    private static final String NAME_DEPENDENCY_OPERATION = "DependencyOperation";
+
+    private static volatile TraceBuffer mBuffer = null;
+
+    private static AtomicLong mIdCounter = new AtomicLong(0);
+
+    private Tracer() {
+
+    }
+
+    public static void enable() {
+        enable(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Starts recording into a new buffer. The previous events are dropped.
+     *
+     * @param capacity Number of events to keep. Rounded up to a power of two.
+     */
+    public static void enable(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be greater than zero.");
+        }
+
+        mBuffer = new TraceBuffer(capacity);
+    }
+
+    /**
+     * Stops recording and drops the recorded events.
+     */
+    public static void disable() {
+        mBuffer = null;
+    }
+
+    public static boolean isEnabled() {
+        return mBuffer != null;
+    }
+
+    /**
+     * Writes the recorded events as Chrome trace JSON. Recording may continue while writing.
+     */
+    public static void writeChromeTrace(Writer writer) throws IOException {
+        TraceBuffer buffer = mBuffer;
+
+        if (buffer == null) {
+            writer.write("{\"traceEvents\":[]}");
+            writer.flush();
+            return;
+        }
+
+        buffer.writeChromeTrace(writer);
+    }
+
+    public static String toChromeTrace() {
+        StringWriter writer = new StringWriter();
+
+        try {
+            writeChromeTrace(writer);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+
+        return writer.toString();
+    }
+
+    /**
+     *
+     * @return a unique id to identify the async spans of an object.
+     */
+    public static long nextId() {
+        return mIdCounter.incrementAndGet();
+    }
+
+    public static void onTaskStateChanged(String section, long taskId, int state) {
+        TraceBuffer buffer = mBuffer;
+
+        if (buffer == null) {
+            return;
+        }
+
+        switch (state) {
+            case Task.STATE_PROCESSED:
+                buffer.record(PHASE_INSTANT, CATEGORY_TASK, section, taskId);
+                return;
+            case Task.STATE_POSTED:
+                buffer.record(PHASE_ASYNC_BEGIN, CATEGORY_TASK, section, taskId);
+                return;
+            case Task.STATE_IN_EXECUTION:
+                buffer.record(PHASE_ASYNC_END, CATEGORY_TASK, section, taskId);
+                buffer.record(PHASE_BEGIN, CATEGORY_TASK, section, taskId);
+                return;
+            case Task.STATE_EXECUTED:
+                buffer.record(PHASE_END, CATEGORY_TASK, section, taskId);
+                return;
+        }
+    }
+
+    public static void onTaskGroupStarted(long id, boolean parallel) {
+        TraceBuffer buffer = mBuffer;
+
+        if (buffer != null) {
+            buffer.record(PHASE_ASYNC_BEGIN, CATEGORY_TASK_GROUP, getTaskGroupName(parallel), id);
+        }
+    }
+
+    public static void onTaskGroupFinished(long id, boolean parallel) {
+        TraceBuffer buffer = mBuffer;
+
+        if (buffer != null) {
+            buffer.record(PHASE_ASYNC_END, CATEGORY_TASK_GROUP, getTaskGroupName(parallel), id);
+        }
+    }
+
+    public static void onOperationStarted(long id) {
+        TraceBuffer buffer = mBuffer;
+
+        if (buffer != null) {
+            buffer.record(PHASE_ASYNC_BEGIN, CATEGORY_OPERATION, NAME_DEPENDENCY_OPERATION, id);
+        }
+    }
+
+    public static void onOperationFinished(long id) {
+        TraceBuffer buffer = mBuffer;
+
+        if (buffer != null) {
+            buffer.record(PHASE_ASYNC_END, CATEGORY_OPERATION, NAME_DEPENDENCY_OPERATION, id);
+        }
+    }
+
+    private static String getTaskGroupName(boolean parallel) {
+        return parallel ? NAME_PARALLEL_GROUP : NAME_SEQUENTIAL_GROUP;
+    }
+
+}
@@ -0,0 +1,513 @@
+package com.yashoid.office.util;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A multi-producer/multi-consumer priority queue. Elements with the same priority are kept in a
+ * lock-free FIFO lane and an occupancy bitmap tells which lanes are non empty, so the highest
+ * priority lane is found in O(1). Priorities outside of [MIN_LANE_PRIORITY, MAX_LANE_PRIORITY] are
+ * rare in practice and are kept in a locked overflow map, preserving the ordering of any int
+ * priority.
+ */
+public class BucketedPriorityQueue<T> {
+
+    public interface Filter<T> {
+
+        boolean matches(T element);
+
+    }
+
+    public interface Timestamp<T> {
+
+        long getTimestamp(T element);
+
+    }
+
+    public static final int MIN_LANE_PRIORITY = -32;
+    public static final int MAX_LANE_PRIORITY = 31;
+
+    private static final int LANE_COUNT = MAX_LANE_PRIORITY - MIN_LANE_PRIORITY + 1;
+
+    private ConcurrentLinkedQueue<T>[] mLanes;
+    private AtomicLong mOccupancy = new AtomicLong(0);
+
+    private TreeMap<Integer, ArrayDeque<T>> mOverflowLanes = new TreeMap<>();
+    private AtomicInteger mHighOverflowCount = new AtomicInteger(0);
+    private AtomicInteger mLowOverflowCount = new AtomicInteger(0);
+
+    private AtomicInteger mSize = new AtomicInteger(0);
+
+    public BucketedPriorityQueue() {
+        mLanes = newLanes(LANE_COUNT);
+
+        for (int i = 0; i < LANE_COUNT; i++) {
+            mLanes[i] = new ConcurrentLinkedQueue<>();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> ConcurrentLinkedQueue<T>[] newLanes(int count) {
+        return (ConcurrentLinkedQueue<T>[]) new ConcurrentLinkedQueue<?>[count];
+    }
+
+    public void offer(T element, int priority) {
+        mSize.incrementAndGet();
+
+        if (isLanePriority(priority)) {
+            int lane = priority - MIN_LANE_PRIORITY;
+
+            mLanes[lane].offer(element);
+
+            setLaneOccupied(lane);
+            return;
+        }
+
+        synchronized (mOverflowLanes) {
+            ArrayDeque<T> overflowLane = mOverflowLanes.get(priority);
+
+            if (overflowLane == null) {
+                overflowLane = new ArrayDeque<>(4);
+
+                mOverflowLanes.put(priority, overflowLane);
+            }
+
+            overflowLane.add(element);
+
+            getOverflowCount(priority).incrementAndGet();
+        }
+    }
+
+    /**
+     * Adds the elements in their iteration order. A lane receives the whole batch in one step, so
+     * consumers never see part of it out of order.
+     */
+    public void offerAll(Collection<? extends T> elements, int priority) {
+        if (elements.isEmpty()) {
+            return;
+        }
+
+        mSize.addAndGet(elements.size());
+
+        if (isLanePriority(priority)) {
+            int lane = priority - MIN_LANE_PRIORITY;
+
+            mLanes[lane].addAll(elements);
+
+            setLaneOccupied(lane);
+            return;
+        }
+
+        synchronized (mOverflowLanes) {
+            ArrayDeque<T> overflowLane = mOverflowLanes.get(priority);
+
+            if (overflowLane == null) {
+                overflowLane = new ArrayDeque<>(elements.size());
+
+                mOverflowLanes.put(priority, overflowLane);
+            }
+
+            overflowLane.addAll(elements);
+
+            getOverflowCount(priority).addAndGet(elements.size());
+        }
+    }
+
+    /**
+     *
+     * @return the oldest element with the highest priority or null if the queue is empty.
+     */
+    public T poll() {
+        if (mHighOverflowCount.get() > 0) {
+            T element = pollOverflow(true, true);
+
+            if (element != null) {
+                return element;
+            }
+        }
+
+        while (true) {
+            long occupancy = mOccupancy.get();
+
+            if (occupancy == 0) {
+                break;
+            }
+
+            int lane = 63 - Long.numberOfLeadingZeros(occupancy);
+
+            T element = mLanes[lane].poll();
+
+            if (element != null) {
+                mSize.decrementAndGet();
+
+                return element;
+            }
+
+            // The lane has been drained. Clearing the bit and checking again makes sure a concurrent
+            // offer that has not yet set its bit is never lost.
+            clearLaneOccupied(lane);
+
+            if (!mLanes[lane].isEmpty()) {
+                setLaneOccupied(lane);
+            }
+        }
+
+        if (mLowOverflowCount.get() > 0) {
+            return pollOverflow(false, true);
+        }
+
+        return null;
+    }
+
+    /**
+     *
+     * @return the oldest element with the lowest priority or null if the queue is empty.
+     */
+    public T pollLowest() {
+        if (mLowOverflowCount.get() > 0) {
+            T element = pollOverflow(false, false);
+
+            if (element != null) {
+                return element;
+            }
+        }
+
+        while (true) {
+            long occupancy = mOccupancy.get();
+
+            if (occupancy == 0) {
+                break;
+            }
+
+            int lane = Long.numberOfTrailingZeros(occupancy);
+
+            T element = mLanes[lane].poll();
+
+            if (element != null) {
+                mSize.decrementAndGet();
+
+                return element;
+            }
+
+            clearLaneOccupied(lane);
+
+            if (!mLanes[lane].isEmpty()) {
+                setLaneOccupied(lane);
+            }
+        }
+
+        if (mHighOverflowCount.get() > 0) {
+            return pollOverflow(true, false);
+        }
+
+        return null;
+    }
+
+    /**
+     * Polls with priority aging. The oldest element of every priority gets one priority level for
+     * every agingInterval it has waited and the one with the highest aged priority is taken. Only
+     * the heads of the priorities are compared, so the cost does not depend on the queue length.
+     *
+     * @param now The current time in the unit of the timestamps.
+     * @param agingInterval The waiting time that raises an element by one priority.
+     * @param timestamp Tells when an element was offered.
+     * @return the element with the highest aged priority or null if the queue is empty.
+     */
+    public T poll(long now, long agingInterval, Timestamp<? super T> timestamp) {
+        long bestPriority = Long.MIN_VALUE;
+        int bestLane = -1;
+
+        long occupancy = mOccupancy.get();
+
+        while (occupancy != 0) {
+            int lane = 63 - Long.numberOfLeadingZeros(occupancy);
+
+            occupancy &= ~(1L << lane);
+
+            T head = mLanes[lane].peek();
+
+            if (head == null) {
+                continue;
+            }
+
+            long priority = lane + MIN_LANE_PRIORITY + age(now, timestamp.getTimestamp(head), agingInterval);
+
+            if (priority > bestPriority) {
+                bestPriority = priority;
+                bestLane = lane;
+            }
+        }
+
+        if (mHighOverflowCount.get() > 0 || mLowOverflowCount.get() > 0) {
+            synchronized (mOverflowLanes) {
+                Integer bestOverflowPriority = null;
+
+                for (Map.Entry<Integer, ArrayDeque<T>> entry: mOverflowLanes.descendingMap().entrySet()) {
+                    long priority = entry.getKey() + age(now, timestamp.getTimestamp(entry.getValue().peekFirst()), agingInterval);
+
+                    if (priority > bestPriority) {
+                        bestPriority = priority;
+                        bestOverflowPriority = entry.getKey();
+                    }
+                }
+
+                if (bestOverflowPriority != null) {
+                    ArrayDeque<T> overflowLane = mOverflowLanes.get(bestOverflowPriority);
+
+                    T element = overflowLane.poll();
+
+                    onOverflowElementRemoved(bestOverflowPriority, overflowLane);
+
+                    return element;
+                }
+            }
+        }
+
+        if (bestLane >= 0) {
+            T element = mLanes[bestLane].poll();
+
+            if (element != null) {
+                mSize.decrementAndGet();
+
+                return element;
+            }
+        }
+
+        // Raced with another consumer.
+        return poll();
+    }
+
+    /**
+     *
+     * @param element
+     * @param priority
+     * @return true if the element was found in the lane of the given priority and removed.
+     */
+    public boolean remove(Object element, int priority) {
+        if (isLanePriority(priority)) {
+            if (mLanes[priority - MIN_LANE_PRIORITY].remove(element)) {
+                mSize.decrementAndGet();
+                return true;
+            }
+
+            return false;
+        }
+
+        synchronized (mOverflowLanes) {
+            ArrayDeque<T> overflowLane = mOverflowLanes.get(priority);
+
+            if (overflowLane != null && overflowLane.remove(element)) {
+                onOverflowElementRemoved(priority, overflowLane);
+                return true;
+            }
+
+            return false;
+        }
+    }
+
+    /**
+     *
+     * @param element
+     * @return true if the element was found in any of the lanes and removed.
+     */
+    public boolean remove(Object element) {
+        long occupancy = mOccupancy.get();
+
+        while (occupancy != 0) {
+            int lane = 63 - Long.numberOfLeadingZeros(occupancy);
+
+            if (mLanes[lane].remove(element)) {
+                mSize.decrementAndGet();
+                return true;
+            }
+
+            occupancy &= ~(1L << lane);
+        }
+
+        if (mHighOverflowCount.get() == 0 && mLowOverflowCount.get() == 0) {
+            return false;
+        }
+
+        synchronized (mOverflowLanes) {
+            for (Map.Entry<Integer, ArrayDeque<T>> entry: mOverflowLanes.entrySet()) {
+                if (entry.getValue().remove(element)) {
+                    onOverflowElementRemoved(entry.getKey(), entry.getValue());
+                    return true;
+                }
+            }
+
+            return false;
+        }
+    }
+
+    /**
+     * Removes the matching elements of the lane of the given priority.
+     *
+     * @param filter
+     * @param priority
+     * @return the number of removed elements.
+     */
+    public int removeAll(Filter<? super T> filter, int priority) {
+        int removedCount = 0;
+
+        if (isLanePriority(priority)) {
+            ConcurrentLinkedQueue<T> lane = mLanes[priority - MIN_LANE_PRIORITY];
+
+            for (T element: lane) {
+                // The iterator's remove does not fail when a consumer has already polled the
+                // element, so only count what remove() really takes out.
+                if (filter.matches(element) && lane.remove(element)) {
+                    removedCount++;
+                }
+            }
+
+            mSize.addAndGet(-removedCount);
+
+            return removedCount;
+        }
+
+        synchronized (mOverflowLanes) {
+            ArrayDeque<T> overflowLane = mOverflowLanes.get(priority);
+
+            if (overflowLane == null) {
+                return 0;
+            }
+
+            Iterator<T> iterator = overflowLane.iterator();
+
+            while (iterator.hasNext()) {
+                if (filter.matches(iterator.next())) {
+                    iterator.remove();
+
+                    removedCount++;
+                }
+            }
+
+            mSize.addAndGet(-removedCount);
+
+            getOverflowCount(priority).addAndGet(-removedCount);
+
+            if (overflowLane.isEmpty()) {
+                mOverflowLanes.remove(priority);
+            }
+
+            return removedCount;
+        }
+    }
+
+    public int size() {
+        return Math.max(0, mSize.get());
+    }
+
+    public boolean isEmpty() {
+        return mSize.get() <= 0;
+    }
+
+    public void clear() {
+        for (int i = 0; i < LANE_COUNT; i++) {
+            ConcurrentLinkedQueue<T> lane = mLanes[i];
+
+            while (lane.poll() != null) {
+                mSize.decrementAndGet();
+            }
+        }
+
+        synchronized (mOverflowLanes) {
+            for (ArrayDeque<T> overflowLane: mOverflowLanes.values()) {
+                mSize.addAndGet(-overflowLane.size());
+            }
+
+            mOverflowLanes.clear();
+
+            mHighOverflowCount.set(0);
+            mLowOverflowCount.set(0);
+        }
+    }
+
+    /**
+     * Polls the oldest element of the highest or the lowest priority on one side of the lanes.
+     */
+    private T pollOverflow(boolean high, boolean highest) {
+        synchronized (mOverflowLanes) {
+            Map.Entry<Integer, ArrayDeque<T>> entry;
+
+            if (high) {
+                entry = highest ? mOverflowLanes.lastEntry() : mOverflowLanes.higherEntry(MAX_LANE_PRIORITY);
+            }
+            else {
+                entry = highest ? mOverflowLanes.lowerEntry(MIN_LANE_PRIORITY) : mOverflowLanes.firstEntry();
+            }
+
+            if (entry == null) {
+                return null;
+            }
+
+            int priority = entry.getKey();
+
+            if (high != priority > MAX_LANE_PRIORITY) {
+                return null;
+            }
+
+            ArrayDeque<T> overflowLane = entry.getValue();
+
+            T element = overflowLane.poll();
+
+            onOverflowElementRemoved(priority, overflowLane);
+
+            return element;
+        }
+    }
+
+    private void onOverflowElementRemoved(int priority, ArrayDeque<T> overflowLane) {
+        mSize.decrementAndGet();
+
+        getOverflowCount(priority).decrementAndGet();
+
+        if (overflowLane.isEmpty()) {
+            mOverflowLanes.remove(priority);
+        }
+    }
+
+    private static long age(long now, long timestamp, long agingInterval) {
+        return Math.max(0, now - timestamp) / agingInterval;
+    }
+
+    private AtomicInteger getOverflowCount(int priority) {
+        return priority > MAX_LANE_PRIORITY ? mHighOverflowCount : mLowOverflowCount;
+    }
+
+    private void setLaneOccupied(int lane) {
+        long bit = 1L << lane;
+
+        while (true) {
+            long occupancy = mOccupancy.get();
+
+            if ((occupancy & bit) != 0 || mOccupancy.compareAndSet(occupancy, occupancy | bit)) {
+                return;
+            }
+        }
+    }
+
+    private void clearLaneOccupied(int lane) {
+        long bit = 1L << lane;
+
+        while (true) {
+            long occupancy = mOccupancy.get();
+
+            if ((occupancy & bit) == 0 || mOccupancy.compareAndSet(occupancy, occupancy & ~bit)) {
+                return;
+            }
+        }
+    }
+
+    private static boolean isLanePriority(int priority) {
+        return priority >= MIN_LANE_PRIORITY && priority <= MAX_LANE_PRIORITY;
+    }
+
+}
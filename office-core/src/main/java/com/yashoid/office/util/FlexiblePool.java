@@ -0,0 +1,193 @@
+package com.yashoid.office.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Created by Yashar on 4/13/2017.
+ *
+ * Every thread first uses a small cache of its own, so acquiring and releasing on the same thread
+ * never contends. Instances that do not fit in the thread's cache go to a shared lock-free array of
+ * slots that other threads take from when their own cache is empty.
+ */
+public abstract class FlexiblePool<T> {
+
+    private static final int MAXIMUM_POOL_SIZE = 100;
+
+    private static final int THREAD_CACHE_SIZE = 8;
+
+    private static class ThreadCache {
+
+        private Object[] instances;
+        private int size = 0;
+
+        private ThreadCache(int capacity) {
+            instances = new Object[capacity];
+        }
+
+    }
+
+    // Handed to short lived threads instead of a cache of their own.
+    private static final ThreadCache NO_THREAD_CACHE = new ThreadCache(0);
+
+    private static ThreadLocal<Boolean> mIsShortLivedThread = new ThreadLocal<>();
+
+    /**
+     * Makes every pool skip its thread cache on the current thread, so only the shared slots are
+     * used. Call it before the thread uses any pool if it only lives for a single task, like the
+     * threads of a virtual thread section. Its caches would never be reused and only hold on to
+     * instances.
+     */
+    public static void markShortLivedThread() {
+        mIsShortLivedThread.set(Boolean.TRUE);
+    }
+
+    private int mThreadCacheSize;
+
+    private ThreadLocal<ThreadCache> mThreadCaches = new ThreadLocal<ThreadCache>() {
+
+        @Override
+        protected ThreadCache initialValue() {
+            return mIsShortLivedThread.get() == null ? new ThreadCache(mThreadCacheSize) : NO_THREAD_CACHE;
+        }
+
+    };
+
+    private AtomicReferenceArray<T> mSharedInstances;
+    private AtomicInteger mSharedInstanceCount = new AtomicInteger(0);
+
+    public FlexiblePool() {
+        this(MAXIMUM_POOL_SIZE);
+    }
+
+    /**
+     *
+     * @param capacity Number of released instances kept in the shared part of the pool. Each thread
+     *                 also keeps up to a few instances of its own.
+     */
+    public FlexiblePool(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity can not be negative.");
+        }
+
+        mThreadCacheSize = Math.min(THREAD_CACHE_SIZE, capacity);
+
+        mSharedInstances = new AtomicReferenceArray<>(capacity);
+    }
+
+    @SuppressWarnings("unchecked")
+    public T acquire() {
+        ThreadCache cache = mThreadCaches.get();
+
+        if (cache.size > 0) {
+            cache.size--;
+
+            T instance = (T) cache.instances[cache.size];
+
+            cache.instances[cache.size] = null;
+
+            return instance;
+        }
+
+        T instance = pollShared();
+
+        if (instance != null) {
+            return instance;
+        }
+
+        return newInstance();
+    }
+
+    abstract protected T newInstance();
+
+    /**
+     *
+     * @param instance
+     * @return false if the pool is full and the instance is dropped.
+     */
+    public boolean release(T instance) {
+        if (!markReleased(instance)) {
+            // Already released.
+            return true;
+        }
+
+        onInstanceReleased(instance);
+
+        ThreadCache cache = mThreadCaches.get();
+
+        if (cache.size < cache.instances.length) {
+            cache.instances[cache.size] = instance;
+            cache.size++;
+
+            return true;
+        }
+
+        return offerShared(instance);
+    }
+
+    /**
+     * Called before an instance is released. The pool keeps no record of its instances, so this is
+     * where releasing an instance twice is caught, usually with a state flag on the instance that
+     * is cleared when it is acquired again.
+     *
+     * @param instance
+     * @return false if the instance is already released and must not be pooled again.
+     */
+    abstract protected boolean markReleased(T instance);
+
+    abstract protected void onInstanceReleased(T instance);
+
+    private T pollShared() {
+        if (mSharedInstanceCount.get() <= 0) {
+            return null;
+        }
+
+        int length = mSharedInstances.length();
+        int start = startIndex(length);
+
+        for (int i = 0; i < length; i++) {
+            int index = (start + i) % length;
+
+            T instance = mSharedInstances.get(index);
+
+            if (instance != null && mSharedInstances.compareAndSet(index, instance, null)) {
+                mSharedInstanceCount.decrementAndGet();
+
+                return instance;
+            }
+        }
+
+        return null;
+    }
+
+    private boolean offerShared(T instance) {
+        int length = mSharedInstances.length();
+
+        if (mSharedInstanceCount.get() >= length) {
+            return false;
+        }
+
+        int start = startIndex(length);
+
+        for (int i = 0; i < length; i++) {
+            int index = (start + i) % length;
+
+            if (mSharedInstances.get(index) == null && mSharedInstances.compareAndSet(index, null, instance)) {
+                mSharedInstanceCount.incrementAndGet();
+
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Threads start scanning the shared slots at different positions to avoid racing for the same
+     * slot.
+     */
+    private static int startIndex(int length) {
+        return (int) ((Thread.currentThread().getId() * 0x9E3779B97F4A7C15L) >>> 33) % length;
+    }
+
+}
@@ -0,0 +1,142 @@
+package com.yashoid.office.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of non negative long values with power of two buckets. Bucket 0 counts zeros and
+ * bucket i counts the values in [2^(i-1), 2^i). Recording is lock-free, allocation free and striped
+ * in the same way as StripedCounter.
+ */
+public class LogHistogram {
+
+    public static final int BUCKET_COUNT = 64;
+
+    private AtomicLongArray mCounts = new AtomicLongArray(StripedCounter.STRIPE_COUNT * BUCKET_COUNT);
+    private StripedCounter mTotal = new StripedCounter();
+
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+
+        mCounts.incrementAndGet(StripedCounter.stripe() * BUCKET_COUNT + bucketOf(value));
+        mTotal.add(value);
+    }
+
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKET_COUNT];
+
+        for (int stripe = 0; stripe < StripedCounter.STRIPE_COUNT; stripe++) {
+            int offset = stripe * BUCKET_COUNT;
+
+            for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+                counts[bucket] += mCounts.get(offset + bucket);
+            }
+        }
+
+        return new Snapshot(counts, mTotal.sum());
+    }
+
+    static int bucketOf(long value) {
+        return Math.min(BUCKET_COUNT - 1, 64 - Long.numberOfLeadingZeros(value));
+    }
+
+    /**
+     *
+     * @param bucket
+     * @return the largest value counted in the bucket.
+     */
+    public static long getBucketUpperBound(int bucket) {
+        if (bucket <= 0) {
+            return 0;
+        }
+
+        if (bucket >= BUCKET_COUNT - 1) {
+            return Long.MAX_VALUE;
+        }
+
+        return (1L << bucket) - 1;
+    }
+
+    public static class Snapshot {
+
+        public static final Snapshot EMPTY = new Snapshot(new long[BUCKET_COUNT], 0);
+
+        private long[] mCounts;
+        private long mCount;
+        private long mTotal;
+
+        Snapshot(long[] counts, long total) {
+            mCounts = counts;
+            mTotal = total;
+
+            for (long count: counts) {
+                mCount += count;
+            }
+        }
+
+        /**
+         * Adds up the given snapshots into one.
+         */
+        public static Snapshot merge(Iterable<Snapshot> snapshots) {
+            long[] counts = new long[BUCKET_COUNT];
+            long total = 0;
+
+            for (Snapshot snapshot: snapshots) {
+                for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+                    counts[bucket] += snapshot.mCounts[bucket];
+                }
+
+                total += snapshot.mTotal;
+            }
+
+            return new Snapshot(counts, total);
+        }
+
+        public long getCount() {
+            return mCount;
+        }
+
+        public long getCount(int bucket) {
+            return mCounts[bucket];
+        }
+
+        /**
+         *
+         * @return the sum of all the recorded values.
+         */
+        public long getTotal() {
+            return mTotal;
+        }
+
+        public double getMean() {
+            return mCount == 0 ? 0 : (double) mTotal / mCount;
+        }
+
+        /**
+         *
+         * @param percentile Between 0 and 100.
+         * @return the upper bound of the bucket the percentile falls in or 0 if nothing is recorded.
+         */
+        public long getPercentile(double percentile) {
+            if (mCount == 0) {
+                return 0;
+            }
+
+            long rank = (long) Math.ceil(mCount * Math.min(100, Math.max(0, percentile)) / 100d);
+            long seen = 0;
+
+            for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+                seen += mCounts[bucket];
+
+                if (seen >= rank && seen > 0) {
+                    return getBucketUpperBound(bucket);
+                }
+            }
+
+            return getBucketUpperBound(BUCKET_COUNT - 1);
+        }
+
+    }
+
+}
@@ -0,0 +1,70 @@
+package com.yashoid.office.util;
+
+import java.util.NoSuchElementException;
+
+/**
+ * A growable FIFO queue of primitive longs backed by a ring array. Not thread safe.
+ */
+public class LongArrayQueue {
+
+    private static final int DEFAULT_CAPACITY = 8;
+
+    private long[] mElements;
+    private int mHead = 0;
+    private int mSize = 0;
+
+    public LongArrayQueue() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LongArrayQueue(int capacity) {
+        mElements = new long[Math.max(1, capacity)];
+    }
+
+    public void addLast(long value) {
+        if (mSize == mElements.length) {
+            long[] elements = new long[mElements.length << 1];
+
+            for (int i = 0; i < mSize; i++) {
+                elements[i] = mElements[(mHead + i) % mElements.length];
+            }
+
+            mElements = elements;
+            mHead = 0;
+        }
+
+        mElements[(mHead + mSize) % mElements.length] = value;
+        mSize++;
+    }
+
+    public long peekFirst() {
+        if (mSize == 0) {
+            throw new NoSuchElementException();
+        }
+
+        return mElements[mHead];
+    }
+
+    public long pollFirst() {
+        long value = peekFirst();
+
+        mHead = (mHead + 1) % mElements.length;
+        mSize--;
+
+        return value;
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    public boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    public void clear() {
+        mHead = 0;
+        mSize = 0;
+    }
+
+}
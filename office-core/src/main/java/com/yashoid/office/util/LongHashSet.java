@@ -0,0 +1,195 @@
+package com.yashoid.office.util;
+
+/**
+ * A hash set of primitive longs using open addressing with linear probing. Not thread safe.
+ */
+public class LongHashSet {
+
+    private static final int DEFAULT_CAPACITY = 8;
+
+    private long[] mKeys;
+
+    private int mSize = 0;
+    private int mMask;
+    private int mShift;
+
+    // 0 marks an empty slot so it is kept aside.
+    private boolean mHasZero = false;
+
+    public LongHashSet() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LongHashSet(int expectedSize) {
+        allocate(LongObjectMap.tableSizeFor(expectedSize));
+    }
+
+    public boolean contains(long value) {
+        if (value == 0) {
+            return mHasZero;
+        }
+
+        for (int index = indexOf(value); ; index = (index + 1) & mMask) {
+            long key = mKeys[index];
+
+            if (key == value) {
+                return true;
+            }
+
+            if (key == 0) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     *
+     * @param value
+     * @return true if the value was not in the set.
+     */
+    public boolean add(long value) {
+        if (value == 0) {
+            if (mHasZero) {
+                return false;
+            }
+
+            mHasZero = true;
+            mSize++;
+            return true;
+        }
+
+        for (int index = indexOf(value); ; index = (index + 1) & mMask) {
+            long key = mKeys[index];
+
+            if (key == value) {
+                return false;
+            }
+
+            if (key == 0) {
+                mKeys[index] = value;
+
+                mSize++;
+
+                if (mSize * 4 > mKeys.length * 3) {
+                    resize(mKeys.length << 1);
+                }
+
+                return true;
+            }
+        }
+    }
+
+    /**
+     *
+     * @param value
+     * @return true if the value was in the set.
+     */
+    public boolean remove(long value) {
+        if (value == 0) {
+            if (!mHasZero) {
+                return false;
+            }
+
+            mHasZero = false;
+            mSize--;
+            return true;
+        }
+
+        for (int index = indexOf(value); ; index = (index + 1) & mMask) {
+            long key = mKeys[index];
+
+            if (key == value) {
+                shiftKeysBack(index);
+
+                mSize--;
+
+                return true;
+            }
+
+            if (key == 0) {
+                return false;
+            }
+        }
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    public boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    public void clear() {
+        if (mSize == 0) {
+            return;
+        }
+
+        for (int i = 0; i < mKeys.length; i++) {
+            mKeys[i] = 0;
+        }
+
+        mHasZero = false;
+
+        mSize = 0;
+    }
+
+    private void shiftKeysBack(int index) {
+        while (true) {
+            int last = index;
+
+            index = (index + 1) & mMask;
+
+            long key;
+
+            while (true) {
+                key = mKeys[index];
+
+                if (key == 0) {
+                    mKeys[last] = 0;
+                    return;
+                }
+
+                int home = indexOf(key);
+
+                if (last <= index ? (last >= home || home > index) : (last >= home && home > index)) {
+                    break;
+                }
+
+                index = (index + 1) & mMask;
+            }
+
+            mKeys[last] = key;
+        }
+    }
+
+    private int indexOf(long value) {
+        return (int) ((value * 0x9E3779B97F4A7C15L) >>> mShift);
+    }
+
+    private void resize(int capacity) {
+        long[] keys = mKeys;
+
+        allocate(capacity);
+
+        for (long key: keys) {
+            if (key != 0) {
+                int index = indexOf(key);
+
+                while (mKeys[index] != 0) {
+                    index = (index + 1) & mMask;
+                }
+
+                mKeys[index] = key;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        mKeys = new long[capacity];
+
+        mMask = capacity - 1;
+        mShift = 64 - Integer.numberOfTrailingZeros(capacity);
+    }
+
+}
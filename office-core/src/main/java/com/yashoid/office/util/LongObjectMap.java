@@ -0,0 +1,274 @@
+package com.yashoid.office.util;
+
+import java.util.Collection;
+
+/**
+ * A hash map from primitive long keys to objects. Uses open addressing with linear probing so
+ * neither the keys nor the entries are boxed. Not thread safe.
+ */
+public class LongObjectMap<V> {
+
+    private static final int DEFAULT_CAPACITY = 8;
+
+    private long[] mKeys;
+    private Object[] mValues;
+
+    private int mSize = 0;
+    private int mMask;
+    private int mShift;
+
+    // Key 0 marks an empty slot so its value is kept aside.
+    private boolean mHasZeroKey = false;
+    private V mZeroValue = null;
+
+    public LongObjectMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LongObjectMap(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        if (key == 0) {
+            return mZeroValue;
+        }
+
+        for (int index = indexOf(key); ; index = (index + 1) & mMask) {
+            long slotKey = mKeys[index];
+
+            if (slotKey == key) {
+                return (V) mValues[index];
+            }
+
+            if (slotKey == 0) {
+                return null;
+            }
+        }
+    }
+
+    public boolean containsKey(long key) {
+        if (key == 0) {
+            return mHasZeroKey;
+        }
+
+        for (int index = indexOf(key); ; index = (index + 1) & mMask) {
+            long slotKey = mKeys[index];
+
+            if (slotKey == key) {
+                return true;
+            }
+
+            if (slotKey == 0) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     *
+     * @param key
+     * @param value
+     * @return the previous value of the key or null.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (key == 0) {
+            V previous = mZeroValue;
+
+            if (!mHasZeroKey) {
+                mHasZeroKey = true;
+                mSize++;
+            }
+
+            mZeroValue = value;
+
+            return previous;
+        }
+
+        for (int index = indexOf(key); ; index = (index + 1) & mMask) {
+            long slotKey = mKeys[index];
+
+            if (slotKey == key) {
+                V previous = (V) mValues[index];
+
+                mValues[index] = value;
+
+                return previous;
+            }
+
+            if (slotKey == 0) {
+                mKeys[index] = key;
+                mValues[index] = value;
+
+                mSize++;
+
+                if (mSize * 4 > mKeys.length * 3) {
+                    resize(mKeys.length << 1);
+                }
+
+                return null;
+            }
+        }
+    }
+
+    /**
+     *
+     * @param key
+     * @return the removed value or null.
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        if (key == 0) {
+            V previous = mZeroValue;
+
+            if (mHasZeroKey) {
+                mHasZeroKey = false;
+                mZeroValue = null;
+                mSize--;
+            }
+
+            return previous;
+        }
+
+        for (int index = indexOf(key); ; index = (index + 1) & mMask) {
+            long slotKey = mKeys[index];
+
+            if (slotKey == key) {
+                V previous = (V) mValues[index];
+
+                shiftKeysBack(index);
+
+                mSize--;
+
+                return previous;
+            }
+
+            if (slotKey == 0) {
+                return null;
+            }
+        }
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    public boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    public void clear() {
+        if (mSize == 0) {
+            return;
+        }
+
+        for (int i = 0; i < mKeys.length; i++) {
+            mKeys[i] = 0;
+            mValues[i] = null;
+        }
+
+        mHasZeroKey = false;
+        mZeroValue = null;
+
+        mSize = 0;
+    }
+
+    /**
+     * Adds all the values of the map to the given collection.
+     */
+    @SuppressWarnings("unchecked")
+    public void collectValues(Collection<? super V> values) {
+        if (mHasZeroKey) {
+            values.add(mZeroValue);
+        }
+
+        for (int i = 0; i < mKeys.length; i++) {
+            if (mKeys[i] != 0) {
+                values.add((V) mValues[i]);
+            }
+        }
+    }
+
+    /**
+     * Removes the entry at index and moves the following entries of its probe sequence back, so
+     * lookups never need tombstones.
+     */
+    private void shiftKeysBack(int index) {
+        while (true) {
+            int last = index;
+
+            index = (index + 1) & mMask;
+
+            long key;
+
+            while (true) {
+                key = mKeys[index];
+
+                if (key == 0) {
+                    mKeys[last] = 0;
+                    mValues[last] = null;
+                    return;
+                }
+
+                int home = indexOf(key);
+
+                // Move the entry only if its home slot is not between last and index, cyclically.
+                if (last <= index ? (last >= home || home > index) : (last >= home && home > index)) {
+                    break;
+                }
+
+                index = (index + 1) & mMask;
+            }
+
+            mKeys[last] = key;
+            mValues[last] = mValues[index];
+        }
+    }
+
+    private int indexOf(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> mShift);
+    }
+
+    private void resize(int capacity) {
+        long[] keys = mKeys;
+        Object[] values = mValues;
+
+        allocate(capacity);
+
+        for (int i = 0; i < keys.length; i++) {
+            long key = keys[i];
+
+            if (key != 0) {
+                int index = indexOf(key);
+
+                while (mKeys[index] != 0) {
+                    index = (index + 1) & mMask;
+                }
+
+                mKeys[index] = key;
+                mValues[index] = values[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        mKeys = new long[capacity];
+        mValues = new Object[capacity];
+
+        mMask = capacity - 1;
+        mShift = 64 - Integer.numberOfTrailingZeros(capacity);
+    }
+
+    static int tableSizeFor(int expectedSize) {
+        int capacity = 4;
+
+        while (capacity * 3 < expectedSize * 4 + 4) {
+            capacity <<= 1;
+        }
+
+        return capacity;
+    }
+
+}
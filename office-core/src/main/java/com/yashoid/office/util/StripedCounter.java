@@ -0,0 +1,65 @@
+package com.yashoid.office.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A counter that spreads its updates over a number of cells picked by the updating thread, so
+ * threads that count at the same time rarely contend on the same cache line. Reading the value sums
+ * the cells and is not atomic with respect to concurrent updates.
+ */
+public class StripedCounter {
+
+    private static final int MAX_STRIPES = 16;
+
+    // Longs per stripe, so every stripe sits on its own 64 byte cache line.
+    private static final int STRIPE_PADDING = 8;
+
+    static final int STRIPE_COUNT = stripeCount();
+
+    private AtomicLongArray mCells = new AtomicLongArray(STRIPE_COUNT * STRIPE_PADDING);
+
+    public void increment() {
+        add(1);
+    }
+
+    public void decrement() {
+        add(-1);
+    }
+
+    public void add(long delta) {
+        mCells.addAndGet(stripe() * STRIPE_PADDING, delta);
+    }
+
+    public long sum() {
+        long sum = 0;
+
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            sum += mCells.get(i * STRIPE_PADDING);
+        }
+
+        return sum;
+    }
+
+    /**
+     *
+     * @return the stripe of the calling thread in [0, STRIPE_COUNT).
+     */
+    static int stripe() {
+        long id = Thread.currentThread().getId();
+
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & (STRIPE_COUNT - 1);
+    }
+
+    private static int stripeCount() {
+        int processors = Runtime.getRuntime().availableProcessors();
+
+        int count = 1;
+
+        while (count < processors && count < MAX_STRIPES) {
+            count <<= 1;
+        }
+
+        return count;
+    }
+
+}
@@ -0,0 +1,286 @@
+package com.yashoid.office.util;
+
+import java.util.List;
+
+/**
+ * A hierarchical timing wheel. Every level has 64 slots and covers 64 times the range of the level
+ * below it, so adding and removing an entry are O(1) for any deadline. An entry is placed on the
+ * highest level in which its deadline differs from the current tick and is moved down a level every
+ * time the wheel reaches its slot, until it expires on the lowest level.
+ *
+ * Ticks are plain non negative longs and their duration is up to the user. The wheel is not thread
+ * safe.
+ */
+public class TimingWheel<T> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOT_COUNT = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOT_COUNT - 1;
+
+    private static final int LEVEL_COUNT = (Long.SIZE + SLOT_BITS - 1) / SLOT_BITS;
+
+    public static class Entry<T> {
+
+        private T mElement;
+        private long mDeadline;
+
+        private Entry<T> mPrevious;
+        private Entry<T> mNext;
+        private int mLevel = -1;
+        private int mSlot;
+
+        public Entry(T element, long deadline) {
+            mElement = element;
+            mDeadline = deadline;
+        }
+
+        public T getElement() {
+            return mElement;
+        }
+
+        public long getDeadline() {
+            return mDeadline;
+        }
+
+        public boolean isScheduled() {
+            return mLevel >= 0;
+        }
+
+    }
+
+    private Entry<T>[][] mSlots;
+    private long[] mOccupancy = new long[LEVEL_COUNT];
+
+    private long mCurrentTick;
+    private int mSize = 0;
+
+    public TimingWheel(long startTick) {
+        if (startTick < 0) {
+            throw new IllegalArgumentException("Start tick can not be negative.");
+        }
+
+        mCurrentTick = startTick;
+
+        mSlots = newSlots(LEVEL_COUNT, SLOT_COUNT);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Entry<T>[][] newSlots(int levelCount, int slotCount) {
+        return (Entry<T>[][]) new Entry<?>[levelCount][slotCount];
+    }
+
+    public long getCurrentTick() {
+        return mCurrentTick;
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    public boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    /**
+     *
+     * @param entry
+     * @return false if the entry's deadline is not after the current tick. The entry is not added
+     * in that case.
+     */
+    public boolean add(Entry<T> entry) {
+        if (entry.isScheduled()) {
+            throw new IllegalStateException("Entry is already added.");
+        }
+
+        if (entry.mDeadline <= mCurrentTick) {
+            return false;
+        }
+
+        int level = (63 - Long.numberOfLeadingZeros(entry.mDeadline ^ mCurrentTick)) / SLOT_BITS;
+        int slot = (int) (entry.mDeadline >>> (level * SLOT_BITS)) & SLOT_MASK;
+
+        Entry<T> head = mSlots[level][slot];
+
+        entry.mPrevious = null;
+        entry.mNext = head;
+
+        if (head != null) {
+            head.mPrevious = entry;
+        }
+
+        mSlots[level][slot] = entry;
+        mOccupancy[level] |= 1L << slot;
+
+        entry.mLevel = level;
+        entry.mSlot = slot;
+
+        mSize++;
+
+        return true;
+    }
+
+    /**
+     *
+     * @param entry
+     * @return true if the entry was in the wheel and is removed.
+     */
+    public boolean remove(Entry<T> entry) {
+        if (!entry.isScheduled()) {
+            return false;
+        }
+
+        unlink(entry);
+
+        mSize--;
+
+        return true;
+    }
+
+    /**
+     * Moves the wheel forward to the given tick.
+     *
+     * @param tick
+     * @param expired Receives the elements whose deadline is reached, in deadline order.
+     */
+    public void advance(long tick, List<T> expired) {
+        while (mCurrentTick < tick) {
+            if (mSize == 0) {
+                mCurrentTick = tick;
+                return;
+            }
+
+            long wakeUpTick = nextWakeUpTick();
+
+            if (wakeUpTick > tick) {
+                // Nothing expires or cascades before the target tick.
+                mCurrentTick = tick;
+                return;
+            }
+
+            mCurrentTick = wakeUpTick;
+
+            processTick(expired);
+        }
+    }
+
+    /**
+     *
+     * @return the next tick at which an entry may expire or an upper level has to cascade, or
+     * Long.MAX_VALUE if the wheel is empty. Advancing to any earlier tick does nothing.
+     */
+    public long nextWakeUpTick() {
+        if (mSize == 0) {
+            return Long.MAX_VALUE;
+        }
+
+        // Every occupied slot of a level comes before any occupied slot of the levels above it, so
+        // the first occupied slot of the lowest occupied level is the next one to be reached.
+        for (int level = 0; level < LEVEL_COUNT; level++) {
+            int shift = level * SLOT_BITS;
+            int digit = (int) (mCurrentTick >>> shift) & SLOT_MASK;
+
+            long laterSlots = mOccupancy[level] & (-1L << digit) & ~(1L << digit);
+
+            if (laterSlots == 0) {
+                continue;
+            }
+
+            int roundShift = shift + SLOT_BITS;
+            long roundStart = roundShift >= Long.SIZE ? 0 : mCurrentTick & (-1L << roundShift);
+
+            return roundStart | ((long) Long.numberOfTrailingZeros(laterSlots) << shift);
+        }
+
+        return Long.MAX_VALUE;
+    }
+
+    private void processTick(List<T> expired) {
+        long tick = mCurrentTick;
+
+        for (int level = LEVEL_COUNT - 1; level > 0; level--) {
+            int shift = level * SLOT_BITS;
+
+            if ((tick & ((1L << shift) - 1)) != 0) {
+                continue;
+            }
+
+            int slot = (int) (tick >>> shift) & SLOT_MASK;
+
+            if ((mOccupancy[level] & (1L << slot)) == 0) {
+                continue;
+            }
+
+            Entry<T> entry = detachSlot(level, slot);
+
+            while (entry != null) {
+                Entry<T> next = entry.mNext;
+
+                entry.mNext = null;
+
+                if (!add(entry)) {
+                    expired.add(entry.mElement);
+                }
+
+                entry = next;
+            }
+        }
+
+        int slot = (int) (tick & SLOT_MASK);
+
+        if ((mOccupancy[0] & (1L << slot)) != 0) {
+            Entry<T> entry = detachSlot(0, slot);
+
+            while (entry != null) {
+                Entry<T> next = entry.mNext;
+
+                entry.mNext = null;
+
+                expired.add(entry.mElement);
+
+                entry = next;
+            }
+        }
+    }
+
+    /**
+     * Empties the slot and returns its entries as a list linked through mNext. The entries are
+     * counted out of the wheel.
+     */
+    private Entry<T> detachSlot(int level, int slot) {
+        Entry<T> head = mSlots[level][slot];
+
+        mSlots[level][slot] = null;
+        mOccupancy[level] &= ~(1L << slot);
+
+        for (Entry<T> entry = head; entry != null; entry = entry.mNext) {
+            entry.mPrevious = null;
+            entry.mLevel = -1;
+
+            mSize--;
+        }
+
+        return head;
+    }
+
+    private void unlink(Entry<T> entry) {
+        if (entry.mPrevious != null) {
+            entry.mPrevious.mNext = entry.mNext;
+        }
+        else {
+            mSlots[entry.mLevel][entry.mSlot] = entry.mNext;
+
+            if (entry.mNext == null) {
+                mOccupancy[entry.mLevel] &= ~(1L << entry.mSlot);
+            }
+        }
+
+        if (entry.mNext != null) {
+            entry.mNext.mPrevious = entry.mPrevious;
+        }
+
+        entry.mPrevious = null;
+        entry.mNext = null;
+        entry.mLevel = -1;
+    }
+
+}
@@ -0,0 +1,122 @@
+package com.yashoid.office;
+
+import com.yashoid.office.platform.JavaPlatform;
+import com.yashoid.office.task.Task;
+import com.yashoid.office.task.TaskManager;
+import com.yashoid.office.task.TaskManagerBuilder;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class OperationTest {
+
+    private static final long TIMEOUT = 5;
+
+    private TaskManager mTaskManager;
+
+    @Before
+    public void setUp() {
+        mTaskManager = new TaskManagerBuilder()
+                .setPlatform(new JavaPlatform())
+                .addSection("single", 1)
+                .build();
+    }
+
+    @After
+    public void tearDown() {
+        mTaskManager.close();
+    }
+
+    @Test
+    public void historyStaysBoundedWithCancellations() throws Exception {
+        final AtomicInteger performedCount = new AtomicInteger(0);
+
+        Operation operation = new Operation(mTaskManager) {
+
+            @Override
+            protected void onPerformTask(long taskId) {
+                performedCount.incrementAndGet();
+            }
+
+        };
+
+        int taskCount = 0;
+        int canceledCount = 0;
+
+        for (int i = 0; i < 10000; i++) {
+            Task first = operation.newTask("single");
+            Task second = operation.newTask("single");
+            Task unused = operation.newTask("single");
+
+            operation.runTask(first);
+            operation.scheduleTask(second, first);
+
+            // Either still waiting for the first task or already posted. Both can be canceled
+            // unless the task has started.
+            canceledCount += operation.cancelTasks(Collections.singletonList(second), false);
+            operation.cancelTasks(Collections.singletonList(unused), false);
+
+            taskCount += 2;
+        }
+
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(TIMEOUT);
+
+        while (performedCount.get() + canceledCount < taskCount && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(taskCount, performedCount.get() + canceledCount);
+        assertEquals(0, operation.getTrackedTaskCount());
+    }
+
+    @Test
+    public void taskAfterPerformedTaskRunsImmediately() throws Exception {
+        final List<Long> performed = Collections.synchronizedList(new ArrayList<Long>());
+
+        Operation operation = new Operation(mTaskManager) {
+
+            @Override
+            protected void onPerformTask(long taskId) {
+                performed.add(taskId);
+            }
+
+        };
+
+        // Outstanding throughout, so the first task stays above the watermark.
+        Task pinning = operation.newTask("single");
+
+        Task first = operation.newTask("single");
+        Task second = operation.newTask("single");
+
+        long firstId = first.getId();
+        long secondId = second.getId();
+
+        operation.runTaskAndWait(first);
+
+        operation.scheduleTask(second, first);
+
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(TIMEOUT);
+
+        while (performed.size() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(2, performed.size());
+        assertEquals(firstId, (long) performed.get(0));
+        assertEquals(secondId, (long) performed.get(1));
+
+        operation.cancelTasks(Collections.singletonList(pinning), false);
+
+        assertEquals(0, operation.getTrackedTaskCount());
+    }
+
+}
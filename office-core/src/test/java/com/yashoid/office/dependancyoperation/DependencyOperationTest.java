@@ -0,0 +1,93 @@
+package com.yashoid.office.dependancyoperation;
+
+import com.yashoid.office.platform.JavaPlatform;
+import com.yashoid.office.task.TaskManager;
+import com.yashoid.office.task.TaskManagerBuilder;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class DependencyOperationTest {
+
+    private static final long TIMEOUT = 5;
+
+    private TaskManager mTaskManager;
+
+    @Before
+    public void setUp() {
+        mTaskManager = new TaskManagerBuilder()
+                .setPlatform(new JavaPlatform())
+                .addSection("multi", 4)
+                .build();
+    }
+
+    @After
+    public void tearDown() {
+        mTaskManager.close();
+    }
+
+    @Test
+    public void groupAfterPerformedGroupRuns() throws Exception {
+        DependencyOperation operation = new DependencyOperation(mTaskManager);
+
+        CountDownLatch firstDone = new CountDownLatch(1);
+        TaskGroup first = new TaskGroup("multi", false, newCountingTask(firstDone));
+
+        operation.perform(first).immediately();
+
+        assertTrue(firstDone.await(TIMEOUT, TimeUnit.SECONDS));
+
+        // Let the operation take note of the finished group.
+        Thread.sleep(100);
+
+        CountDownLatch secondDone = new CountDownLatch(1);
+
+        operation.perform(new TaskGroup("multi", false, newCountingTask(secondDone))).after(first);
+
+        assertTrue(secondDone.await(TIMEOUT, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void longFeedOfChainedGroupsRuns() throws Exception {
+        DependencyOperation operation = new DependencyOperation(mTaskManager);
+
+        int groupCount = 10000;
+
+        CountDownLatch done = new CountDownLatch(groupCount * 2);
+
+        TaskGroup previous = null;
+
+        for (int i = 0; i < groupCount; i++) {
+            TaskGroup group = new TaskGroup("multi", true, newCountingTask(done), newCountingTask(done));
+
+            if (previous == null) {
+                operation.perform(group).immediately();
+            }
+            else {
+                operation.perform(group).after(previous);
+            }
+
+            previous = group;
+        }
+
+        assertTrue(done.await(TIMEOUT, TimeUnit.SECONDS));
+    }
+
+    private static Runnable newCountingTask(final CountDownLatch done) {
+        return new Runnable() {
+
+            @Override
+            public void run() {
+                done.countDown();
+            }
+
+        };
+    }
+
+}
@@ -0,0 +1,214 @@
+package com.yashoid.office.office;
+
+import com.yashoid.office.platform.JavaPlatform;
+import com.yashoid.office.task.TaskManager;
+import com.yashoid.office.task.TaskManagerBuilder;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Keyed concurrency limits, checked through the sections of the three types.
+ */
+public class KeyLimiterTest {
+
+    private static final long TIMEOUT = 5;
+
+    private static final int[] SECTION_TYPES = { 0, 1, 2 };
+
+    private TaskManager mTaskManager;
+
+    @After
+    public void tearDown() {
+        if (mTaskManager != null) {
+            mTaskManager.close();
+        }
+    }
+
+    @Test
+    public void finishedTaskHandsSlotToParkedTasks() throws Exception {
+        for (int type: SECTION_TYPES) {
+            setUp(new Office.SectionDescription.Builder("keyed", 2).setType(type).setConcurrencyPerKey(1).build());
+
+            CountDownLatch firstStarted = new CountDownLatch(1);
+            CountDownLatch firstRelease = new CountDownLatch(1);
+
+            mTaskManager.runTask("keyed", "A", newBlockingTask(firstStarted, firstRelease), 0);
+
+            assertTrue(firstStarted.await(TIMEOUT, TimeUnit.SECONDS));
+
+            List<String> order = Collections.synchronizedList(new ArrayList<String>());
+            CountDownLatch done = new CountDownLatch(3);
+
+            mTaskManager.runTask("keyed", "A", newRecordingTask(order, "A2", done), 0);
+            mTaskManager.runTask("keyed", "A", newRecordingTask(order, "A3", done), 5);
+
+            // Another key is not held back by the saturated one.
+            CountDownLatch otherDone = new CountDownLatch(1);
+
+            mTaskManager.runTask("keyed", "B", newRecordingTask(new ArrayList<String>(), "B", otherDone), 0);
+
+            assertTrue(otherDone.await(TIMEOUT, TimeUnit.SECONDS));
+
+            mTaskManager.runTask("keyed", "A", newRecordingTask(order, "A4", done), 0);
+
+            Thread.sleep(100);
+
+            assertTrue(order.isEmpty());
+
+            firstRelease.countDown();
+
+            assertTrue(done.await(TIMEOUT, TimeUnit.SECONDS));
+
+            // The parked task with the highest priority goes first.
+            assertEquals("type " + type, Arrays.asList("A3", "A2", "A4"), order);
+
+            mTaskManager.close();
+        }
+    }
+
+    @Test
+    public void canceledParkedTaskLeavesSlotToTheNext() throws Exception {
+        for (int type: SECTION_TYPES) {
+            setUp(new Office.SectionDescription.Builder("keyed", 2).setType(type).setConcurrencyPerKey(1).build());
+
+            CountDownLatch firstStarted = new CountDownLatch(1);
+            CountDownLatch firstRelease = new CountDownLatch(1);
+
+            mTaskManager.runTask("keyed", "A", newBlockingTask(firstStarted, firstRelease), 0);
+
+            assertTrue(firstStarted.await(TIMEOUT, TimeUnit.SECONDS));
+
+            List<String> order = Collections.synchronizedList(new ArrayList<String>());
+            CountDownLatch done = new CountDownLatch(1);
+
+            Runnable second = newRecordingTask(order, "A2", done);
+
+            mTaskManager.runTask("keyed", "A", second, 0);
+
+            // Parked by the free worker.
+            Thread.sleep(100);
+
+            assertTrue("type " + type, mTaskManager.cancelTask("keyed", second, 0));
+
+            mTaskManager.runTask("keyed", "A", newRecordingTask(order, "A3", done), 0);
+
+            firstRelease.countDown();
+
+            assertTrue(done.await(TIMEOUT, TimeUnit.SECONDS));
+
+            Thread.sleep(100);
+
+            assertEquals("type " + type, Collections.singletonList("A3"), order);
+
+            mTaskManager.close();
+        }
+    }
+
+    @Test
+    public void droppedTaskHoldingSlotHandsItOn() throws Exception {
+        for (int type: SECTION_TYPES) {
+            setUp(new Office.SectionDescription.Builder("keyed", 2)
+                    .setType(type)
+                    .setConcurrencyPerKey(1)
+                    .setCapacity(1, Office.SectionDescription.OVERFLOW_DROP_OLDEST)
+                    .build());
+
+            CountDownLatch firstStarted = new CountDownLatch(1);
+            CountDownLatch firstRelease = new CountDownLatch(1);
+
+            mTaskManager.runTask("keyed", "A", newBlockingTask(firstStarted, firstRelease), 0);
+
+            assertTrue(firstStarted.await(TIMEOUT, TimeUnit.SECONDS));
+
+            List<String> order = Collections.synchronizedList(new ArrayList<String>());
+            CountDownLatch done = new CountDownLatch(1);
+
+            mTaskManager.runTask("keyed", "A", newRecordingTask(order, "A2", done), 0);
+
+            // Parked by the free worker.
+            Thread.sleep(100);
+
+            CountDownLatch otherStarted = new CountDownLatch(1);
+            CountDownLatch otherRelease = new CountDownLatch(1);
+
+            mTaskManager.runTask("keyed", newBlockingTask(otherStarted, otherRelease), 0);
+
+            assertTrue(otherStarted.await(TIMEOUT, TimeUnit.SECONDS));
+
+            CountDownLatch busyStarted = new CountDownLatch(1);
+            CountDownLatch busyRelease = new CountDownLatch(1);
+
+            mTaskManager.runTask("keyed", newBlockingTask(busyStarted, busyRelease), 10);
+
+            Thread.sleep(50);
+
+            // The second task gets the slot and goes back to the queue behind the busy workers.
+            firstRelease.countDown();
+
+            assertTrue(busyStarted.await(TIMEOUT, TimeUnit.SECONDS));
+
+            Thread.sleep(50);
+
+            // Each drops the oldest pending task, first the second task and then this one.
+            mTaskManager.runTask("keyed", newRecordingTask(order, "D", done), 0);
+            mTaskManager.runTask("keyed", "A", newRecordingTask(order, "A3", done), 0);
+
+            otherRelease.countDown();
+            busyRelease.countDown();
+
+            assertTrue("type " + type, done.await(TIMEOUT, TimeUnit.SECONDS));
+
+            Thread.sleep(100);
+
+            assertEquals("type " + type, Collections.singletonList("A3"), order);
+
+            mTaskManager.close();
+        }
+    }
+
+    private void setUp(Office.SectionDescription sectionDescription) {
+        mTaskManager = new TaskManagerBuilder()
+                .setPlatform(new JavaPlatform())
+                .addSection(sectionDescription)
+                .build();
+    }
+
+    private static Runnable newBlockingTask(final CountDownLatch started, final CountDownLatch release) {
+        return new Runnable() {
+
+            @Override
+            public void run() {
+                started.countDown();
+
+                try {
+                    release.await(TIMEOUT, TimeUnit.SECONDS);
+                } catch (InterruptedException e) { }
+            }
+
+        };
+    }
+
+    private static Runnable newRecordingTask(final List<String> order, final String name, final CountDownLatch done) {
+        return new Runnable() {
+
+            @Override
+            public void run() {
+                order.add(name);
+
+                done.countDown();
+            }
+
+        };
+    }
+
+}
@@ -0,0 +1,281 @@
+package com.yashoid.office.task;
+
+import com.yashoid.office.office.Office;
+import com.yashoid.office.platform.JavaPlatform;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class SerialExecutorTest {
+
+    private static final long TIMEOUT = 5;
+
+    private TaskManager mTaskManager;
+
+    @After
+    public void tearDown() {
+        if (mTaskManager != null) {
+            mTaskManager.close();
+        }
+    }
+
+    @Test
+    public void runsTasksOneAtATimeInOrder() throws Exception {
+        setUp(new Office.SectionDescription.Builder("multi", 4).build());
+
+        Executor strand = mTaskManager.getSerialExecutor("multi", "key");
+
+        assertSame(strand, mTaskManager.getSerialExecutor("multi", "key"));
+
+        final int taskCount = 2000;
+
+        final List<Integer> order = Collections.synchronizedList(new ArrayList<Integer>());
+        final AtomicInteger runningCount = new AtomicInteger(0);
+        final AtomicInteger overlapCount = new AtomicInteger(0);
+        final CountDownLatch done = new CountDownLatch(taskCount);
+
+        for (int i = 0; i < taskCount; i++) {
+            final int id = i;
+
+            strand.execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    if (runningCount.incrementAndGet() > 1) {
+                        overlapCount.incrementAndGet();
+                    }
+
+                    order.add(id);
+
+                    runningCount.decrementAndGet();
+
+                    done.countDown();
+                }
+
+            });
+        }
+
+        assertTrue(done.await(TIMEOUT, TimeUnit.SECONDS));
+        assertEquals(0, overlapCount.get());
+
+        for (int i = 0; i < taskCount; i++) {
+            assertEquals(i, (int) order.get(i));
+        }
+    }
+
+    @Test
+    public void strandsOfOtherKeysRunMeanwhile() throws Exception {
+        setUp(new Office.SectionDescription.Builder("multi", 4).build());
+
+        final CountDownLatch release = new CountDownLatch(1);
+
+        mTaskManager.getSerialExecutor("multi", "blocked").execute(new Runnable() {
+
+            @Override
+            public void run() {
+                await(release);
+            }
+
+        });
+
+        final CountDownLatch done = new CountDownLatch(1);
+
+        mTaskManager.getSerialExecutor("multi", "free").execute(new Runnable() {
+
+            @Override
+            public void run() {
+                done.countDown();
+            }
+
+        });
+
+        assertTrue(done.await(TIMEOUT, TimeUnit.SECONDS));
+
+        release.countDown();
+    }
+
+    @Test
+    public void inlineTurnsGoOnWithoutRecursing() throws Exception {
+        setUp(new Office.SectionDescription.Builder("single", 1)
+                .setCapacity(1, Office.SectionDescription.OVERFLOW_CALLER_RUNS)
+                .build());
+
+        final CountDownLatch release = blockSection();
+
+        // Fills the queue, so every turn of the strand runs on the thread that assigns it.
+        mTaskManager.runTask("single", new Runnable() {
+
+            @Override
+            public void run() {
+
+            }
+
+        }, 0);
+
+        final Executor strand = mTaskManager.getSerialExecutor("single", "key");
+
+        final CountDownLatch firstRelease = new CountDownLatch(1);
+        final AtomicInteger next = new AtomicInteger(0);
+        final AtomicInteger outOfOrderCount = new AtomicInteger(0);
+        final List<Throwable> reported = Collections.synchronizedList(new ArrayList<Throwable>());
+
+        Thread caller = new Thread() {
+
+            @Override
+            public void run() {
+                strand.execute(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        SerialExecutorTest.await(firstRelease);
+
+                        next.incrementAndGet();
+                    }
+
+                });
+            }
+
+        };
+
+        caller.setUncaughtExceptionHandler(new Thread.UncaughtExceptionHandler() {
+
+            @Override
+            public void uncaughtException(Thread thread, Throwable e) {
+                reported.add(e);
+            }
+
+        });
+
+        caller.start();
+
+        Thread.sleep(100);
+
+        final int taskCount = 50000;
+        final IllegalStateException failure = new IllegalStateException("Expected failure.");
+
+        for (int i = 1; i <= taskCount; i++) {
+            final int id = i;
+
+            strand.execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    if (next.getAndIncrement() != id) {
+                        outOfOrderCount.incrementAndGet();
+                    }
+
+                    if (id == 7) {
+                        throw failure;
+                    }
+                }
+
+            });
+        }
+
+        // The backlog runs in a loop on the caller's thread.
+        firstRelease.countDown();
+
+        caller.join(TimeUnit.SECONDS.toMillis(TIMEOUT * 2));
+
+        release.countDown();
+
+        assertFalse(caller.isAlive());
+        assertEquals(taskCount + 1, next.get());
+        assertEquals(0, outOfOrderCount.get());
+        assertEquals(Collections.<Throwable>singletonList(failure), reported);
+    }
+
+    @Test
+    public void droppedTurnDropsBacklog() throws Exception {
+        setUp(new Office.SectionDescription.Builder("single", 1)
+                .setCapacity(1, Office.SectionDescription.OVERFLOW_DROP_OLDEST)
+                .build());
+
+        CountDownLatch release = blockSection();
+
+        List<String> order = Collections.synchronizedList(new ArrayList<String>());
+
+        Executor strand = mTaskManager.getSerialExecutor("single", "key");
+
+        for (int i = 0; i < 5; i++) {
+            strand.execute(newRecordingTask(order, "backlog" + i, new CountDownLatch(1)));
+        }
+
+        // Drops the strand's turn.
+        mTaskManager.runTask("single", newRecordingTask(order, "plain", new CountDownLatch(1)), 0);
+
+        CountDownLatch done = new CountDownLatch(1);
+
+        // Gets a turn of its own, which drops the plain task.
+        strand.execute(newRecordingTask(order, "after", done));
+
+        release.countDown();
+
+        assertTrue(done.await(TIMEOUT, TimeUnit.SECONDS));
+
+        Thread.sleep(100);
+
+        assertEquals(Arrays.asList("after"), order);
+    }
+
+    private void setUp(Office.SectionDescription sectionDescription) {
+        mTaskManager = new TaskManagerBuilder()
+                .setPlatform(new JavaPlatform())
+                .addSection(sectionDescription)
+                .build();
+    }
+
+    /**
+     * Occupies the only worker of the section until the returned latch is counted down.
+     */
+    private CountDownLatch blockSection() throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        mTaskManager.runTask("single", new Runnable() {
+
+            @Override
+            public void run() {
+                started.countDown();
+
+                SerialExecutorTest.await(release);
+            }
+
+        }, 0);
+
+        assertTrue(started.await(TIMEOUT, TimeUnit.SECONDS));
+
+        return release;
+    }
+
+    private static Runnable newRecordingTask(final List<String> order, final String name, final CountDownLatch done) {
+        return new Runnable() {
+
+            @Override
+            public void run() {
+                order.add(name);
+
+                done.countDown();
+            }
+
+        };
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(TIMEOUT, TimeUnit.SECONDS);
+        } catch (InterruptedException e) { }
+    }
+
+}
@@ -0,0 +1,254 @@
+package com.yashoid.office.task;
+
+import com.yashoid.office.platform.JavaPlatform;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs the plain Java core on JavaPlatform threads, without Android or Robolectric.
+ */
+public class TaskManagerTest {
+
+    private static final long TIMEOUT = 5;
+
+    private TaskManager mTaskManager;
+
+    @Before
+    public void setUp() {
+        mTaskManager = new TaskManagerBuilder()
+                .setPlatform(new JavaPlatform())
+                .addSection("single", 1)
+                .addSection("multi", 4)
+                .addWorkStealingSection("stealing", 1)
+                .build();
+    }
+
+    @After
+    public void tearDown() {
+        mTaskManager.close();
+    }
+
+    @Test
+    public void dispatchesTasksToAllWorkers() throws Exception {
+        final CountDownLatch started = new CountDownLatch(4);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        for (int i = 0; i < 4; i++) {
+            mTaskManager.runTask("multi", new Runnable() {
+
+                @Override
+                public void run() {
+                    started.countDown();
+
+                    await(release);
+                }
+
+            }, 0);
+        }
+
+        // Only true if the four tasks run at the same time on different workers.
+        assertTrue(started.await(TIMEOUT, TimeUnit.SECONDS));
+
+        release.countDown();
+
+        final CountDownLatch done = new CountDownLatch(100);
+
+        for (int i = 0; i < 100; i++) {
+            mTaskManager.runTask("multi", new Runnable() {
+
+                @Override
+                public void run() {
+                    done.countDown();
+                }
+
+            }, 0);
+        }
+
+        assertTrue(done.await(TIMEOUT, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void runsPendingTasksInPriorityOrder() throws Exception {
+        CountDownLatch release = blockSection("single");
+
+        List<Integer> order = Collections.synchronizedList(new ArrayList<Integer>());
+        CountDownLatch done = new CountDownLatch(6);
+
+        int[] priorities = { 0, 5, -3, 100, 5, -100 };
+
+        for (int i = 0; i < priorities.length; i++) {
+            mTaskManager.runTask("single", newRecordingTask(order, i, done), priorities[i]);
+        }
+
+        release.countDown();
+
+        assertTrue(done.await(TIMEOUT, TimeUnit.SECONDS));
+
+        // Highest priority first. Tasks of the same priority keep their order.
+        assertEquals(Arrays.asList(3, 1, 4, 0, 2, 5), order);
+    }
+
+    @Test
+    public void canceledTasksDoNotRun() throws Exception {
+        CountDownLatch release = blockSection("single");
+
+        List<Integer> order = Collections.synchronizedList(new ArrayList<Integer>());
+        CountDownLatch done = new CountDownLatch(2);
+
+        Runnable first = newRecordingTask(order, 0, done);
+        Runnable second = newRecordingTask(order, 1, done);
+        Runnable third = newRecordingTask(order, 2, done);
+
+        mTaskManager.runTask("single", first, 0);
+        mTaskManager.runTask("single", second, 0);
+        mTaskManager.runTask("single", third, 0);
+
+        assertTrue(mTaskManager.cancelTask("single", second, 0));
+        assertFalse(mTaskManager.cancelTask("single", second, 0));
+
+        release.countDown();
+
+        assertTrue(done.await(TIMEOUT, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList(0, 2), order);
+
+        assertFalse(mTaskManager.cancelTask("single", first, 0));
+        assertEquals(1, mTaskManager.getSectionStats("single").getCanceledTaskCount());
+    }
+
+    @Test
+    public void closeDropsPendingTasks() throws Exception {
+        CountDownLatch release = blockSection("single");
+
+        final AtomicInteger ranCount = new AtomicInteger(0);
+
+        Runnable task = new Runnable() {
+
+            @Override
+            public void run() {
+                ranCount.incrementAndGet();
+            }
+
+        };
+
+        mTaskManager.runTask("single", task, 0);
+        mTaskManager.runTask("single", task, 0);
+
+        mTaskManager.close();
+
+        release.countDown();
+
+        // Accepted without running.
+        mTaskManager.runTask("single", task, 0);
+
+        Thread.sleep(200);
+
+        assertEquals(0, ranCount.get());
+    }
+
+    @Test
+    public void workerSurvivesFailingTask() throws Exception {
+        assertWorkerSurvivesFailingTask("single");
+    }
+
+    @Test
+    public void stealingWorkerSurvivesFailingTask() throws Exception {
+        assertWorkerSurvivesFailingTask("stealing");
+    }
+
+    private void assertWorkerSurvivesFailingTask(String section) throws Exception {
+        final List<Throwable> reported = Collections.synchronizedList(new ArrayList<Throwable>());
+
+        Thread.UncaughtExceptionHandler previousHandler = Thread.getDefaultUncaughtExceptionHandler();
+
+        Thread.setDefaultUncaughtExceptionHandler(new Thread.UncaughtExceptionHandler() {
+
+            @Override
+            public void uncaughtException(Thread thread, Throwable e) {
+                reported.add(e);
+            }
+
+        });
+
+        try {
+            final IllegalStateException failure = new IllegalStateException("Expected failure.");
+
+            mTaskManager.runTask(section, new Runnable() {
+
+                @Override
+                public void run() {
+                    throw failure;
+                }
+
+            }, 0);
+
+            List<Integer> order = Collections.synchronizedList(new ArrayList<Integer>());
+            CountDownLatch done = new CountDownLatch(3);
+
+            for (int i = 0; i < 3; i++) {
+                mTaskManager.runTask(section, newRecordingTask(order, i, done), 0);
+            }
+
+            assertTrue(done.await(TIMEOUT, TimeUnit.SECONDS));
+            assertEquals(Arrays.asList(0, 1, 2), order);
+            assertEquals(Collections.<Throwable>singletonList(failure), reported);
+        } finally {
+            Thread.setDefaultUncaughtExceptionHandler(previousHandler);
+        }
+    }
+
+    /**
+     * Occupies the only worker of the section until the returned latch is counted down, so the
+     * tasks assigned meanwhile stay pending.
+     */
+    private CountDownLatch blockSection(String section) throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        mTaskManager.runTask(section, new Runnable() {
+
+            @Override
+            public void run() {
+                started.countDown();
+
+                await(release);
+            }
+
+        }, Integer.MAX_VALUE);
+
+        assertTrue(started.await(TIMEOUT, TimeUnit.SECONDS));
+
+        return release;
+    }
+
+    private static Runnable newRecordingTask(final List<Integer> order, final int id, final CountDownLatch done) {
+        return new Runnable() {
+
+            @Override
+            public void run() {
+                order.add(id);
+
+                done.countDown();
+            }
+
+        };
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(TIMEOUT, TimeUnit.SECONDS);
+        } catch (InterruptedException e) { }
+    }
+
+}
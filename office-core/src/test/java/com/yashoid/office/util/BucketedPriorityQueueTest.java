@@ -0,0 +1,154 @@
+package com.yashoid.office.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class BucketedPriorityQueueTest {
+
+    private static final long TIMEOUT = 5;
+
+    @Test
+    public void pollsHighestLaneFirstAndKeepsLaneOrder() {
+        BucketedPriorityQueue<String> queue = new BucketedPriorityQueue<>();
+
+        queue.offer("a0", 0);
+        queue.offer("b5", 5);
+        queue.offer("c-3", -3);
+        queue.offer("d5", 5);
+        queue.offer("e0", 0);
+
+        assertEquals(5, queue.size());
+
+        assertEquals(Arrays.asList("b5", "d5", "a0", "e0", "c-3"), drain(queue));
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll());
+    }
+
+    @Test
+    public void ordersOverflowPrioritiesAroundTheLanes() {
+        BucketedPriorityQueue<String> queue = new BucketedPriorityQueue<>();
+
+        queue.offer("min", Integer.MIN_VALUE);
+        queue.offer("laneMax", BucketedPriorityQueue.MAX_LANE_PRIORITY);
+        queue.offer("high", BucketedPriorityQueue.MAX_LANE_PRIORITY + 1);
+        queue.offer("laneMin", BucketedPriorityQueue.MIN_LANE_PRIORITY);
+        queue.offer("max", Integer.MAX_VALUE);
+        queue.offer("low", BucketedPriorityQueue.MIN_LANE_PRIORITY - 1);
+        queue.offer("max2", Integer.MAX_VALUE);
+
+        assertEquals(Arrays.asList("max", "max2", "high", "laneMax", "laneMin", "low", "min"), drain(queue));
+    }
+
+    @Test
+    public void pollLowestTakesLowestPriorityFirst() {
+        BucketedPriorityQueue<String> queue = new BucketedPriorityQueue<>();
+
+        queue.offer("max", Integer.MAX_VALUE);
+        queue.offer("high", BucketedPriorityQueue.MAX_LANE_PRIORITY + 1);
+        queue.offer("zero", 0);
+        queue.offer("low", BucketedPriorityQueue.MIN_LANE_PRIORITY - 1);
+        queue.offer("min", Integer.MIN_VALUE);
+        queue.offer("minus", -1);
+
+        assertEquals("min", queue.pollLowest());
+        assertEquals("low", queue.pollLowest());
+        assertEquals("minus", queue.pollLowest());
+        assertEquals("zero", queue.pollLowest());
+        assertEquals("high", queue.pollLowest());
+        assertEquals("max", queue.pollLowest());
+        assertNull(queue.pollLowest());
+    }
+
+    @Test
+    public void removesFromLanesAndOverflow() {
+        BucketedPriorityQueue<String> queue = new BucketedPriorityQueue<>();
+
+        queue.offer("a", 1);
+        queue.offer("b", 1);
+        queue.offer("c", 1000);
+
+        assertTrue(queue.remove("a", 1));
+        assertFalse(queue.remove("a", 1));
+        assertTrue(queue.remove("c"));
+
+        assertEquals(1, queue.size());
+        assertEquals("b", queue.poll());
+    }
+
+    @Test
+    public void keepsSizeUnderConcurrentOfferAndPoll() throws Exception {
+        final BucketedPriorityQueue<Integer> queue = new BucketedPriorityQueue<>();
+
+        final int threadCount = 4;
+        final int elementCount = 20000;
+
+        final AtomicInteger polledCount = new AtomicInteger(0);
+        final CountDownLatch done = new CountDownLatch(threadCount * 2);
+
+        for (int t = 0; t < threadCount; t++) {
+            final int seed = t;
+
+            new Thread() {
+
+                @Override
+                public void run() {
+                    for (int i = 0; i < elementCount; i++) {
+                        // Lanes and both overflow sides.
+                        queue.offer(i, (i * 31 + seed) % 200 - 100);
+                    }
+
+                    done.countDown();
+                }
+
+            }.start();
+
+            new Thread() {
+
+                @Override
+                public void run() {
+                    int polled = 0;
+
+                    while (polled < elementCount / 2) {
+                        if (queue.poll() != null) {
+                            polled++;
+                        }
+                    }
+
+                    polledCount.addAndGet(polled);
+
+                    done.countDown();
+                }
+
+            }.start();
+        }
+
+        assertTrue(done.await(TIMEOUT, TimeUnit.SECONDS));
+
+        int remaining = threadCount * elementCount - polledCount.get();
+
+        assertEquals(remaining, queue.size());
+        assertEquals(remaining, drain(queue).size());
+        assertEquals(0, queue.size());
+    }
+
+    private static <T> List<T> drain(BucketedPriorityQueue<T> queue) {
+        List<T> elements = new ArrayList<>();
+
+        T element;
+
+        while ((element = queue.poll()) != null) {
+            elements.add(element);
+        }
+
+        return elements;
+    }
+
+}
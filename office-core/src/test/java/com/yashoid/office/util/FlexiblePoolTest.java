@@ -0,0 +1,143 @@
+package com.yashoid.office.util;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class FlexiblePoolTest {
+
+    private static class Item {
+
+        private boolean mIsReleased = false;
+
+    }
+
+    private static class ItemPool extends FlexiblePool<Item> {
+
+        private AtomicInteger mCreatedCount = new AtomicInteger(0);
+        private AtomicInteger mReleasedCount = new AtomicInteger(0);
+
+        private ItemPool(int capacity) {
+            super(capacity);
+        }
+
+        @Override
+        public Item acquire() {
+            Item item = super.acquire();
+
+            item.mIsReleased = false;
+
+            return item;
+        }
+
+        @Override
+        protected Item newInstance() {
+            mCreatedCount.incrementAndGet();
+
+            return new Item();
+        }
+
+        @Override
+        protected synchronized boolean markReleased(Item instance) {
+            if (instance.mIsReleased) {
+                return false;
+            }
+
+            instance.mIsReleased = true;
+
+            return true;
+        }
+
+        @Override
+        protected void onInstanceReleased(Item instance) {
+            mReleasedCount.incrementAndGet();
+        }
+
+    }
+
+    @Test
+    public void doubleReleaseIsNoOp() {
+        ItemPool pool = new ItemPool(10);
+
+        Item item = pool.acquire();
+
+        assertTrue(pool.release(item));
+        assertTrue(pool.release(item));
+
+        assertEquals(1, pool.mReleasedCount.get());
+
+        assertSame(item, pool.acquire());
+        assertNotSame(item, pool.acquire());
+
+        assertEquals(2, pool.mCreatedCount.get());
+    }
+
+    @Test
+    public void doubleReleaseOnAnotherThreadIsNoOp() throws Exception {
+        final ItemPool pool = new ItemPool(10);
+
+        final Item item = pool.acquire();
+
+        pool.release(item);
+
+        final Item[] acquiredOnOtherThread = new Item[1];
+
+        Thread thread = new Thread() {
+
+            @Override
+            public void run() {
+                pool.release(item);
+
+                acquiredOnOtherThread[0] = pool.acquire();
+            }
+
+        };
+
+        thread.start();
+        thread.join();
+
+        assertNotSame(item, acquiredOnOtherThread[0]);
+        assertSame(item, pool.acquire());
+        assertEquals(1, pool.mReleasedCount.get());
+    }
+
+    @Test
+    public void releasedInstancesMoveToOtherThreads() throws Exception {
+        final ItemPool pool = new ItemPool(100);
+
+        // More than a thread cache holds, so the rest go to the shared slots.
+        Item[] items = new Item[20];
+
+        for (int i = 0; i < items.length; i++) {
+            items[i] = pool.acquire();
+        }
+
+        for (Item item: items) {
+            assertTrue(pool.release(item));
+        }
+
+        Thread thread = new Thread() {
+
+            @Override
+            public void run() {
+                pool.acquire();
+            }
+
+        };
+
+        thread.start();
+        thread.join();
+
+        assertEquals(items.length, pool.mCreatedCount.get());
+    }
+
+    @Test
+    public void releaseToFullPoolDropsInstance() {
+        ItemPool pool = new ItemPool(0);
+
+        assertFalse(pool.release(pool.acquire()));
+    }
+
+}
@@ -0,0 +1,81 @@
+package com.yashoid.office.util;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class LongHashSetTest {
+
+    @Test
+    public void growsPastItsExpectedSize() {
+        LongHashSet set = new LongHashSet(2);
+
+        for (long i = 1; i <= 1000; i++) {
+            assertTrue(set.add(i * 64));
+        }
+
+        assertEquals(1000, set.size());
+
+        for (long i = 1; i <= 1000; i++) {
+            assertTrue(set.contains(i * 64));
+            assertFalse(set.contains(i * 64 + 1));
+        }
+    }
+
+    @Test
+    public void keepsZeroAndExtremeValues() {
+        LongHashSet set = new LongHashSet();
+
+        assertTrue(set.add(0));
+        assertFalse(set.add(0));
+        assertTrue(set.add(Long.MIN_VALUE));
+        assertTrue(set.add(Long.MAX_VALUE));
+        assertTrue(set.add(-1));
+
+        assertEquals(4, set.size());
+        assertTrue(set.contains(0));
+
+        assertTrue(set.remove(0));
+        assertFalse(set.contains(0));
+        assertFalse(set.remove(0));
+
+        assertTrue(set.contains(Long.MIN_VALUE));
+        assertEquals(3, set.size());
+
+        set.clear();
+
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains(-1));
+    }
+
+    @Test
+    public void matchesHashSetWithCollidingKeys() {
+        Random random = new Random(7);
+
+        LongHashSet set = new LongHashSet();
+        Set<Long> expected = new HashSet<>();
+
+        for (int i = 0; i < 200000; i++) {
+            // A narrow range of keys makes probe chains collide and removals shift them.
+            long value = random.nextInt(512) << 20;
+
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(value), set.remove(value));
+            }
+            else {
+                assertEquals(expected.add(value), set.add(value));
+            }
+
+            assertEquals(expected.size(), set.size());
+        }
+
+        for (long value = 0; value < 512; value++) {
+            assertEquals(expected.contains(value << 20), set.contains(value << 20));
+        }
+    }
+
+}
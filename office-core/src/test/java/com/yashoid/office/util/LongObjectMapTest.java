@@ -0,0 +1,83 @@
+package com.yashoid.office.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class LongObjectMapTest {
+
+    @Test
+    public void growsPastItsExpectedSize() {
+        LongObjectMap<String> map = new LongObjectMap<>(2);
+
+        for (long key = 1; key <= 1000; key++) {
+            assertNull(map.put(key * 64, "v" + key));
+        }
+
+        assertEquals(1000, map.size());
+
+        for (long key = 1; key <= 1000; key++) {
+            assertEquals("v" + key, map.get(key * 64));
+        }
+
+        List<String> values = new ArrayList<>();
+
+        map.collectValues(values);
+
+        assertEquals(1000, values.size());
+    }
+
+    @Test
+    public void replacesAndRemovesValues() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+
+        assertNull(map.put(0, "zero"));
+        assertEquals("zero", map.put(0, "zero2"));
+        assertNull(map.put(-5, "minus"));
+
+        assertTrue(map.containsKey(0));
+        assertEquals("zero2", map.remove(0));
+        assertNull(map.remove(0));
+        assertFalse(map.containsKey(0));
+
+        assertEquals("minus", map.get(-5));
+        assertEquals(1, map.size());
+
+        map.clear();
+
+        assertTrue(map.isEmpty());
+        assertNull(map.get(-5));
+    }
+
+    @Test
+    public void matchesHashMapWithCollidingKeys() {
+        Random random = new Random(11);
+
+        LongObjectMap<Integer> map = new LongObjectMap<>();
+        Map<Long, Integer> expected = new HashMap<>();
+
+        for (int i = 0; i < 200000; i++) {
+            long key = random.nextInt(512) << 20;
+
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            }
+            else {
+                assertEquals(expected.put(key, i), map.put(key, i));
+            }
+
+            assertEquals(expected.size(), map.size());
+        }
+
+        for (long key = 0; key < 512; key++) {
+            assertEquals(expected.get(key << 20), map.get(key << 20));
+        }
+    }
+
+}
@@ -0,0 +1,194 @@
+package com.yashoid.office.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TimingWheelTest {
+
+    @Test
+    public void longDelayWakesUpOnlyToCascade() {
+        TimingWheel<String> wheel = new TimingWheel<>(0);
+
+        long deadline = 1000000;
+
+        wheel.add(new TimingWheel.Entry<>("late", deadline));
+
+        List<String> expired = new ArrayList<>();
+
+        int wakeUpCount = 0;
+
+        while (!wheel.isEmpty()) {
+            long wakeUpTick = wheel.nextWakeUpTick();
+
+            assertTrue(wakeUpTick <= deadline);
+
+            wheel.advance(wakeUpTick - 1, expired);
+            assertTrue(expired.isEmpty());
+
+            wheel.advance(wakeUpTick, expired);
+
+            wakeUpCount++;
+        }
+
+        // One wake up per level the entry goes down, instead of one per round of the lowest level.
+        assertTrue(wakeUpCount <= 4);
+        assertEquals(deadline, wheel.getCurrentTick());
+        assertEquals(Collections.singletonList("late"), expired);
+        assertEquals(Long.MAX_VALUE, wheel.nextWakeUpTick());
+    }
+
+    @Test
+    public void nextWakeUpTickIsTheNextCascade() {
+        TimingWheel<String> wheel = new TimingWheel<>(5);
+
+        // Differs from the current tick from the second level on, in slot 3.
+        wheel.add(new TimingWheel.Entry<>("a", 3 * 64 + 10));
+
+        assertEquals(3 * 64, wheel.nextWakeUpTick());
+
+        wheel.add(new TimingWheel.Entry<>("b", 20));
+
+        assertEquals(20, wheel.nextWakeUpTick());
+    }
+
+    @Test
+    public void cascadedEntriesExpireInDeadlineOrder() {
+        TimingWheel<Long> wheel = new TimingWheel<>(0);
+
+        long[] deadlines = { 70000, 65, 1, 4096, 64, 262144, 63, 4095, 1L << 40 };
+
+        for (long deadline: deadlines) {
+            assertTrue(wheel.add(new TimingWheel.Entry<>(deadline, deadline)));
+        }
+
+        assertEquals(deadlines.length, wheel.size());
+
+        List<Long> expired = new ArrayList<>();
+
+        wheel.advance(1L << 41, expired);
+
+        long[] sorted = deadlines.clone();
+        Arrays.sort(sorted);
+
+        assertEquals(deadlines.length, expired.size());
+
+        for (int i = 0; i < sorted.length; i++) {
+            assertEquals(sorted[i], (long) expired.get(i));
+        }
+
+        assertTrue(wheel.isEmpty());
+    }
+
+    @Test
+    public void removedEntriesDoNotExpire() {
+        TimingWheel<String> wheel = new TimingWheel<>(0);
+
+        TimingWheel.Entry<String> kept = new TimingWheel.Entry<>("kept", 5000);
+        TimingWheel.Entry<String> removedEarly = new TimingWheel.Entry<>("removedEarly", 5000);
+        TimingWheel.Entry<String> removedLate = new TimingWheel.Entry<>("removedLate", 5000);
+
+        wheel.add(kept);
+        wheel.add(removedEarly);
+        wheel.add(removedLate);
+
+        assertTrue(wheel.remove(removedEarly));
+        assertFalse(wheel.remove(removedEarly));
+
+        List<String> expired = new ArrayList<>();
+
+        // Cascades the entries to the lowest level.
+        wheel.advance(4999, expired);
+
+        assertTrue(expired.isEmpty());
+        assertTrue(removedLate.isScheduled());
+        assertTrue(wheel.remove(removedLate));
+
+        wheel.advance(5000, expired);
+
+        assertEquals(Collections.singletonList("kept"), expired);
+        assertTrue(wheel.isEmpty());
+        assertFalse(kept.isScheduled());
+    }
+
+    @Test
+    public void rejectsDeadlinesThatAreNotAhead() {
+        TimingWheel<String> wheel = new TimingWheel<>(100);
+
+        assertFalse(wheel.add(new TimingWheel.Entry<>("now", 100)));
+        assertFalse(wheel.add(new TimingWheel.Entry<>("past", 10)));
+        assertTrue(wheel.isEmpty());
+    }
+
+    @Test
+    public void matchesSortedDeadlinesWithRandomRemovals() {
+        Random random = new Random(42);
+
+        TimingWheel<TimingWheel.Entry<Long>> wheel = new TimingWheel<>(0);
+
+        List<TimingWheel.Entry<TimingWheel.Entry<Long>>> entries = new ArrayList<>();
+
+        for (int round = 0; round < 50; round++) {
+            long now = wheel.getCurrentTick();
+
+            for (int i = 0; i < 100; i++) {
+                long delay = 1 + (long) (Math.pow(2, random.nextInt(30)) * random.nextDouble());
+
+                TimingWheel.Entry<Long> element = new TimingWheel.Entry<>(null, now + delay);
+                TimingWheel.Entry<TimingWheel.Entry<Long>> entry = new TimingWheel.Entry<>(element, now + delay);
+
+                assertTrue(wheel.add(entry));
+
+                entries.add(entry);
+            }
+
+            for (int i = 0; i < 20; i++) {
+                TimingWheel.Entry<TimingWheel.Entry<Long>> entry = entries.get(random.nextInt(entries.size()));
+
+                if (wheel.remove(entry)) {
+                    entries.remove(entry);
+                }
+            }
+
+            long target = now + random.nextInt(1 << 20);
+
+            List<TimingWheel.Entry<Long>> expired = new ArrayList<>();
+
+            wheel.advance(target, expired);
+
+            long previousDeadline = 0;
+
+            for (TimingWheel.Entry<Long> element: expired) {
+                assertTrue(element.getDeadline() <= target);
+                assertTrue(element.getDeadline() >= previousDeadline);
+
+                previousDeadline = element.getDeadline();
+            }
+
+            int expectedCount = 0;
+
+            for (TimingWheel.Entry<TimingWheel.Entry<Long>> entry: new ArrayList<>(entries)) {
+                if (entry.getDeadline() <= target) {
+                    assertFalse(entry.isScheduled());
+
+                    entries.remove(entry);
+
+                    expectedCount++;
+                }
+                else {
+                    assertTrue(entry.isScheduled());
+                }
+            }
+
+            assertEquals(expectedCount, expired.size());
+            assertEquals(entries.size(), wheel.size());
+        }
+    }
+
+}
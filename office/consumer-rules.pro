@@ -0,0 +1,4 @@
+# AndroidPlatform is instantiated by reflection from Platform.get().
+-keep class com.yashoid.office.android.AndroidPlatform {
+    public <init>();
+}
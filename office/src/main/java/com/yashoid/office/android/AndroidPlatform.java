@@ -0,0 +1,27 @@
+package com.yashoid.office.android;
+
+import com.yashoid.office.employee.EmployeeBackend;
+import com.yashoid.office.platform.MainExecutor;
+import com.yashoid.office.platform.Platform;
+
+/**
+ * Runs employees on Looper threads and the main section on the application's main thread. Picked
+ * up by Platform.get() through reflection so it must keep its public no argument constructor.
+ */
+public class AndroidPlatform extends Platform {
+
+    public AndroidPlatform() {
+
+    }
+
+    @Override
+    public EmployeeBackend newEmployeeBackend(String name) {
+        return new LooperEmployeeBackend(name);
+    }
+
+    @Override
+    public MainExecutor newMainExecutor() {
+        return new HandlerMainExecutor();
+    }
+
+}
@@ -0,0 +1,25 @@
+package com.yashoid.office.android;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.yashoid.office.platform.MainExecutor;
+
+/**
+ * Posts the main section's tasks to the application's main Looper.
+ */
+class HandlerMainExecutor implements MainExecutor {
+
+    private Handler mHandler = new Handler(Looper.getMainLooper());
+
+    @Override
+    public void execute(Runnable task) {
+        mHandler.post(task);
+    }
+
+    @Override
+    public void cancel(Runnable task) {
+        mHandler.removeCallbacks(task);
+    }
+
+}
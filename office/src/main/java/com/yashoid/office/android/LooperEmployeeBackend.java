@@ -0,0 +1,78 @@
+package com.yashoid.office.android;
+
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+
+import com.yashoid.office.employee.EmployeeBackend;
+
+/**
+ * An EmployeeBackend running on its own Looper thread.
+ */
+class LooperEmployeeBackend implements EmployeeBackend {
+
+    private String mName;
+
+    private Handler mHandler = null;
+
+    LooperEmployeeBackend(String name) {
+        mName = name;
+
+        new EmployeeThread().start();
+
+        synchronized (this) {
+            while (mHandler == null) {
+                try {
+                    wait();
+                } catch (InterruptedException e) { }
+            }
+        }
+    }
+
+    @Override
+    public boolean post(Runnable task) {
+        return mHandler.post(task);
+    }
+
+    @Override
+    public boolean postDelayed(Runnable task, long delayMillis) {
+        return mHandler.postDelayed(task, delayMillis);
+    }
+
+    @Override
+    public void removeCallbacks(Runnable task) {
+        mHandler.removeCallbacks(task);
+    }
+
+    @Override
+    public void quit() {
+        if (Build.VERSION.SDK_INT >= 18) {
+            mHandler.getLooper().quitSafely();
+        }
+        else {
+            mHandler.getLooper().quit();
+        }
+    }
+
+    private class EmployeeThread extends Thread {
+
+        @Override
+        public void run() {
+            if (mName != null) {
+                Thread.currentThread().setName(mName);
+            }
+
+            Looper.prepare();
+
+            synchronized (LooperEmployeeBackend.this) {
+                mHandler = new Handler();
+
+                LooperEmployeeBackend.this.notifyAll();
+            }
+
+            Looper.loop();
+        }
+
+    }
+
+}